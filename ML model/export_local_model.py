@@ -0,0 +1,91 @@
+# export_local_model.py
+#
+# Trains the small multinomial naive Bayes triage model that the Spring backend runs in-process
+# (LocalTriageClassifier) and writes it as JSON. Same data, cleaning and HIGH/LOW labelling as
+# Model.py, so the local model can be compared against the remote /predict service.
+#
+# Usage: python export_local_model.py [output.json]
+# Standard library only.
+
+import csv
+import json
+import math
+import re
+import sys
+from collections import Counter, defaultdict
+
+MODEL_VERSION = "triage-nb-v1"
+DEFAULT_OUTPUT = "../backend/src/main/resources/models/triage-nb-v1.json"
+
+HIGH_KEYWORDS = [
+    'chest pain', 'seizure', 'stroke', 'unconscious',
+    'shortness of breath', 'palpitation', 'bleeding',
+    'confusion', 'heart attack', 'cardiac arrest', 'tight chest',
+    'chestpain', 'shortnessofbreath', 'heartattack',
+    'cardiacarrest', 'tightchest'
+]
+
+
+def clean_text(text):
+    text = str(text).lower()
+    text = re.sub(r'[^a-zA-Z0-9, ]', '', text)
+    text = re.sub(r'\s+', ' ', text).strip()
+    return text
+
+
+def classify_risk(symptoms):
+    for kw in HIGH_KEYWORDS:
+        if kw in symptoms:
+            return 'HIGH'
+    return 'LOW'
+
+
+# unigrams plus bigrams inside each comma separated symptom phrase
+# (must match LocalTriageClassifier.tokenize)
+def tokenize(cleaned):
+    tokens = []
+    for phrase in cleaned.split(','):
+        words = phrase.split()
+        tokens.extend(words)
+        tokens.extend(words[i] + ' ' + words[i + 1] for i in range(len(words) - 1))
+    return tokens
+
+
+def main():
+    output = sys.argv[1] if len(sys.argv) > 1 else DEFAULT_OUTPUT
+
+    docs = []
+    with open("Diseases_Symptoms.csv", newline='', encoding='utf-8') as f:
+        for row in csv.DictReader(f):
+            if not row.get('Symptoms') or not row.get('Treatments'):
+                continue
+            cleaned = clean_text(row['Symptoms'])
+            docs.append((tokenize(cleaned), classify_risk(cleaned)))
+
+    labels = ['LOW', 'HIGH']
+    doc_counts = Counter(label for _, label in docs)
+    token_counts = defaultdict(Counter)
+    for tokens, label in docs:
+        token_counts[label].update(tokens)
+
+    vocabulary = sorted(set(t for counts in token_counts.values() for t in counts))
+    alpha = 1.0
+    totals = {label: sum(token_counts[label].values()) for label in labels}
+
+    model = {
+        "version": MODEL_VERSION,
+        "labels": labels,
+        "logPriors": [math.log((doc_counts[l] + alpha) / (len(docs) + alpha * len(labels))) for l in labels],
+        "highRiskKeywords": HIGH_KEYWORDS,
+        "logLikelihoods": {
+            t: [round(math.log((token_counts[l][t] + alpha) / (totals[l] + alpha * len(vocabulary))), 6) for l in labels]
+            for t in vocabulary
+        },
+    }
+    with open(output, 'w', encoding='utf-8') as f:
+        json.dump(model, f, separators=(',', ':'))
+    print(f"Wrote {MODEL_VERSION} to {output}: {len(docs)} documents, {len(vocabulary)} tokens, {dict(doc_counts)}")
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,169 @@
+package org.doc.reactive.Controller;
+
+import org.doc.reactive.Repository.AppointmentRepository;
+import org.doc.reactive.Service.AppointmentService;
+import org.doc.reactive.Service.BookingVersionService;
+import org.doc.reactive.Service.NotificationPipeline;
+import org.doc.reactive.dto.AppointmentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Same contract as the servlet AppointmentController for booking, listing, booked slots and status changes.
+// Slots always come from the database here: this deployment keeps no in-memory schedule.
+@RestController
+@RequestMapping("/appointments")
+public class AppointmentController {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentController.class);
+
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    @Autowired
+    private NotificationPipeline notificationPipeline;
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> bookAppointment(@RequestBody AppointmentDTO dto) {
+        if (dto.getDoctorId() == null || dto.getDoctorId().isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("message", "doctorId is required")));
+        }
+        // shed load while the confirmation backlog is full rather than booking without a confirmation
+        if (!notificationPipeline.hasCapacity()) {
+            log.warn("🚦 Booking rejected for contact {}: notification queue full", dto.getContact());
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                .body(Map.of(
+                    "message", "Booking service is busy, please retry later",
+                    "retryAfterSeconds", RETRY_AFTER_SECONDS
+                )));
+        }
+        return appointmentService.bookAppointment(dto)
+            .<ResponseEntity<?>>map(id -> {
+                // HashMap: date, time and contact are echoed as sent, and may be missing
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Appointment booked successfully");
+                response.put("doctorId", dto.getDoctorId());
+                response.put("date", dto.getDate());
+                response.put("time", dto.getTime());
+                response.put("contact", dto.getContact());
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            })
+            .onErrorResume(e -> {
+                log.error("❌ Error occurred in bookAppointment: {}", e.getMessage(), e);
+                return Mono.just(ResponseEntity.status(500).body("Error: " + e.getMessage()));
+            });
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAppointments() {
+        return list(appointmentRepository.findAll(), null);
+    }
+
+    @GetMapping("/{contact}")
+    public Mono<ResponseEntity<?>> getAppointmentsByContact(@PathVariable String contact, ServerWebExchange exchange) {
+        // Read the version before the rows: a booking landing in between then only costs one extra fetch
+        return bookingVersionService.contactETag(contact)
+            .flatMap(etag -> exchange.checkNotModified(etag)
+                ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build())
+                : list(appointmentRepository.findByContact(contact), etag))
+            .onErrorResume(AppointmentController::fetchFailed);
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public Mono<ResponseEntity<?>> getAppointmentsByDoctor(@PathVariable String doctorId, ServerWebExchange exchange) {
+        return bookingVersionService.doctorETag(doctorId)
+            .flatMap(etag -> exchange.checkNotModified(etag)
+                ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build())
+                : list(appointmentRepository.findByDoctorId(doctorId), etag))
+            .onErrorResume(AppointmentController::fetchFailed);
+    }
+
+    @GetMapping("/doctor/{doctorId}/slots")
+    public Mono<ResponseEntity<?>> getBookedSlots(@PathVariable String doctorId, @RequestParam String date) {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return Mono.just(ResponseEntity.badRequest().body("Invalid date: " + date));
+        }
+        return appointmentService.bookedTimes(doctorId, day)
+            .<ResponseEntity<?>>map(booked -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("doctorId", doctorId);
+                response.put("date", date);
+                response.put("booked", booked.stream().map(LocalTime::toString).toList());
+                response.put("source", "database");
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(e -> {
+                log.error("Error fetching booked slots for doctor {}: {}", doctorId, e.getMessage(), e);
+                return Mono.just(ResponseEntity.status(500).body("Error fetching slots: " + e.getMessage()));
+            });
+    }
+
+    @PutMapping("/{id}/status")
+    public Mono<ResponseEntity<?>> updateStatus(@PathVariable long id, @RequestBody Map<String, String> body) {
+        String doctorId = body.get("doctorId");
+        String status = body.get("status") == null ? null : body.get("status").toUpperCase();
+        log.info("=== STATUS CHANGE REQUESTED: appointment {} -> {} ===", id, status);
+        if (doctorId == null || !AppointmentService.STATUSES.contains(status)) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body("Body needs \"doctorId\" and \"status\" (one of " + AppointmentService.STATUSES + ")"));
+        }
+        return appointmentService.updateStatus(id, doctorId, status)
+            .<ResponseEntity<?>>map(updated -> updated
+                ? ResponseEntity.ok(Map.of("id", id, "status", status))
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).body("No appointment " + id + " for doctor " + doctorId))
+            .onErrorResume(IllegalStateException.class,
+                e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage())))
+            .onErrorResume(e -> {
+                log.error("Error updating appointment {}: {}", id, e.getMessage(), e);
+                return Mono.just(ResponseEntity.status(500).body("Error updating appointment: " + e.getMessage()));
+            });
+    }
+
+    @GetMapping("/notifications")
+    public Map<String, Object> notifications() {
+        return notificationPipeline.stats();
+    }
+
+    @GetMapping("/ping")
+    public String ping() {
+        return "pong";
+    }
+
+    private static Mono<ResponseEntity<?>> list(Flux<Map<String, Object>> rows, String etag) {
+        return rows.collectList()
+            .<ResponseEntity<?>>map(appointments -> etag == null
+                ? ResponseEntity.ok(appointments)
+                : ResponseEntity.ok().eTag(etag).body(appointments))
+            .onErrorResume(AppointmentController::fetchFailed);
+    }
+
+    private static Mono<ResponseEntity<?>> fetchFailed(Throwable e) {
+        log.error("Error fetching appointments: {}", e.getMessage(), e);
+        return Mono.just(ResponseEntity.status(500).body("Error fetching appointments: " + e.getMessage()));
+    }
+}
@@ -0,0 +1,18 @@
+package org.doc.reactive.Controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class HealthController {
+
+    @GetMapping({"/health", "/health-check"})
+    public String health() {
+        return "OK";
+    }
+
+    @GetMapping("/")
+    public String index() {
+        return "DocAI reactive backend is up and running!";
+    }
+}
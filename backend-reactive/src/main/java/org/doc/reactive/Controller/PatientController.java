@@ -0,0 +1,42 @@
+package org.doc.reactive.Controller;
+
+import org.doc.reactive.Entity.Patient;
+import org.doc.reactive.Service.PatientService;
+import org.doc.reactive.Service.TriageClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/patient")
+public class PatientController {
+
+    @Autowired
+    private PatientService service;
+
+    @Autowired
+    private TriageClient triageClient;
+
+    @PostMapping("/submit-all")
+    public Mono<ResponseEntity<?>> handleAllAtOnce(@RequestBody Patient patient) {
+        return service.savePatient(patient)
+            .then(service.fetchSymptoms(patient.getName()))
+            .filter(symptoms -> !symptoms.isEmpty())
+            .flatMap(symptoms -> triageClient.predict(Arrays.asList(symptoms.split(",")))
+                .<ResponseEntity<?>>map(prediction -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "✅ Patient saved and prediction done");
+                    response.put("ml_output", prediction);
+                    return ResponseEntity.ok(response);
+                }))
+            .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No symptoms found for patient.")))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Something went wrong: " + e.getMessage())));
+    }
+}
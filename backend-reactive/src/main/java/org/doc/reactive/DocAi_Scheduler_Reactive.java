@@ -0,0 +1,13 @@
+package org.doc.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class DocAi_Scheduler_Reactive
+{
+	public static void main(String[] args)
+	{
+		SpringApplication.run(DocAi_Scheduler_Reactive.class, args);
+	}
+}
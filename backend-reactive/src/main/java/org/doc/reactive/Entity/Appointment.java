@@ -0,0 +1,16 @@
+package org.doc.reactive.Entity;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class Appointment {
+    private Long id;
+    private String doctorId;
+    private LocalDate date;
+    private LocalTime time;
+    private String reason;
+    private String contact;
+    private String status = "SCHEDULED";
+}
@@ -0,0 +1,12 @@
+package org.doc.reactive.Entity;
+
+import lombok.Data;
+
+@Data
+public class Patient {
+    private int id;
+    private String name;
+    private int age;
+    private String symptoms;
+    private String pincode;
+}
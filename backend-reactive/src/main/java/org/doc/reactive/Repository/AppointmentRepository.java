@@ -0,0 +1,91 @@
+package org.doc.reactive.Repository;
+
+import org.doc.reactive.Entity.Appointment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+
+// Same queries as the servlet AppointmentRepository, against this deployment's own unsharded database.
+@Repository
+public class AppointmentRepository {
+
+    @Autowired
+    private DatabaseClient db;
+
+    public Mono<Long> save(Appointment appointment) {
+        String sql = "INSERT INTO appointments(doctor_id, date, time, reason, contact, status) "
+            + "VALUES (:doctorId, :date, :time, :reason, :contact, :status)";
+        return db.sql(sql)
+            .bind("doctorId", appointment.getDoctorId())
+            .bind("date", appointment.getDate())
+            .bind("time", appointment.getTime())
+            .bind("reason", appointment.getReason())
+            .bind("contact", appointment.getContact())
+            .bind("status", appointment.getStatus())
+            .filter(statement -> statement.returnGeneratedValues("id"))
+            .map(row -> row.get("id", Long.class))
+            .one();
+    }
+
+    public Flux<Map<String, Object>> findByContact(String contact) {
+        return db.sql("SELECT * FROM appointments WHERE contact = :contact ORDER BY created_at DESC")
+            .bind("contact", contact)
+            .fetch().all();
+    }
+
+    public Flux<Map<String, Object>> findByDoctorId(String doctorId) {
+        return db.sql("SELECT * FROM appointments WHERE doctor_id = :doctorId")
+            .bind("doctorId", doctorId)
+            .fetch().all();
+    }
+
+    /** Times taken on that day: every appointment that isn't cancelled, earliest first. */
+    public Flux<LocalTime> findBookedTimes(String doctorId, LocalDate date) {
+        String sql = "SELECT time FROM appointments WHERE doctor_id = :doctorId AND date = :date "
+            + "AND (status IS NULL OR status <> 'CANCELLED') ORDER BY time";
+        return db.sql(sql)
+            .bind("doctorId", doctorId)
+            .bind("date", date)
+            .map(row -> row.get("time", LocalTime.class))
+            .all();
+    }
+
+    /**
+     * Sets the status if the row still has the status it was read with; emits the row as it was
+     * before, nothing if the doctor has no such appointment, or an IllegalStateException if another
+     * request changed it in between.
+     */
+    public Mono<Map<String, Object>> updateStatus(String doctorId, long id, String status) {
+        return db.sql("SELECT * FROM appointments WHERE id = :id AND doctor_id = :doctorId")
+            .bind("id", id)
+            .bind("doctorId", doctorId)
+            .fetch().one()
+            .flatMap(before -> {
+                // legacy rows can have a NULL status, which "status = :previous" never matches
+                Object previous = before.get("status");
+                String sql = "UPDATE appointments SET status = :status WHERE id = :id AND doctor_id = :doctorId AND "
+                    + (previous == null ? "status IS NULL" : "status = :previous");
+                DatabaseClient.GenericExecuteSpec update = db.sql(sql)
+                    .bind("status", status)
+                    .bind("id", id)
+                    .bind("doctorId", doctorId);
+                if (previous != null) {
+                    update = update.bind("previous", previous);
+                }
+                return update.fetch().rowsUpdated()
+                    .flatMap(updated -> updated == 0
+                        ? Mono.error(new IllegalStateException("Appointment " + id + " was changed concurrently, retry"))
+                        : Mono.just(before));
+            });
+    }
+
+    public Flux<Map<String, Object>> findAll() {
+        return db.sql("SELECT * FROM appointments ORDER BY created_at DESC").fetch().all();
+    }
+}
@@ -0,0 +1,28 @@
+package org.doc.reactive.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class BookingVersionRepository {
+
+    @Autowired
+    private DatabaseClient db;
+
+    public Mono<Long> increment(String kind, String key) {
+        String sql = "INSERT INTO booking_versions(kind, entity_key, version) VALUES (:kind, :key, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+        return db.sql(sql).bind("kind", kind).bind("key", key).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> findVersion(String kind, String key) {
+        return db.sql("SELECT version FROM booking_versions WHERE kind = :kind AND entity_key = :key")
+            .bind("kind", kind)
+            .bind("key", key)
+            .map(row -> row.get("version", Long.class))
+            .one()
+            .defaultIfEmpty(0L);
+    }
+}
@@ -0,0 +1,30 @@
+package org.doc.reactive.Repository;
+
+import org.doc.reactive.Entity.Patient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class PatientRepository {
+
+    @Autowired
+    private DatabaseClient db;
+
+    public Mono<Long> save(Patient patient) {
+        DatabaseClient.GenericExecuteSpec insert = db.sql("INSERT INTO patients(name, age, symptoms, pincode) VALUES (:name, :age, :symptoms, :pincode)")
+            .bind("name", patient.getName())
+            .bind("age", patient.getAge())
+            .bind("symptoms", patient.getSymptoms());
+        insert = patient.getPincode() == null ? insert.bindNull("pincode", String.class) : insert.bind("pincode", patient.getPincode());
+        return insert.fetch().rowsUpdated();
+    }
+
+    public Mono<String> getSymptomsByName(String name) {
+        return db.sql("SELECT symptoms FROM patients WHERE name = :name ORDER BY created_at DESC LIMIT 1")
+            .bind("name", name)
+            .map(row -> row.get("symptoms", String.class))
+            .one();
+    }
+}
@@ -0,0 +1,78 @@
+package org.doc.reactive.Service;
+
+import org.doc.reactive.Entity.Appointment;
+import org.doc.reactive.Repository.AppointmentRepository;
+import org.doc.reactive.dto.AppointmentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Service
+public class AppointmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentService.class);
+
+    public static final List<String> STATUSES = List.of("SCHEDULED", "COMPLETED", "CANCELLED", "NO_SHOW");
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    @Autowired
+    private NotificationPipeline notificationPipeline;
+
+    /**
+     * Inserts the booking and bumps the ETag versions; the confirmation is queued and sent after the
+     * response. Emits the new appointment id.
+     */
+    public Mono<Long> bookAppointment(AppointmentDTO dto) {
+        return Mono.fromCallable(() -> {
+                Appointment appointment = new Appointment();
+                appointment.setDoctorId(dto.getDoctorId());
+                appointment.setDate(LocalDate.parse(dto.getDate()));
+                appointment.setTime(LocalTime.parse(dto.getTime()));
+                appointment.setReason(dto.getReason());
+                appointment.setContact(dto.getContact());
+                return appointment;
+            })
+            .flatMap(appointmentRepository::save)
+            .doOnNext(id -> log.info("📥 DB Insert complete, appointment id: {}", id))
+            .flatMap(id -> bookingVersionService.onChanged(dto.getContact(), dto.getDoctorId())
+                .onErrorResume(e -> {
+                    log.warn("⚠️ Booking version bump failed: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(id))
+            .doOnNext(id -> notificationPipeline.enqueue(dto));
+    }
+
+    /** Booked times of the doctor on that day, earliest first; cancelled appointments free their slot. */
+    public Mono<List<LocalTime>> bookedTimes(String doctorId, LocalDate date) {
+        return appointmentRepository.findBookedTimes(doctorId, date).collectList();
+    }
+
+    /**
+     * Moves the appointment to {@code status} and bumps the ETag versions. Emits true once done, false
+     * if the doctor has no such appointment, or an IllegalStateException on a concurrent change.
+     */
+    public Mono<Boolean> updateStatus(long id, String doctorId, String status) {
+        log.info("🔁 Setting appointment {} of doctor {} to {}", id, doctorId, status);
+        return appointmentRepository.updateStatus(doctorId, id, status)
+            .flatMap(before -> bookingVersionService.onChanged((String) before.get("contact"), doctorId)
+                .onErrorResume(e -> {
+                    log.warn("⚠️ Booking version bump failed: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .doOnSuccess(ignored -> log.info("✅ Appointment {} is now {} (was {})", id, status, before.get("status")))
+                .thenReturn(true))
+            .defaultIfEmpty(false);
+    }
+}
@@ -0,0 +1,32 @@
+package org.doc.reactive.Service;
+
+import org.doc.reactive.Repository.BookingVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+// Versions in this deployment's own booking_versions table (see StandaloneDatabaseCheck). ETags carry an
+// "r" prefix so a cache in front of both variants never mixes them up with the servlet backend's.
+@Service
+public class BookingVersionService {
+
+    private static final String CONTACT = "contact";
+    private static final String DOCTOR = "doctor";
+
+    @Autowired
+    private BookingVersionRepository versionRepository;
+
+    public Mono<Void> onChanged(String contact, String doctorId) {
+        return versionRepository.increment(CONTACT, contact)
+            .then(versionRepository.increment(DOCTOR, doctorId))
+            .then();
+    }
+
+    public Mono<String> contactETag(String contact) {
+        return versionRepository.findVersion(CONTACT, contact).map(v -> "\"rc" + v + "\"");
+    }
+
+    public Mono<String> doctorETag(String doctorId) {
+        return versionRepository.findVersion(DOCTOR, doctorId).map(v -> "\"rd" + v + "\"");
+    }
+}
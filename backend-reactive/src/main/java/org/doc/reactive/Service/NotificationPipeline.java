@@ -0,0 +1,126 @@
+package org.doc.reactive.Service;
+
+import org.doc.reactive.dto.AppointmentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Booking side effects (PDF, email, SMS) as a stream decoupled from the request. Confirmations go
+ * into a bounded queue and are drained with at most {@code notifications.max-concurrent} in flight;
+ * flatMap only requests more from the queue as sends complete, so a slow SMTP server fills the queue
+ * instead of piling up threads. The sends run on their own scheduler with exactly that many threads:
+ * a timeout cancels the Mono but can't interrupt a blocking SMTP or Twilio call, so the thread cap
+ * is what keeps timed-out sends from adding to the ones in flight. When the queue is full
+ * {@link #hasCapacity()} is false and new bookings are turned away before they are written.
+ */
+@Service
+public class NotificationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    @Value("${notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${notifications.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${notifications.timeout-ms:30000}")
+    private long timeoutMillis;
+
+    @Autowired
+    private NotificationSender sender;
+
+    private Sinks.Many<AppointmentDTO> queue;
+    private Scheduler senders;
+    private Disposable subscription;
+    // queued plus in flight
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        queue = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(queueCapacity));
+        senders = Schedulers.newBoundedElastic(maxConcurrent, queueCapacity, "notification-send");
+        subscription = queue.asFlux()
+            .flatMap(dto -> Mono.fromCallable(() -> {
+                        sender.send(dto);
+                        return dto;
+                    })
+                    .subscribeOn(senders)
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .doOnSuccess(d -> sent.increment())
+                    .onErrorResume(e -> {
+                        failed.increment();
+                        log.error("❌ Confirmation for {} failed: {}", dto.getContact(), e.getMessage());
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> pending.decrementAndGet()),
+                maxConcurrent)
+            .subscribe();
+        log.info("📬 Notification pipeline started: {} concurrent, queue of {}", maxConcurrent, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.tryEmitComplete();
+        subscription.dispose();
+        senders.dispose();
+    }
+
+    public boolean hasCapacity() {
+        return !enabled || pending.get() < queueCapacity;
+    }
+
+    /** Queues a confirmation; returns false (and drops it) if the queue is full. */
+    public boolean enqueue(AppointmentDTO dto) {
+        if (!enabled) {
+            return true;
+        }
+        pending.incrementAndGet();
+        Sinks.EmitResult result;
+        // a sink accepts one emitter at a time
+        synchronized (this) {
+            result = queue.tryEmitNext(dto);
+        }
+        if (result.isFailure()) {
+            pending.decrementAndGet();
+            dropped.increment();
+            log.warn("⚠️ Confirmation for {} dropped: {}", dto.getContact(), result);
+            return false;
+        }
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("capacity", queueCapacity);
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+}
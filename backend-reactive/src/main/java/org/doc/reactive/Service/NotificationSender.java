@@ -0,0 +1,88 @@
+package org.doc.reactive.Service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.twilio.Twilio;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import org.doc.reactive.dto.AppointmentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.internet.MimeMessage;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * The booking confirmation: a PDF slip by email, or an SMS summary for phone contacts. SMTP and
+ * Twilio only have blocking clients, so these methods must only run on a blocking-friendly scheduler
+ * (see {@link NotificationPipeline}), never on an event-loop thread.
+ */
+@Service
+public class NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationSender.class);
+
+    @Value("${twilio.account.sid:}")
+    private String accountSid;
+
+    @Value("${twilio.auth.token:}")
+    private String authToken;
+
+    @Value("${twilio.phone.number:}")
+    private String twilioPhoneNumber;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @PostConstruct
+    public void init() {
+        if (!accountSid.isBlank() && !authToken.isBlank()) {
+            Twilio.init(accountSid, authToken);
+            log.info("✅ Twilio initialized");
+        } else {
+            log.warn("⚠️ Twilio credentials not set - SMS confirmations will fail");
+        }
+    }
+
+    public void send(AppointmentDTO dto) throws Exception {
+        if (dto.getContact().contains("@")) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            helper.setTo(dto.getContact());
+            helper.setSubject("Your Appointment Slip");
+            helper.setText("Hi! Your appointment has been confirmed. Please find the attached slip.");
+            helper.addAttachment("AppointmentSlip.pdf", new ByteArrayResource(createPdf(dto)));
+            mailSender.send(message);
+            log.info("📧 Email sent to {}", dto.getContact());
+        } else {
+            String text = "📅 Appointment booked!\n"
+                + "Doctor: " + dto.getDoctorId() + "\n"
+                + "Date: " + dto.getDate() + " at " + dto.getTime() + "\n"
+                + "Reason: " + dto.getReason();
+            Message.creator(new PhoneNumber("+91" + dto.getContact()), new PhoneNumber(twilioPhoneNumber), text).create();
+            log.info("📱 SMS sent to +91{}", dto.getContact());
+        }
+    }
+
+    // in memory: no temp files left behind by concurrent bookings
+    private static byte[] createPdf(AppointmentDTO dto) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document doc = new Document(new PdfDocument(new PdfWriter(out)));
+        doc.add(new Paragraph("🩺 Appointment Slip").setBold().setFontSize(20));
+        doc.add(new Paragraph("Doctor ID: " + dto.getDoctorId()));
+        doc.add(new Paragraph("Date: " + dto.getDate()));
+        doc.add(new Paragraph("Time: " + dto.getTime()));
+        doc.add(new Paragraph("Reason: " + dto.getReason()));
+        doc.add(new Paragraph("Contact: " + dto.getContact()));
+        doc.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,22 @@
+package org.doc.reactive.Service;
+
+import org.doc.reactive.Entity.Patient;
+import org.doc.reactive.Repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class PatientService {
+
+    @Autowired
+    private PatientRepository repository;
+
+    public Mono<Long> savePatient(Patient patient) {
+        return repository.save(patient);
+    }
+
+    public Mono<String> fetchSymptoms(String name) {
+        return repository.getSymptomsByName(name);
+    }
+}
@@ -0,0 +1,39 @@
+package org.doc.reactive.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Calls the ML service without holding a thread while it answers (it can take seconds on a cold start).
+@Service
+public class TriageClient {
+
+    @Value("${triage.remote.url:https://doc-ai-ml.onrender.com/predict}")
+    private String remoteUrl;
+
+    @Value("${triage.remote.timeout-ms:30000}")
+    private long timeoutMillis;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = WebClient.create();
+    }
+
+    public Mono<Map<String, Object>> predict(List<String> symptoms) {
+        return webClient.post()
+            .uri(remoteUrl)
+            .bodyValue(Map.of("symptoms", symptoms))
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+            .timeout(Duration.ofMillis(timeoutMillis));
+    }
+}
@@ -0,0 +1,133 @@
+package org.doc.reactive.bench;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for comparing the servlet backend with this reactive variant: opens
+ * {@code connections} keep-alive connections and keeps one request in flight on each for the given
+ * duration, then prints throughput, latency percentiles and status codes. Run it against each
+ * server in turn with the same arguments:
+ *
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=org.doc.reactive.bench.LoadBenchmark \
+ *     -Dexec.args="http://localhost:8080 2000 60 read"
+ * mvn -q compile exec:java -Dexec.mainClass=org.doc.reactive.bench.LoadBenchmark \
+ *     -Dexec.args="http://localhost:8081 2000 60 read"
+ * </pre>
+ *
+ * Modes: {@code read} lists one of 50 doctors' appointments, {@code book} posts bookings for
+ * {@code @example.invalid} contacts (start both servers with notifications off, or every booking
+ * also measures a failing SMTP round trip), {@code mixed} does one booking per nine reads. A warm-up
+ * of a tenth of the duration is run first and not counted.
+ */
+public class LoadBenchmark {
+
+    public static void main(String[] args) {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String mode = args.length > 3 ? args[3] : "read";
+
+        ConnectionProvider pool = ConnectionProvider.builder("load-benchmark")
+            .maxConnections(connections)
+            .pendingAcquireMaxCount(-1)
+            .build();
+        HttpClient client = HttpClient.create(pool).baseUrl(baseUrl).responseTimeout(Duration.ofSeconds(30));
+        try {
+            System.out.printf("Warming up %s with %d connections (%s)...%n", baseUrl, connections, mode);
+            run(client, connections, Math.max(1, seconds / 10), mode);
+            Result result = run(client, connections, seconds, mode);
+            result.print(baseUrl, connections, mode);
+        } finally {
+            pool.disposeLater().block();
+        }
+    }
+
+    private static Result run(HttpClient client, int connections, int seconds, String mode) {
+        Result result = new Result();
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong sequence = new AtomicLong();
+        long start = System.nanoTime();
+        Flux.range(0, connections)
+            .flatMap(worker -> Mono.defer(() -> request(client, mode, sequence.incrementAndGet()))
+                    .doOnNext(result::record)
+                    .onErrorResume(e -> {
+                        result.error(e);
+                        return Mono.empty();
+                    })
+                    .repeat(() -> System.nanoTime() < end),
+                connections)
+            .blockLast();
+        result.seconds = (System.nanoTime() - start) / 1e9;
+        return result;
+    }
+
+    // emits {status, latency in nanos}
+    private static Mono<long[]> request(HttpClient client, String mode, long n) {
+        long start = System.nanoTime();
+        boolean book = "book".equals(mode) || ("mixed".equals(mode) && n % 10 == 0);
+        HttpClient.ResponseReceiver<?> request;
+        if (book) {
+            String body = String.format("{\"doctorId\":\"bench-doc-%d\",\"date\":\"%s\",\"time\":\"%02d:%02d\","
+                    + "\"reason\":\"load benchmark\",\"contact\":\"bench-%d@example.invalid\"}",
+                n % 50, LocalDate.now().plusDays(1 + n % 30), 9 + n % 8, (n % 4) * 15, n);
+            request = client.headers(h -> h.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+                .post().uri("/appointments").send(ByteBufFlux.fromString(Mono.just(body)));
+        } else {
+            request = client.get().uri("/appointments/doctor/bench-doc-" + (n % 50));
+        }
+        return request.responseSingle((response, content) -> content.then(
+            Mono.fromSupplier(() -> new long[] {response.status().code(), System.nanoTime() - start})));
+    }
+
+    private static class Result {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<Long, AtomicLong> statuses = new ConcurrentHashMap<>();
+        private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        private double seconds;
+
+        void record(long[] response) {
+            latencies.add(response[1]);
+            statuses.computeIfAbsent(response[0], k -> new AtomicLong()).incrementAndGet();
+        }
+
+        void error(Throwable e) {
+            errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+        }
+
+        void print(String baseUrl, int connections, String mode) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            long ok = statuses.entrySet().stream().filter(e -> e.getKey() < 400).mapToLong(e -> e.getValue().get()).sum();
+            System.out.printf("%n%s  connections=%d  mode=%s  %.1f s%n", baseUrl, connections, mode, seconds);
+            System.out.printf("responses  %d (%.0f/s), successful %d (%.0f/s)%n",
+                sorted.length, sorted.length / seconds, ok, ok / seconds);
+            System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+            System.out.println("status     " + new TreeMap<>(statuses));
+            System.out.println("errors     " + new TreeMap<>(errors));
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.doc.reactive.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * This module is a standalone, unsharded deployment with its own database. It must not write into
+ * the servlet backend's database: that one routes appointments across shards, and keeps the booked
+ * slots, stats, reminders and hot window in memory, fed only by its own bookings, so rows written
+ * here would be missed (and their slots double booked). The servlet backend always creates
+ * {@code appointment_ids}, so finding that table means the database is shared; startup stops.
+ */
+@Component
+public class StandaloneDatabaseCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(StandaloneDatabaseCheck.class);
+
+    @Autowired
+    private DatabaseClient db;
+
+    @PostConstruct
+    public void check() {
+        Long servletTables = db.sql("SELECT COUNT(*) AS n FROM information_schema.tables "
+                + "WHERE table_schema = DATABASE() AND table_name = 'appointment_ids'")
+            .map(row -> row.get("n", Long.class))
+            .one()
+            .block();
+        if (servletTables != null && servletTables > 0) {
+            throw new IllegalStateException("SPRING_R2DBC_URL points at the servlet backend's database; "
+                + "the reactive backend needs a database of its own");
+        }
+        log.info("✅ Standalone database check passed");
+    }
+}
@@ -0,0 +1,23 @@
+package org.doc.reactive.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+@Configuration
+public class WebConfig implements WebFluxConfigurer {
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**")
+            .allowedOrigins(
+                "http://localhost:5173", // Vite dev server
+                "https://doc-ai-scheduler.vercel.app" // Vercel frontend
+            )
+            .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+            .allowedHeaders("Authorization", "Content-Type", "X-Requested-With", "Accept", "If-None-Match")
+            .exposedHeaders("Authorization", "Retry-After", "ETag")
+            .allowCredentials(true)
+            .maxAge(3600);
+    }
+}
@@ -0,0 +1,12 @@
+package org.doc.reactive.dto;
+
+import lombok.Data;
+
+@Data
+public class AppointmentDTO {
+    private String doctorId;
+    private String date;
+    private String time;
+    private String reason;
+    private String contact;
+}
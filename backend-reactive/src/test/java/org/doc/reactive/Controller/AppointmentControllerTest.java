@@ -0,0 +1,123 @@
+package org.doc.reactive.Controller;
+
+import org.doc.reactive.Repository.AppointmentRepository;
+import org.doc.reactive.Service.AppointmentService;
+import org.doc.reactive.Service.BookingVersionService;
+import org.doc.reactive.Service.NotificationPipeline;
+import org.doc.reactive.dto.AppointmentDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AppointmentControllerTest {
+
+    private AppointmentService appointmentService;
+    private NotificationPipeline notificationPipeline;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        appointmentService = mock(AppointmentService.class);
+        notificationPipeline = mock(NotificationPipeline.class);
+        when(notificationPipeline.hasCapacity()).thenReturn(true);
+
+        // the controller is autowired, so its collaborators go in as singletons (which aren't autowired themselves)
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("appointmentService", appointmentService);
+        context.getBeanFactory().registerSingleton("appointmentRepository", mock(AppointmentRepository.class));
+        context.getBeanFactory().registerSingleton("bookingVersionService", mock(BookingVersionService.class));
+        context.getBeanFactory().registerSingleton("notificationPipeline", notificationPipeline);
+        context.register(WebFlux.class, AppointmentController.class);
+        context.refresh();
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @EnableWebFlux
+    static class WebFlux {
+    }
+
+    @Test
+    void bookingWithoutADoctorIsABadRequest() {
+        client.post().uri("/appointments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("date", "2025-06-21", "time", "15:00", "contact", "a@example.com"))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.message").isEqualTo("doctorId is required");
+        verify(appointmentService, never()).bookAppointment(any());
+    }
+
+    @Test
+    void bookingWithoutAContactIsEchoedWithoutFailing() {
+        when(appointmentService.bookAppointment(any(AppointmentDTO.class))).thenReturn(Mono.just(7L));
+
+        client.post().uri("/appointments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("doctorId", "doc1", "date", "2025-06-21", "time", "15:00"))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody()
+            .jsonPath("$.doctorId").isEqualTo("doc1")
+            .jsonPath("$.contact").doesNotExist();
+    }
+
+    @Test
+    void bookedSlotsComeFromTheDatabase() {
+        when(appointmentService.bookedTimes("doc1", LocalDate.of(2025, 6, 21)))
+            .thenReturn(Mono.just(List.of(LocalTime.of(9, 0), LocalTime.of(15, 30))));
+
+        client.get().uri("/appointments/doctor/doc1/slots?date=2025-06-21")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.booked[0]").isEqualTo("09:00")
+            .jsonPath("$.booked[1]").isEqualTo("15:30")
+            .jsonPath("$.source").isEqualTo("database");
+
+        client.get().uri("/appointments/doctor/doc1/slots?date=21-06-2025")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void statusChangesMapToTheServletBackendsResponses() {
+        when(appointmentService.updateStatus(1L, "doc1", "CANCELLED")).thenReturn(Mono.just(true));
+        when(appointmentService.updateStatus(2L, "doc1", "CANCELLED")).thenReturn(Mono.just(false));
+        when(appointmentService.updateStatus(3L, "doc1", "CANCELLED"))
+            .thenReturn(Mono.error(new IllegalStateException("Appointment 3 was changed concurrently, retry")));
+
+        client.put().uri("/appointments/1/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("doctorId", "doc1", "status", "cancelled"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.status").isEqualTo("CANCELLED");
+        client.put().uri("/appointments/2/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("doctorId", "doc1", "status", "CANCELLED"))
+            .exchange()
+            .expectStatus().isNotFound();
+        client.put().uri("/appointments/3/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("doctorId", "doc1", "status", "CANCELLED"))
+            .exchange()
+            .expectStatus().isEqualTo(409);
+        client.put().uri("/appointments/1/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("doctorId", "doc1", "status", "POSTPONED"))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+}
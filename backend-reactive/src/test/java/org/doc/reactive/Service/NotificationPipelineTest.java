@@ -0,0 +1,99 @@
+package org.doc.reactive.Service;
+
+import org.doc.reactive.dto.AppointmentDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationPipelineTest {
+
+    private NotificationPipeline pipeline;
+
+    @AfterEach
+    void stop() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void timedOutSendsDoNotRaiseConcurrencyAboveTheCap() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        // a send that ignores cancellation and outlives the pipeline timeout, like a hung SMTP call
+        NotificationSender slow = new NotificationSender() {
+            @Override
+            public void send(AppointmentDTO dto) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(150);
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                inFlight.decrementAndGet();
+            }
+        };
+        pipeline = pipeline(slow, 2, 64, 20);
+
+        for (int i = 0; i < 12; i++) {
+            assertTrue(pipeline.enqueue(dto("patient" + i + "@example.com")));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (((int) pipeline.stats().get("pending") > 0 || inFlight.get() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pipeline.stats().get("pending"));
+        assertTrue(maxInFlight.get() <= 2, "at most max-concurrent sends may run, saw " + maxInFlight.get());
+        assertTrue((long) pipeline.stats().get("failed") > 0, "sends past the timeout are counted as failed");
+    }
+
+    @Test
+    void fullQueueRefusesNewConfirmations() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationSender blocked = new NotificationSender() {
+            @Override
+            public void send(AppointmentDTO dto) throws Exception {
+                release.await();
+            }
+        };
+        pipeline = pipeline(blocked, 1, 3, 30_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(pipeline.enqueue(dto("patient" + i + "@example.com")));
+        }
+        assertFalse(pipeline.hasCapacity());
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!pipeline.hasCapacity() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(pipeline.hasCapacity());
+        assertEquals(0, pipeline.stats().get("pending"));
+    }
+
+    private static NotificationPipeline pipeline(NotificationSender sender, int maxConcurrent, int capacity, long timeoutMillis) {
+        NotificationPipeline pipeline = new NotificationPipeline();
+        ReflectionTestUtils.setField(pipeline, "sender", sender);
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(pipeline, "timeoutMillis", timeoutMillis);
+        pipeline.init();
+        return pipeline;
+    }
+
+    private static AppointmentDTO dto(String contact) {
+        AppointmentDTO dto = new AppointmentDTO();
+        dto.setDoctorId("doc1");
+        dto.setDate("2025-07-01");
+        dto.setTime("10:30");
+        dto.setReason("Checkup");
+        dto.setContact(contact);
+        return dto;
+    }
+}
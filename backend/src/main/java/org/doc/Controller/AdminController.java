@@ -0,0 +1,201 @@
+package org.doc.Controller;
+
+import org.doc.Service.BookingJournal;
+import org.doc.Service.CalendarFeedService;
+import org.doc.Service.HotWindowStore;
+import org.doc.Service.JfrRecorder;
+import org.doc.Service.RecordingAnalyzer;
+import org.doc.Service.ReshardingService;
+import org.doc.tracing.InMemorySpanExporter;
+import org.doc.tracing.Span;
+import org.doc.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private ReshardingService reshardingService;
+
+    @Autowired
+    private BookingJournal bookingJournal;
+
+    @Autowired
+    private HotWindowStore hotWindowStore;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private JfrRecorder jfrRecorder;
+
+    @Autowired
+    private RecordingAnalyzer recordingAnalyzer;
+
+    @GetMapping("/shards")
+    public ResponseEntity<?> shardStatus() {
+        return ResponseEntity.ok(reshardingService.status());
+    }
+
+    @PostMapping("/shards/reshard")
+    public ResponseEntity<?> reshard(@RequestBody Map<String, List<String>> body) {
+        List<String> ring = body.get("ring");
+        log.info("=== RESHARD REQUESTED: target ring {} ===", ring);
+        if (ring == null || ring.isEmpty()) {
+            return ResponseEntity.badRequest().body("Body must contain a non-empty \"ring\" list of shard names");
+        }
+        try {
+            reshardingService.start(ring);
+            return ResponseEntity.accepted().body(reshardingService.status());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("⚠️ Reshard rejected: {}", e.getMessage());
+            return ResponseEntity.status(409).body("Reshard rejected: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/calendar/{doctorId}")
+    public ResponseEntity<?> calendarFeed(@PathVariable String doctorId) {
+        String token = calendarFeedService.feedToken(doctorId);
+        if (token == null) {
+            return ResponseEntity.status(409).body("Calendar feeds are disabled (calendar.feed-secret not set)");
+        }
+        Map<String, Object> feed = new LinkedHashMap<>();
+        feed.put("doctorId", doctorId);
+        feed.put("path", "/doctors/" + UriUtils.encodePathSegment(doctorId, StandardCharsets.UTF_8) + "/calendar/" + token + ".ics");
+        return ResponseEntity.ok(feed);
+    }
+
+    @GetMapping("/journal")
+    public ResponseEntity<?> journalStatus() {
+        return ResponseEntity.ok(bookingJournal.stats());
+    }
+
+    @PostMapping("/journal/snapshot")
+    public ResponseEntity<?> journalSnapshot() {
+        log.info("=== JOURNAL SNAPSHOT REQUESTED ===");
+        try {
+            return ResponseEntity.ok(bookingJournal.snapshot());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body("Snapshot rejected: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("❌ Journal snapshot failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Snapshot failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/hot-window")
+    public ResponseEntity<?> hotWindowStatus() {
+        return ResponseEntity.ok(hotWindowStore.stats());
+    }
+
+    @PostMapping("/hot-window/reload")
+    public ResponseEntity<?> hotWindowReload() {
+        log.info("=== HOT WINDOW RELOAD REQUESTED ===");
+        try {
+            return ResponseEntity.ok(hotWindowStore.reload());
+        } catch (Exception e) {
+            log.error("❌ Hot window reload failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Reload failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/traces")
+    public ResponseEntity<?> traces(@RequestParam(required = false) String traceId,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        Map<String, Object> response = new LinkedHashMap<>(tracer.stats());
+        if (tracer.getExporter() instanceof InMemorySpanExporter memory) {
+            List<Span> spans = traceId != null ? memory.getTrace(traceId) : memory.getSpans();
+            int count = Math.max(0, Math.min(limit, spans.size()));
+            response.put("spans", spans.subList(spans.size() - count, spans.size()).stream()
+                .map(Span::toMap).toList());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jfr")
+    public ResponseEntity<?> jfrStatus() {
+        return ResponseEntity.ok(jfrRecorder.status());
+    }
+
+    @PostMapping("/jfr/start")
+    public ResponseEntity<?> jfrStart(@RequestParam(defaultValue = "60") long seconds) {
+        log.info("=== JFR RECORDING REQUESTED: {} s ===", seconds);
+        try {
+            return ResponseEntity.ok(jfrRecorder.start(seconds));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body("Recording rejected: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("❌ JFR recording failed to start: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Recording failed: " + e.getMessage());
+        }
+    }
+
+    /** Stops the running recording and returns the .jfr file. */
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<?> jfrStop() {
+        log.info("=== JFR RECORDING STOP REQUESTED ===");
+        try {
+            return recordingDownload(jfrRecorder.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("❌ JFR recording failed to stop: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Stop failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/jfr/recordings/{name}")
+    public ResponseEntity<?> jfrDownload(@PathVariable String name) {
+        try {
+            return recordingDownload(jfrRecorder.recordingFile(name));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
+    /** Per-stage latency, allocation and contention summary of a recording (the latest by default). */
+    @GetMapping("/jfr/analyze")
+    public ResponseEntity<?> jfrAnalyze(@RequestParam(required = false) String name) {
+        try {
+            List<Path> recordings = jfrRecorder.listRecordings();
+            if (name == null && recordings.isEmpty()) {
+                return ResponseEntity.status(404).body("No recordings yet");
+            }
+            Path file = name != null ? jfrRecorder.recordingFile(name) : recordings.get(recordings.size() - 1);
+            return ResponseEntity.ok(recordingAnalyzer.analyze(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("❌ JFR analysis failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Analysis failed: " + e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> recordingDownload(Path file) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+            .body(new FileSystemResource(file));
+    }
+}
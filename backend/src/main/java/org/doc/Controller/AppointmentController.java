@@ -1,14 +1,29 @@
 package org.doc.Controller;
 
 import org.doc.dto.AppointmentDTO;
+import org.doc.Service.AdmissionControlService;
 import org.doc.Service.AppointmentService;
+import org.doc.Service.AppointmentStatsService;
+import org.doc.Service.BookingJournal;
+import org.doc.Service.BookingVersionService;
+import org.doc.Service.HotWindowStore;
 import org.doc.Repository.AppointmentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -29,15 +44,56 @@ public class AppointmentController {
 
     private static final Logger log = LoggerFactory.getLogger(AppointmentController.class);
 
+    private static final List<MediaType> LIST_FORMATS = List.of(MediaType.APPLICATION_JSON,
+        new MediaType("application", "x-jackson-smile"), new MediaType("application", "cbor"));
+
+    // the body depends on both, so shared caches must key on them
+    private static final String LIST_VARY = "Accept, Accept-Encoding";
+
     @Autowired
     private AppointmentService appointmentService;
 
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    @Autowired
+    private BookingJournal bookingJournal;
+
+    @Autowired
+    private HotWindowStore hotWindowStore;
+
     @PostMapping
-    public ResponseEntity<?> bookAppointment(@RequestBody AppointmentDTO dto) {
+    public ResponseEntity<?> bookAppointment(@RequestBody AppointmentDTO dto, HttpServletRequest request) {
         log.info("📨 [LIVE] /appointments POST request received at {}", System.currentTimeMillis());
+        if (dto.getDoctorId() == null || dto.getDoctorId().isBlank()) {
+            log.warn("⚠️ Booking rejected: doctorId is missing");
+            return ResponseEntity.badRequest().body(Map.of("message", "doctorId is required"));
+        }
+
+        // Admission control: reject excess load before it queues behind DB/PDF/notification work
+        AdmissionControlService.Decision admission = admissionControl.admit(dto.getContact(), clientIdOf(request));
+        if (!admission.isAdmitted()) {
+            log.warn("🚦 Booking rejected ({}) for contact {}, retry after {}s",
+                admission.getOutcome(), dto.getContact(), admission.getRetryAfterSeconds());
+            HttpStatus status = admission.getOutcome() == AdmissionControlService.Outcome.RATE_LIMITED
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()))
+                .body(Map.of(
+                    "message", status == HttpStatus.TOO_MANY_REQUESTS
+                        ? "Too many booking requests, please retry later"
+                        : "Booking service is busy, please retry later",
+                    "retryAfterSeconds", admission.getRetryAfterSeconds()
+                ));
+        }
+
         try {
             log.info("=== APPOINTMENT CONTROLLER DEBUG ===");
             log.info("📨 POST /appointments endpoint hit");
@@ -86,13 +142,38 @@ public class AppointmentController {
             log.error("Stack trace:", e);
             log.error("=== APPOINTMENT CONTROLLER ERROR END ===");
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        } finally {
+            admission.complete();
         }
     }
 
-    @GetMapping("/test/health")
-    public ResponseEntity<String> health() {
-        log.info("Health check endpoint called");
-        return ResponseEntity.ok("✅ Backend running on Railway!");
+    // Behind the hosting proxy, server.forward-headers-strategy=native has Tomcat take the client
+    // address from X-Forwarded-For, trusting only hops from internal proxy addresses; reading the
+    // header here would let any client pick its own rate-limit key.
+    private static String clientIdOf(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    // The list format the client asked for, in the server's preference order for equal quality; the
+    // response is pinned to it so the ETag always names the representation actually sent.
+    private static MediaType listFormatOf(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> requested = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        requested.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : requested) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType format : LIST_FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
     }
 
     @GetMapping("/debug/env")
@@ -133,18 +214,130 @@ public class AppointmentController {
     }
 
     @GetMapping("/{contact}")
-    public ResponseEntity<?> getAppointmentsByContact(@PathVariable String contact) {
+    public ResponseEntity<?> getAppointmentsByContact(@PathVariable String contact, WebRequest request,
+                                                         HttpServletResponse response) {
         try {
             log.info("Fetching appointments for contact: {}", contact);
+            // Read the version before the rows: a booking landing in between then only costs one extra fetch
+            MediaType format = listFormatOf(request);
+            String etag = bookingVersionService.contactETag(contact, format);
+            response.setHeader(HttpHeaders.VARY, LIST_VARY);
+            if (request.checkNotModified(etag)) {
+                log.info("Appointments for contact {} not modified ({})", contact, etag);
+                return null;
+            }
             List<Map<String, Object>> appointments = appointmentRepository.findByContact(contact);
             log.info("Found {} appointments for contact {}", appointments.size(), contact);
-            return ResponseEntity.ok(appointments);
+            return ResponseEntity.ok().contentType(format).eTag(etag).body(appointments);
         } catch (Exception e) {
             log.error("Error fetching appointments for contact {}: {}", contact, e.getMessage(), e);
             return ResponseEntity.status(500).body("Error fetching appointments: " + e.getMessage());
         }
     }
 
+    @GetMapping("/doctor/{doctorId}")
+    public ResponseEntity<?> getAppointmentsByDoctor(@PathVariable String doctorId, WebRequest request,
+                                                        HttpServletResponse response) {
+        try {
+            log.info("Fetching appointments for doctor: {}", doctorId);
+            MediaType format = listFormatOf(request);
+            String etag = bookingVersionService.doctorETag(doctorId, format);
+            response.setHeader(HttpHeaders.VARY, LIST_VARY);
+            if (request.checkNotModified(etag)) {
+                log.info("Appointments for doctor {} not modified ({})", doctorId, etag);
+                return null;
+            }
+            List<Map<String, Object>> appointments = appointmentRepository.findByDoctorId(doctorId);
+            log.info("Found {} appointments for doctor {}", appointments.size(), doctorId);
+            return ResponseEntity.ok().contentType(format).eTag(etag).body(appointments);
+        } catch (Exception e) {
+            log.error("Error fetching appointments for doctor {}: {}", doctorId, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Error fetching appointments: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/doctor/{doctorId}/slots")
+    public ResponseEntity<?> getBookedSlots(@PathVariable String doctorId, @RequestParam String date) {
+        try {
+            LocalDate day = LocalDate.parse(date);
+            List<LocalTime> booked;
+            String source;
+            if (bookingJournal.isReady()) {
+                booked = bookingJournal.getState().bookedTimes(doctorId, day);
+                source = "memory";
+            } else {
+                booked = new ArrayList<>();
+                for (Map<String, Object> row : appointmentRepository.findByDoctorId(doctorId)) {
+                    if (date.equals(String.valueOf(row.get("date"))) && !"CANCELLED".equals(row.get("status"))) {
+                        booked.add(LocalTime.parse(String.valueOf(row.get("time"))));
+                    }
+                }
+                booked.sort(null);
+                source = "database";
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("doctorId", doctorId);
+            response.put("date", date);
+            response.put("booked", booked.stream().map(LocalTime::toString).toList());
+            response.put("source", source);
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date: " + date);
+        } catch (Exception e) {
+            log.error("Error fetching booked slots for doctor {}: {}", doctorId, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Error fetching slots: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(required = false) String doctorId,
+                                    @RequestParam(required = false) String contact,
+                                    @RequestParam(required = false) String status,
+                                    @RequestParam(required = false) String from,
+                                    @RequestParam(required = false) String to) {
+        try {
+            LocalDate fromDate = from == null ? null : LocalDate.parse(from);
+            LocalDate toDate = to == null ? null : LocalDate.parse(to);
+            String statusFilter = status == null ? null : status.toUpperCase();
+            List<Map<String, Object>> appointments = hotWindowStore.search(doctorId, contact, statusFilter, fromDate, toDate);
+            String source = "memory";
+            if (appointments == null) {
+                appointments = appointmentRepository.search(doctorId, contact, statusFilter, fromDate, toDate);
+                source = "database";
+            }
+            log.info("Search doctor={} contact={} status={} {}..{}: {} appointments from {}",
+                doctorId, contact, statusFilter, from, to, appointments.size(), source);
+            return ResponseEntity.ok().header("X-Data-Source", source).body(appointments);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date: " + e.getParsedString());
+        } catch (Exception e) {
+            log.error("Error searching appointments: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Error searching appointments: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}/status")
+    public ResponseEntity<?> updateStatus(@PathVariable long id, @RequestBody Map<String, String> body) {
+        String doctorId = body.get("doctorId");
+        String status = body.get("status") == null ? null : body.get("status").toUpperCase();
+        log.info("=== STATUS CHANGE REQUESTED: appointment {} -> {} ===", id, status);
+        if (doctorId == null || !AppointmentStatsService.STATUSES.contains(status)) {
+            return ResponseEntity.badRequest()
+                .body("Body needs \"doctorId\" and \"status\" (one of " + AppointmentStatsService.STATUSES + ")");
+        }
+        try {
+            if (!appointmentService.updateStatus(id, doctorId, status)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No appointment " + id + " for doctor " + doctorId);
+            }
+            return ResponseEntity.ok(Map.of("id", id, "status", status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error updating appointment {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Error updating appointment: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/test-logic")
     public ResponseEntity<String> testBooking() {
         try {
@@ -0,0 +1,63 @@
+package org.doc.Controller;
+
+import org.doc.Service.BookingVersionService;
+import org.doc.Service.CalendarFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribable iCalendar feed of a doctor's appointments. Calendar apps poll it every few minutes;
+ * an unchanged schedule is answered with 304 from the booking version alone. The URL carries the
+ * doctor's feed token (handed out by GET /admin/calendar/{doctorId}), since the feed lists patient
+ * contacts.
+ */
+@RestController
+@RequestMapping("/doctors")
+public class CalendarController {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarController.class);
+
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar; charset=UTF-8");
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @GetMapping("/{doctorId}/calendar/{token}.ics")
+    public ResponseEntity<?> calendar(@PathVariable String doctorId, @PathVariable String token, WebRequest request) {
+        if (calendarFeedService.feedToken(doctorId) == null) {
+            return ResponseEntity.status(403).body("Calendar feeds are disabled (calendar.feed-secret not set)");
+        }
+        if (!calendarFeedService.isFeedToken(doctorId, token)) {
+            log.warn("🔒 Calendar feed for doctor {} requested with a wrong token", doctorId);
+            return ResponseEntity.status(404).body("No such calendar");
+        }
+        try {
+            long version = bookingVersionService.doctorVersion(doctorId);
+            String etag = BookingVersionService.doctorETag(version, TEXT_CALENDAR);
+            if (request.checkNotModified(etag)) {
+                log.info("📅 Calendar for doctor {} not modified ({})", doctorId, etag);
+                return null;
+            }
+            CalendarFeedService.Feed feed = calendarFeedService.feed(doctorId, version);
+            log.info("📅 Serving calendar for doctor {}: {} events ({})", doctorId, feed.size(), etag);
+            StreamingResponseBody body = feed::writeTo;
+            return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(etag)
+                .header("Content-Disposition", "inline; filename=\"" + doctorId.replaceAll("[^A-Za-z0-9_-]", "_") + ".ics\"")
+                .body(body);
+        } catch (Exception e) {
+            log.error("❌ Error building calendar for doctor {}: {}", doctorId, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Error building calendar: " + e.getMessage());
+        }
+    }
+}
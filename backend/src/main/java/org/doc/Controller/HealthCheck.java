@@ -1,14 +0,0 @@
-package org.doc.Controller;
-
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-@RestController
-public class HealthCheck
-{
-    @GetMapping("/health-check")
-    public String healthCheck()
-    {
-        return "OK";
-    }
-}
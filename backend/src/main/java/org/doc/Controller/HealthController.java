@@ -1,12 +1,37 @@
 package org.doc.Controller;
 
+import org.doc.Service.HealthMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import java.util.Map;
 
+// All health endpoints answer from HealthMonitor's cached checks; none of them touches a dependency.
 @RestController
 public class HealthController {
-    
-    @GetMapping("/health")
+
+    @Autowired
+    private HealthMonitor healthMonitor;
+
+    /** Liveness: the process is up and serving requests. */
+    @GetMapping("/health/live")
+    public ResponseEntity<?> live() {
+        return ResponseEntity.ok(Map.of("status", HealthMonitor.UP));
+    }
+
+    /** Readiness: 503 unless every critical dependency passed its last background check. */
+    @GetMapping("/health/ready")
+    public ResponseEntity<?> ready() {
+        Map<String, Object> status = healthMonitor.readiness();
+        return ResponseEntity.status(Boolean.TRUE.equals(status.get("ready")) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+            .body(status);
+    }
+
+    // Liveness too: the platform health check (render.yaml) restarts the service when this fails,
+    // which would not fix a dependency outage. Readiness is only at /health/ready.
+    @GetMapping({"/health", "/health-check"})
     public String health() {
         return "OK";
     }
@@ -15,4 +40,4 @@ public class HealthController {
     public String index() {
         return "DocAI Backend is up and running!";
     }
-} 
\ No newline at end of file
+}
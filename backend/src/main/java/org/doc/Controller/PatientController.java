@@ -1,12 +1,11 @@
 package org.doc.Controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.doc.Entity.Patient;
 import org.doc.Service.PatientService;
+import org.doc.Service.TriageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 import java.util.*;
 
 @CrossOrigin(
@@ -26,7 +25,10 @@ public class PatientController {
 
     @Autowired
     private PatientService service;
-    RestTemplate restTemplate = new RestTemplate();
+
+    @Autowired
+    private TriageService triageService;
+
     @PostMapping("/submit-all")
     public ResponseEntity<?> handleAllAtOnce(@RequestBody Patient patient) {
         try {
@@ -39,26 +41,14 @@ public class PatientController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No symptoms found for patient.");
             }
 
-            // 3. Prepare payload for ML
+            // 3. Predict (remote ML service, local model if it misses its deadline)
             String[] symptomArray = symptomsString.split(",");
-            Map<String, Object> mlPayload = new HashMap<>();
-            mlPayload.put("symptoms", Arrays.asList(symptomArray));
-
-            // 4. Setup headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(mlPayload, headers);
+            Map<String, Object> prediction = triageService.predict(Arrays.asList(symptomArray));
 
-            // 5. Call ML API
-            String mlUrl = "https://doc-ai-ml.onrender.com/predict";
-            ResponseEntity<String> mlResponse = restTemplate.postForEntity(mlUrl, entity, String.class);
-
-            // 6. Return result
+            // 4. Return result
             Map<String, Object> response = new HashMap<>();
             response.put("message", "✅ Patient saved and prediction done");
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> parsedML = mapper.readValue(mlResponse.getBody(), Map.class);
-            response.put("ml_output", parsedML);
+            response.put("ml_output", prediction);
 
 
             return ResponseEntity.ok(response);
@@ -70,4 +60,9 @@ public class PatientController {
         }
     }
 
+    @GetMapping("/triage/metrics")
+    public ResponseEntity<?> triageMetrics() {
+        return ResponseEntity.ok(triageService.metrics());
+    }
+
 }
@@ -0,0 +1,110 @@
+package org.doc.Controller;
+
+import org.doc.dto.DoctorLocationDTO;
+import org.doc.dto.NearbyDoctorDTO;
+import org.doc.Service.PatientService;
+import org.doc.Service.ProximityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(
+    origins = {
+        "http://localhost:5173",
+        "https://doc-ai-scheduler.vercel.app",
+        "https://doc-ai-frontend-backend.vercel.app/"
+    },
+    allowCredentials = "true"
+)
+@RestController
+@RequestMapping("/api/proximity")
+public class ProximityController {
+
+    private static final Logger log = LoggerFactory.getLogger(ProximityController.class);
+
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private ProximityService proximityService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @GetMapping("/doctors")
+    public ResponseEntity<?> nearestToPincode(@RequestParam String pincode,
+                                              @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return invalidLimit(limit);
+        }
+        List<NearbyDoctorDTO> doctors = proximityService.nearestDoctors(pincode, limit);
+        if (doctors == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown pincode: " + pincode);
+        }
+        return ResponseEntity.ok(doctors);
+    }
+
+    @GetMapping("/patients/{name}/doctors")
+    public ResponseEntity<?> nearestToPatient(@PathVariable String name,
+                                              @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return invalidLimit(limit);
+        }
+        String pincode = patientService.fetchPincode(name);
+        if (pincode == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No location known for patient " + name);
+        }
+        List<NearbyDoctorDTO> doctors = proximityService.nearestDoctors(pincode, limit);
+        if (doctors == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No location known for patient " + name);
+        }
+        // unauthenticated: neither the patient's pincode nor the distances (which would pin it down) go out
+        List<Map<String, String>> ranked = new ArrayList<>(doctors.size());
+        for (NearbyDoctorDTO doctor : doctors) {
+            Map<String, String> entry = new LinkedHashMap<>();
+            entry.put("doctorId", doctor.getDoctorId());
+            entry.put("name", doctor.getName());
+            entry.put("pincode", doctor.getPincode());
+            ranked.add(entry);
+        }
+        return ResponseEntity.ok(Map.of("doctors", ranked));
+    }
+
+    // roster and reload replace the doctor locations, so they need the admin token (WebConfig.ADMIN_PATHS)
+    @PutMapping("/roster")
+    public ResponseEntity<?> replaceRoster(@RequestBody List<DoctorLocationDTO> doctors) {
+        log.info("📍 Doctor roster update received with {} doctors", doctors.size());
+        try {
+            return ResponseEntity.ok(proximityService.replaceRoster(doctors));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Roster push rejected: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            return ResponseEntity.ok(proximityService.reloadFromFiles());
+        } catch (Exception e) {
+            log.error("❌ Proximity reload failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Reload failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats() {
+        return ResponseEntity.ok(proximityService.stats());
+    }
+
+    private static ResponseEntity<?> invalidLimit(int limit) {
+        return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_LIMIT + ", got " + limit);
+    }
+}
@@ -0,0 +1,74 @@
+package org.doc.Controller;
+
+import org.doc.Service.AppointmentStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+@CrossOrigin(
+    origins = {
+        "http://localhost:5173",
+        "https://doc-ai-scheduler.vercel.app",
+        "https://doc-ai-frontend-backend.vercel.app/"
+    },
+    allowCredentials = "true"
+)
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsController.class);
+
+    @Autowired
+    private AppointmentStatsService statsService;
+
+    @GetMapping
+    public ResponseEntity<?> overall() {
+        return ResponseEntity.ok(statsService.overall());
+    }
+
+    @GetMapping("/doctors/{doctorId}")
+    public ResponseEntity<?> forDoctor(@PathVariable String doctorId, @RequestParam(required = false) String date) {
+        try {
+            return ResponseEntity.ok(date == null
+                ? statsService.forDoctor(doctorId)
+                : statsService.forDoctorDay(doctorId, LocalDate.parse(date)));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date: " + date);
+        }
+    }
+
+    @GetMapping("/days/{date}")
+    public ResponseEntity<?> forDay(@PathVariable String date) {
+        try {
+            return ResponseEntity.ok(statsService.forDay(LocalDate.parse(date)));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date: " + date);
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> status() {
+        return ResponseEntity.ok(statsService.status());
+    }
+
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile() {
+        log.info("=== STATS RECONCILE REQUESTED ===");
+        // runs in the background (it can wait two flush intervals); poll /api/stats/status for the result
+        try {
+            statsService.startReconcile();
+            return ResponseEntity.accepted().body(statsService.status());
+        } catch (IllegalStateException e) {
+            log.warn("⚠️ Stats reconcile rejected: {}", e.getMessage());
+            return ResponseEntity.status(409).body("Reconcile rejected: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("❌ Stats reconcile could not start: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Reconcile failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.doc.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Appointment ids that are unique across all shards, so an appointment keeps its id when resharding
+ * moves it. Ids come from one sequence row in the primary database, reserved in blocks of
+ * {@code sharding.id-block-size} so a booking rarely pays a round trip for it. The sequence starts
+ * above the highest id already on any shard.
+ */
+@Repository
+public class AppointmentIdAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentIdAllocator.class);
+
+    private static final String SEQUENCE = "appointments";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${sharding.id-block-size:100}")
+    private int blockSize;
+
+    private long next;
+    private long limit;
+    private boolean seeded;
+
+    public synchronized long next() {
+        if (next == limit) {
+            reserveBlock();
+        }
+        return next++;
+    }
+
+    private void reserveBlock() {
+        long floor = seeded ? 0 : seed();
+        long start = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                long current;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT next_id FROM appointment_ids WHERE name = ? FOR UPDATE")) {
+                    ps.setString(1, SEQUENCE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Sequence row " + SEQUENCE + " is missing");
+                        }
+                        current = Math.max(rs.getLong(1), floor);
+                    }
+                }
+                try (PreparedStatement ps = con.prepareStatement("UPDATE appointment_ids SET next_id = ? WHERE name = ?")) {
+                    ps.setLong(1, current + blockSize);
+                    ps.setString(2, SEQUENCE);
+                    ps.executeUpdate();
+                }
+                con.commit();
+                return current;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+        next = start;
+        limit = start + blockSize;
+        seeded = true;
+    }
+
+    // ids assigned before the sequence existed were per-shard auto-increments; start above all of them
+    private long seed() {
+        long highest = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            Long max = shardRouter.jdbcFor(shard).queryForObject("SELECT MAX(id) FROM appointments", Long.class);
+            highest = Math.max(highest, max == null ? 0 : max);
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO appointment_ids(name, next_id) VALUES (?, ?)", SEQUENCE, highest + 1);
+            log.info("🔢 Appointment id sequence created, starting at {}", highest + 1);
+        } catch (DuplicateKeyException e) {
+            // another instance created it first
+        }
+        return highest + 1;
+    }
+}
@@ -2,41 +2,214 @@ package org.doc.Repository;
 
 import org.doc.Entity.Appointment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
+// Appointments are sharded by doctor_id (see ShardRouter): doctor queries hit one shard, the
+// others scatter-gather across all of them.
 @Repository
 public class AppointmentRepository {
 
+    // newest first, as findAll has always returned them
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Map<String, Object>> NEWEST_FIRST = Comparator.comparing(
+        (Map<String, Object> row) -> (Comparable) row.get("created_at"),
+        Comparator.nullsLast(Comparator.reverseOrder()));
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Map<String, Object>> BY_SLOT = (a, b) -> {
+        for (String column : new String[] {"date", "time", "id"}) {
+            int order = ((Comparable) a.get(column)).compareTo(b.get(column));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    };
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private AppointmentIdAllocator idAllocator;
+
+    public static final String TABLE = "appointments";
+
+    private static final String INSERT_COLUMNS =
+        "(id, doctor_id, date, time, reason, contact, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Inserts into the doctor's shard and returns the allocated id (also set on the entity). */
+    public long save(Appointment appointment) {
+        return shardRouter.withDoctorShard(appointment.getDoctorId(), jdbc -> insert(jdbc, TABLE, appointment));
+    }
+
+    public long insert(JdbcTemplate jdbc, String table, Appointment appointment) {
+        assignId(appointment);
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO " + table + INSERT_COLUMNS);
+            bind(ps, appointment);
+            return ps;
+        });
+        return appointment.getId();
+    }
+
+    /**
+     * Inserts all rows as one JDBC batch in a single transaction (one commit) and returns their
+     * ids in order. Either every row is written or none is.
+     */
+    public long[] insertBatch(JdbcTemplate jdbc, String table, List<Appointment> appointments) {
+        return jdbc.execute((ConnectionCallback<long[]>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO " + table + INSERT_COLUMNS)) {
+                long[] ids = new long[appointments.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    Appointment appointment = appointments.get(i);
+                    ids[i] = assignId(appointment);
+                    bind(ps, appointment);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                con.commit();
+                return ids;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /**
+     * Sets the status of one appointment on its doctor's shard and returns the row as it was before
+     * (null if there is no such appointment). The update only applies if the status is still the one
+     * read, so concurrent changes can't both claim the same transition.
+     */
+    public Map<String, Object> updateStatus(String doctorId, long id, String status) {
+        return shardRouter.withDoctorShard(doctorId, jdbc -> {
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT * FROM appointments WHERE id = ? AND doctor_id = ?", id, doctorId);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Map<String, Object> before = rows.get(0);
+            // legacy rows can have a NULL status, which "status = ?" never matches
+            Object previous = before.get("status");
+            String sql = "UPDATE appointments SET status = ? WHERE id = ? AND doctor_id = ? AND "
+                + (previous == null ? "status IS NULL" : "status = ?");
+            int updated = previous == null
+                ? jdbc.update(sql, status, id, doctorId)
+                : jdbc.update(sql, status, id, doctorId, previous);
+            if (updated == 0) {
+                throw new IllegalStateException("Appointment " + id + " was changed concurrently, retry");
+            }
+            return before;
+        });
+    }
 
-    public int save(Appointment appointment) {
-        String sql = "INSERT INTO appointments(doctor_id, date, time, reason, contact, status) VALUES (?, ?, ?, ?, ?, ?)";
-        return jdbcTemplate.update(sql, 
-            appointment.getDoctorId(), 
-            appointment.getDate(), 
-            appointment.getTime(), 
-            appointment.getReason(), 
-            appointment.getContact(),
-            appointment.getStatus()
-        );
+    /** Whether the patient still holds a scheduled appointment with the doctor at that date and time. */
+    public boolean isScheduled(String doctorId, String contact, LocalDate date, LocalTime time) {
+        String sql = "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND contact = ? AND date = ? AND time = ? "
+            + "AND (status IS NULL OR status = 'SCHEDULED')";
+        Long count = shardRouter.withDoctorShard(doctorId, jdbc -> jdbc.queryForObject(sql, Long.class, doctorId, contact, date, time));
+        return count != null && count > 0;
     }
 
     public List<Map<String, Object>> findByContact(String contact) {
-        String sql = "SELECT * FROM appointments WHERE contact = ?";
-        return jdbcTemplate.queryForList(sql, contact);
+        String sql = "SELECT * FROM appointments WHERE contact = ? ORDER BY created_at DESC";
+        return shardRouter.scatterRows(NEWEST_FIRST, sql, contact);
     }
 
     public List<Map<String, Object>> findByDoctorId(String doctorId) {
         String sql = "SELECT * FROM appointments WHERE doctor_id = ?";
-        return jdbcTemplate.queryForList(sql, doctorId);
+        return shardRouter.withDoctorShard(doctorId, jdbc -> jdbc.queryForList(sql, doctorId));
+    }
+
+    public List<Map<String, Object>> findByIds(String doctorId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT * FROM appointments WHERE doctor_id = ? AND id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        List<Object> args = new ArrayList<>();
+        args.add(doctorId);
+        args.addAll(ids);
+        return shardRouter.withDoctorShard(doctorId, jdbc -> jdbc.queryForList(sql, args.toArray()));
     }
 
     public List<Map<String, Object>> findAll() {
         String sql = "SELECT * FROM appointments ORDER BY created_at DESC";
-        return jdbcTemplate.queryForList(sql);
+        return shardRouter.scatterRows(NEWEST_FIRST, sql);
+    }
+
+    public List<Map<String, Object>> findNewest(int limit) {
+        String sql = "SELECT * FROM appointments ORDER BY created_at DESC LIMIT ?";
+        List<Map<String, Object>> rows = shardRouter.scatterRows(NEWEST_FIRST, sql, limit);
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    public List<Map<String, Object>> findByDateRange(LocalDate from, LocalDate to) {
+        String sql = "SELECT * FROM appointments WHERE date BETWEEN ? AND ?";
+        return shardRouter.scatterRows(null, sql, from, to);
+    }
+
+    /** Appointments matching every non-null filter, ordered by date and time. */
+    public List<Map<String, Object>> search(String doctorId, String contact, String status, LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM appointments WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (doctorId != null) {
+            sql.append(" AND doctor_id = ?");
+            args.add(doctorId);
+        }
+        if (contact != null) {
+            sql.append(" AND contact = ?");
+            args.add(contact);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status);
+        }
+        if (from != null) {
+            sql.append(" AND date >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND date <= ?");
+            args.add(to);
+        }
+        sql.append(" ORDER BY date, time, id");
+        if (doctorId != null) {
+            return shardRouter.withDoctorShard(doctorId, jdbc -> jdbc.queryForList(sql.toString(), args.toArray()));
+        }
+        return shardRouter.scatterRows(BY_SLOT, sql.toString(), args.toArray());
+    }
+
+    // a row retried after a failed batch keeps the id it was given the first time
+    private long assignId(Appointment appointment) {
+        if (appointment.getId() == null) {
+            appointment.setId(idAllocator.next());
+        }
+        return appointment.getId();
+    }
+
+    private static void bind(PreparedStatement ps, Appointment appointment) throws SQLException {
+        ps.setLong(1, appointment.getId());
+        ps.setString(2, appointment.getDoctorId());
+        ps.setObject(3, appointment.getDate());
+        ps.setObject(4, appointment.getTime());
+        ps.setString(5, appointment.getReason());
+        ps.setString(6, appointment.getContact());
+        ps.setString(7, appointment.getStatus());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package org.doc.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Map;
+
+// Rollup table for AppointmentStatsService; lives on the primary datasource, not the shards.
+@Repository
+public class AppointmentStatsRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    /** Each row is {doctor_id, date, status, delta}. */
+    public void addDeltas(List<Object[]> deltas) {
+        String sql = "INSERT INTO appointment_stats(doctor_id, date, status, count) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE count = count + VALUES(count)";
+        jdbcTemplate.batchUpdate(sql, deltas);
+    }
+
+    public List<Map<String, Object>> findAll() {
+        return jdbcTemplate.queryForList("SELECT doctor_id, date, status, count FROM appointment_stats WHERE count <> 0");
+    }
+
+    /** Ground truth from the sharded base table, for reconciliation. */
+    public List<Map<String, Object>> countFromAppointments() {
+        String sql = "SELECT doctor_id, date, status, COUNT(*) AS count FROM appointments GROUP BY doctor_id, date, status";
+        return shardRouter.scatterRows(null, sql);
+    }
+}
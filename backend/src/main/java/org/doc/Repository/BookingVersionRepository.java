@@ -0,0 +1,94 @@
+package org.doc.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class BookingVersionRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public int increment(String kind, String key) {
+        String sql = "INSERT INTO booking_versions(kind, entity_key, version) VALUES (?, ?, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+        return jdbcTemplate.update(sql, kind, key);
+    }
+
+    /**
+     * Bumps the version and records which appointment the new version is for, in one transaction, so
+     * whoever reads the new version also finds its change row. Returns the new version.
+     */
+    public long incrementWithChange(String kind, String key, long appointmentId) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = con.prepareStatement("INSERT INTO booking_versions(kind, entity_key, version) "
+                        + "VALUES (?, ?, 1) ON DUPLICATE KEY UPDATE version = version + 1")) {
+                    ps.setString(1, kind);
+                    ps.setString(2, key);
+                    ps.executeUpdate();
+                }
+                long version;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT version FROM booking_versions WHERE kind = ? AND entity_key = ?")) {
+                    ps.setString(1, kind);
+                    ps.setString(2, key);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        version = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO booking_changes(kind, entity_key, version, appointment_id) VALUES (?, ?, ?, ?)")) {
+                    ps.setString(1, kind);
+                    ps.setString(2, key);
+                    ps.setLong(3, version);
+                    ps.setLong(4, appointmentId);
+                    ps.executeUpdate();
+                }
+                con.commit();
+                return version;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    public long findVersion(String kind, String key) {
+        String sql = "SELECT version FROM booking_versions WHERE kind = ? AND entity_key = ?";
+        List<Long> versions = jdbcTemplate.queryForList(sql, Long.class, kind, key);
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    /** {version, appointment id} of every change recorded after {@code version}, oldest first. */
+    public List<long[]> findChangesSince(String kind, String key, long version) {
+        String sql = "SELECT version, appointment_id FROM booking_changes WHERE kind = ? AND entity_key = ? AND version > ? "
+            + "ORDER BY version";
+        return jdbcTemplate.query(sql, (rs, i) -> new long[] {rs.getLong(1), rs.getLong(2)}, kind, key, version);
+    }
+
+    /** entity_key, version, appointment_id and changed_at of every change of {@code kind} since {@code since}, oldest first. */
+    public List<Map<String, Object>> findChangesAt(String kind, Timestamp since) {
+        String sql = "SELECT entity_key, version, appointment_id, changed_at FROM booking_changes WHERE kind = ? AND changed_at >= ? "
+            + "ORDER BY changed_at, entity_key, version";
+        return jdbcTemplate.queryForList(sql, kind, since);
+    }
+
+    public int deleteChangesBefore(String kind, Timestamp cutoff) {
+        return jdbcTemplate.update("DELETE FROM booking_changes WHERE kind = ? AND changed_at < ?", kind, cutoff);
+    }
+}
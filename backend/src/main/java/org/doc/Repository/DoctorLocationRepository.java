@@ -0,0 +1,72 @@
+package org.doc.Repository;
+
+import org.doc.dto.DoctorLocationDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+@Repository
+public class DoctorLocationRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<DoctorLocationDTO> findAll() {
+        return jdbcTemplate.query("SELECT doctor_id, name, pincode FROM doctor_locations ORDER BY doctor_id", (rs, i) -> {
+            DoctorLocationDTO doctor = new DoctorLocationDTO();
+            doctor.setDoctorId(rs.getString("doctor_id"));
+            doctor.setName(rs.getString("name"));
+            doctor.setPincode(rs.getString("pincode"));
+            return doctor;
+        });
+    }
+
+    /** Version of the stored roster (0 if empty); goes up with every replacement, so instances can tell when to reload. */
+    public long version() {
+        Long version = jdbcTemplate.queryForObject("SELECT MAX(roster_version) FROM doctor_locations", Long.class);
+        return version == null ? 0 : version;
+    }
+
+    /** Replaces the whole roster in one transaction. */
+    public void replaceAll(List<DoctorLocationDTO> doctors) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                long version;
+                try (PreparedStatement ps = con.prepareStatement("SELECT COALESCE(MAX(roster_version), 0) + 1 FROM doctor_locations");
+                     ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    version = rs.getLong(1);
+                }
+                try (PreparedStatement ps = con.prepareStatement("DELETE FROM doctor_locations")) {
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO doctor_locations(doctor_id, name, pincode, roster_version) VALUES (?, ?, ?, ?)")) {
+                    for (DoctorLocationDTO doctor : doctors) {
+                        ps.setString(1, doctor.getDoctorId());
+                        ps.setString(2, doctor.getName());
+                        ps.setString(3, doctor.getPincode());
+                        ps.setLong(4, version);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                con.commit();
+                return null;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+    }
+}
@@ -4,6 +4,7 @@ import org.doc.Entity.Patient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public class PatientRepository {
@@ -20,4 +21,10 @@ public class PatientRepository {
         String sql = "SELECT symptoms FROM patients WHERE name = ? ORDER BY created_at DESC LIMIT 1";
         return jdbcTemplate.queryForObject(sql, new Object[]{name}, String.class);
     }
+
+    public String getPincodeByName(String name) {
+        String sql = "SELECT pincode FROM patients WHERE name = ? ORDER BY created_at DESC LIMIT 1";
+        List<String> pincodes = jdbcTemplate.queryForList(sql, String.class, name);
+        return pincodes.isEmpty() ? null : pincodes.get(0);
+    }
 }
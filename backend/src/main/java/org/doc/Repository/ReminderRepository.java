@@ -0,0 +1,48 @@
+package org.doc.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class ReminderRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** @return true if this instance won the reminder, false if another instance already claimed it */
+    public boolean claim(String reminderKey, String instanceId) {
+        String sql = "INSERT INTO appointment_reminders(reminder_key, instance_id, status) VALUES (?, ?, 'CLAIMED')";
+        try {
+            return jdbcTemplate.update(sql, reminderKey, instanceId) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes over a reminder whose last send failed, or whose claim is older than {@code claimedBefore}
+     * (the claiming instance died before sending); true if this instance won it.
+     */
+    public boolean claimAbandoned(String reminderKey, String instanceId, Timestamp claimedBefore) {
+        String sql = "UPDATE appointment_reminders SET status = 'CLAIMED', instance_id = ?, claimed_at = CURRENT_TIMESTAMP "
+            + "WHERE reminder_key = ? AND (status = 'FAILED' OR (status = 'CLAIMED' AND claimed_at < ?))";
+        return jdbcTemplate.update(sql, instanceId, reminderKey, claimedBefore) == 1;
+    }
+
+    /** CLAIMED, SENT or FAILED, or null if nobody has claimed the reminder. */
+    public String findStatus(String reminderKey) {
+        String sql = "SELECT status FROM appointment_reminders WHERE reminder_key = ?";
+        List<String> statuses = jdbcTemplate.queryForList(sql, String.class, reminderKey);
+        return statuses.isEmpty() ? null : statuses.get(0);
+    }
+
+    public int updateStatus(String reminderKey, String status) {
+        String sql = "UPDATE appointment_reminders SET status = ? WHERE reminder_key = ?";
+        return jdbcTemplate.update(sql, status, reminderKey);
+    }
+}
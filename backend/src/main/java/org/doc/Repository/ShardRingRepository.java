@@ -0,0 +1,139 @@
+package org.doc.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The shard ring and resharding progress in the primary database, so every instance routes by the
+ * same ring and a restart doesn't fall back to the configured {@code sharding.ring}. Only the
+ * instance running a resharding writes the ring; the others follow it and report the epoch they
+ * route by, which tells the migrator when rows on old owners are no longer read anywhere.
+ */
+@Repository
+public class ShardRingRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** The persisted ring, or null if none has been stored yet. */
+    public Ring load() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT ring, target_ring, epoch FROM shard_ring WHERE id = 1");
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> row = rows.get(0);
+        long epoch = ((Number) row.get("epoch")).longValue();
+        String target = (String) row.get("target_ring");
+        Set<String> migrated = target == null ? Set.of() : new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT doctor_id FROM shard_migrated_doctors WHERE epoch = ?", String.class, epoch));
+        return new Ring(nodes((String) row.get("ring")), target == null ? null : nodes(target), epoch, migrated);
+    }
+
+    /** Stores the first ring; false if another instance stored one first. */
+    public boolean initialize(List<String> ring) {
+        try {
+            return jdbcTemplate.update("INSERT INTO shard_ring(id, ring, target_ring, epoch) VALUES (1, ?, NULL, 1)",
+                String.join(",", ring)) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /** Starts a resharding towards {@code target} if the ring is still at {@code epoch}; the new epoch is epoch + 1. */
+    public boolean beginResharding(long epoch, List<String> target) {
+        String sql = "UPDATE shard_ring SET target_ring = ?, epoch = epoch + 1 WHERE id = 1 AND epoch = ? AND target_ring IS NULL";
+        return jdbcTemplate.update(sql, String.join(",", target), epoch) == 1;
+    }
+
+    public void markMigrated(String doctorId, long epoch) {
+        String sql = "INSERT INTO shard_migrated_doctors(doctor_id, epoch) VALUES (?, ?) ON DUPLICATE KEY UPDATE epoch = VALUES(epoch)";
+        jdbcTemplate.update(sql, doctorId, epoch);
+    }
+
+    /** Makes the target ring the ring (epoch + 1) and forgets the migrated doctors, in one transaction. */
+    public boolean completeResharding(long epoch) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                int updated;
+                try (PreparedStatement ps = con.prepareStatement("UPDATE shard_ring SET ring = target_ring, target_ring = NULL, "
+                        + "epoch = epoch + 1 WHERE id = 1 AND epoch = ? AND target_ring IS NOT NULL")) {
+                    ps.setLong(1, epoch);
+                    updated = ps.executeUpdate();
+                }
+                if (updated == 1) {
+                    try (PreparedStatement ps = con.prepareStatement("DELETE FROM shard_migrated_doctors")) {
+                        ps.executeUpdate();
+                    }
+                }
+                con.commit();
+                return updated == 1;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /** Records that {@code instanceId} routes by {@code epoch}. */
+    public void heartbeat(String instanceId, long epoch) {
+        String sql = "INSERT INTO shard_ring_instances(instance_id, epoch, seen_at) VALUES (?, ?, CURRENT_TIMESTAMP) "
+            + "ON DUPLICATE KEY UPDATE epoch = VALUES(epoch), seen_at = CURRENT_TIMESTAMP";
+        jdbcTemplate.update(sql, instanceId, epoch);
+    }
+
+    /** instance_id and epoch of every instance seen after {@code seenAfter}. */
+    public List<Map<String, Object>> findLiveInstances(Timestamp seenAfter) {
+        return jdbcTemplate.queryForList("SELECT instance_id, epoch FROM shard_ring_instances WHERE seen_at > ?", seenAfter);
+    }
+
+    private static List<String> nodes(String ring) {
+        return Arrays.stream(ring.split(",")).map(String::trim).filter(node -> !node.isEmpty()).toList();
+    }
+
+    public static final class Ring {
+        private final List<String> nodes;
+        private final List<String> targetNodes;
+        private final long epoch;
+        private final Set<String> migratedDoctors;
+
+        public Ring(List<String> nodes, List<String> targetNodes, long epoch, Set<String> migratedDoctors) {
+            this.nodes = nodes;
+            this.targetNodes = targetNodes;
+            this.epoch = epoch;
+            this.migratedDoctors = migratedDoctors;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        /** The ring being resharded to, or null. */
+        public List<String> getTargetNodes() {
+            return targetNodes;
+        }
+
+        public long getEpoch() {
+            return epoch;
+        }
+
+        public Set<String> getMigratedDoctors() {
+            return migratedDoctors;
+        }
+    }
+}
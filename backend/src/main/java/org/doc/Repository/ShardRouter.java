@@ -0,0 +1,344 @@
+package org.doc.Repository;
+
+import org.doc.tracing.TraceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Routes appointment rows to shards by a consistent hash of {@code doctor_id}.
+ *
+ * <p>Every doctor has exactly one owning shard at any moment. While a resharding is running the
+ * owner is the old ring's node until that doctor's rows have been copied to the new ring's node,
+ * and the new node afterwards. Rows left on non-owning shards are filtered out of scatter-gather
+ * reads, and are only deleted after the resharding completed, so readers never see a doctor's
+ * rows twice or not at all. Instances that aren't running the resharding {@link #follow} the ring
+ * persisted by {@link ShardRingRepository}.
+ */
+public class ShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<String, JdbcTemplate> shards;
+    private final int virtualNodes;
+    private final ExecutorService scatterPool;
+    private final ReentrantReadWriteLock[] doctorLocks = new ReentrantReadWriteLock[LOCK_STRIPES];
+    private final AtomicLong migrationSeq = new AtomicLong();
+
+    private volatile RoutingState state;
+
+    public ShardRouter(Map<String, JdbcTemplate> shards, List<String> ringNodes, int virtualNodes) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.virtualNodes = virtualNodes;
+        for (String node : ringNodes) {
+            requireShard(node);
+        }
+        this.state = new RoutingState(new ConsistentHashRing(ringNodes, virtualNodes), null, 0);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            doctorLocks[i] = new ReentrantReadWriteLock();
+        }
+        this.scatterPool = shards.size() > 1
+            ? Executors.newFixedThreadPool(shards.size() * 2, r -> {
+                Thread t = new Thread(r, "shard-scatter");
+                t.setDaemon(true);
+                return t;
+            })
+            : null;
+        log.info("🧩 Shard router ready with shards {} and ring {}", shards.keySet(), ringNodes);
+    }
+
+    public boolean isSingleShard() {
+        return shards.size() == 1;
+    }
+
+    public Set<String> getShardNames() {
+        return shards.keySet();
+    }
+
+    public JdbcTemplate jdbcFor(String shard) {
+        return requireShard(shard);
+    }
+
+    public String ownerOf(String doctorId) {
+        return state.ownerOf(doctorId, Long.MAX_VALUE);
+    }
+
+    /** Runs {@code action} against the doctor's owning shard; a running migration of that doctor waits. */
+    public <T> T withDoctorShard(String doctorId, Function<JdbcTemplate, T> action) {
+        ReentrantReadWriteLock.ReadLock lock = lockFor(doctorId).readLock();
+        lock.lock();
+        try {
+            return action.apply(requireShard(ownerOf(doctorId)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Groups {@code items} by their doctor's owning shard and runs {@code action} once per shard,
+     * with every involved doctor's lock held so a migration can't move them mid-write. Stripes are
+     * locked in ascending order, the same order {@link #withAllDoctorsLocked} uses.
+     */
+    public <T> void withOwningShards(List<T> items, Function<T, String> doctorOf, BiConsumer<JdbcTemplate, List<T>> action) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (T item : items) {
+            stripes.add(stripeOf(doctorOf.apply(item)));
+        }
+        List<ReentrantReadWriteLock.ReadLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                ReentrantReadWriteLock.ReadLock lock = doctorLocks[stripe].readLock();
+                lock.lock();
+                held.add(lock);
+            }
+            Map<String, List<T>> byShard = new LinkedHashMap<>();
+            for (T item : items) {
+                byShard.computeIfAbsent(ownerOf(doctorOf.apply(item)), k -> new ArrayList<>()).add(item);
+            }
+            byShard.forEach((shard, shardItems) -> action.accept(requireShard(shard), shardItems));
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs the same row query on every shard in parallel, drops rows a shard doesn't own and
+     * merges the per-shard results (each already sorted by {@code order}, if given).
+     */
+    public List<Map<String, Object>> scatterRows(Comparator<Map<String, Object>> order, String sql, Object... args) {
+        if (isSingleShard()) {
+            return shards.values().iterator().next().queryForList(sql, args);
+        }
+        // Snapshot the routing before reading: rows are judged by who owned them at this point
+        long snapshot = migrationSeq.get();
+        RoutingState routing = state;
+
+        List<String> names = new ArrayList<>(routing.nodes());
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new ArrayList<>();
+        for (String name : names) {
+            JdbcTemplate jdbc = requireShard(name);
+            futures.add(CompletableFuture.supplyAsync(TraceContext.wrap(() -> jdbc.queryForList(sql, args)), scatterPool));
+        }
+
+        List<List<Map<String, Object>>> perShard = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            List<Map<String, Object>> owned = new ArrayList<>();
+            for (Map<String, Object> row : futures.get(i).join()) {
+                if (name.equals(routing.ownerOf((String) row.get("doctor_id"), snapshot))) {
+                    owned.add(row);
+                }
+            }
+            perShard.add(owned);
+        }
+        return order == null ? concat(perShard) : mergeSorted(perShard, order);
+    }
+
+    // ---- resharding ----
+
+    /** Epoch of the ring this router follows; 0 until a persisted ring has been adopted. */
+    public long getEpoch() {
+        return state.epoch;
+    }
+
+    public synchronized void beginResharding(List<String> targetNodes, long epoch) {
+        if (state.target != null) {
+            throw new IllegalStateException("A resharding is already in progress");
+        }
+        for (String node : targetNodes) {
+            requireShard(node);
+        }
+        state = new RoutingState(state.stable, new ConsistentHashRing(targetNodes, virtualNodes), epoch);
+        log.info("🧩 Resharding started: {} -> {}", state.stable.getNodes(), targetNodes);
+    }
+
+    /**
+     * Adopts a ring persisted by the instance that runs the resharding. Newly migrated doctors are
+     * flipped under their write lock, so this instance's in-flight work on them finishes first.
+     */
+    public void follow(ShardRingRepository.Ring ring) {
+        synchronized (this) {
+            if (ring.getEpoch() != state.epoch) {
+                for (String node : ring.getNodes()) {
+                    requireShard(node);
+                }
+                ConsistentHashRing target = null;
+                if (ring.getTargetNodes() != null) {
+                    for (String node : ring.getTargetNodes()) {
+                        requireShard(node);
+                    }
+                    target = new ConsistentHashRing(ring.getTargetNodes(), virtualNodes);
+                }
+                state = new RoutingState(new ConsistentHashRing(ring.getNodes(), virtualNodes), target, ring.getEpoch());
+                log.info("🧩 Following ring {} (target {}, epoch {})", ring.getNodes(), ring.getTargetNodes(), ring.getEpoch());
+            }
+        }
+        if (state.target == null) {
+            return;
+        }
+        for (String doctorId : ring.getMigratedDoctors()) {
+            if (!isMigrated(doctorId)) {
+                ReentrantReadWriteLock.WriteLock lock = migrationLock(doctorId);
+                lock.lock();
+                try {
+                    markMigrated(doctorId);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    public boolean isResharding() {
+        return state.target != null;
+    }
+
+    public List<String> getRingNodes() {
+        return state.stable.getNodes();
+    }
+
+    public List<String> getTargetRingNodes() {
+        return state.target == null ? List.of() : state.target.getNodes();
+    }
+
+    public String stableOwnerOf(String doctorId) {
+        return state.stable.nodeFor(doctorId);
+    }
+
+    public String targetOwnerOf(String doctorId) {
+        return state.target.nodeFor(doctorId);
+    }
+
+    /** Write lock over a doctor's rows; held by the migrator while it copies and flips ownership. */
+    public ReentrantReadWriteLock.WriteLock migrationLock(String doctorId) {
+        return lockFor(doctorId).writeLock();
+    }
+
+    public boolean isMigrated(String doctorId) {
+        return state.migrated.containsKey(doctorId);
+    }
+
+    /** Blocks every doctor's reads and writes while {@code action} runs; used for the final cut-over. */
+    public void withAllDoctorsLocked(Runnable action) {
+        int locked = 0;
+        try {
+            for (; locked < LOCK_STRIPES; locked++) {
+                doctorLocks[locked].writeLock().lock();
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                doctorLocks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /** Flips the doctor's owner to the target ring. Call with {@link #migrationLock} held. */
+    public void markMigrated(String doctorId) {
+        state.migrated.put(doctorId, migrationSeq.incrementAndGet());
+    }
+
+    public synchronized void completeResharding(long epoch) {
+        if (state.target == null) {
+            return;
+        }
+        state = new RoutingState(state.target, null, epoch);
+        log.info("🧩 Resharding complete, ring is now {}", state.stable.getNodes());
+    }
+
+    private ReentrantReadWriteLock lockFor(String doctorId) {
+        return doctorLocks[stripeOf(doctorId)];
+    }
+
+    private static int stripeOf(String doctorId) {
+        return Math.floorMod(doctorId.hashCode(), LOCK_STRIPES);
+    }
+
+    private JdbcTemplate requireShard(String name) {
+        JdbcTemplate jdbc = shards.get(name);
+        if (jdbc == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return jdbc;
+    }
+
+    private static List<Map<String, Object>> concat(List<List<Map<String, Object>>> lists) {
+        List<Map<String, Object>> all = new ArrayList<>();
+        lists.forEach(all::addAll);
+        return all;
+    }
+
+    private static List<Map<String, Object>> mergeSorted(List<List<Map<String, Object>>> lists,
+                                                         Comparator<Map<String, Object>> order) {
+        int total = 0;
+        for (List<Map<String, Object>> list : lists) {
+            total += list.size();
+        }
+        List<Map<String, Object>> merged = new ArrayList<>(total);
+        int[] positions = new int[lists.size()];
+        while (merged.size() < total) {
+            int best = -1;
+            for (int i = 0; i < lists.size(); i++) {
+                if (positions[i] < lists.get(i).size()
+                        && (best < 0 || order.compare(lists.get(i).get(positions[i]), lists.get(best).get(positions[best])) < 0)) {
+                    best = i;
+                }
+            }
+            merged.add(lists.get(best).get(positions[best]++));
+        }
+        return merged;
+    }
+
+    private static final class RoutingState {
+        private final ConsistentHashRing stable;
+        private final ConsistentHashRing target;
+        private final long epoch;
+        // doctor -> migration sequence number at which it moved to the target ring
+        private final Map<String, Long> migrated = new ConcurrentHashMap<>();
+
+        private RoutingState(ConsistentHashRing stable, ConsistentHashRing target, long epoch) {
+            this.stable = stable;
+            this.target = target;
+            this.epoch = epoch;
+        }
+
+        private String ownerOf(String doctorId, long snapshot) {
+            if (target != null) {
+                Long movedAt = migrated.get(doctorId);
+                if (movedAt != null && movedAt <= snapshot) {
+                    return target.nodeFor(doctorId);
+                }
+            }
+            return stable.nodeFor(doctorId);
+        }
+
+        private Set<String> nodes() {
+            Set<String> nodes = new LinkedHashSet<>(stable.getNodes());
+            if (target != null) {
+                nodes.addAll(target.getNodes());
+            }
+            return nodes;
+        }
+    }
+}
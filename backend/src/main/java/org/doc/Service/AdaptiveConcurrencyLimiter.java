@@ -0,0 +1,93 @@
+package org.doc.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency (gradient style, as in TCP Vegas / Netflix
+ * concurrency-limits). A slow long-term RTT average is compared with a fast short-term one: when
+ * the short-term latency rises above {@code tolerance} times the baseline, queueing is building up
+ * and the limit shrinks; while latency stays near the baseline the limit grows by roughly sqrt(limit).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 0.01;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** @return a permit, or null if the system is at its current limit */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos * (1 - SHORT_ALPHA) + rttNanos * SHORT_ALPHA;
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - LONG_ALPHA) + rttNanos * LONG_ALPHA;
+
+        // Latency recovered well below the baseline: let the baseline catch up quickly so that a
+        // temporary slowdown doesn't permanently inflate what we consider "normal".
+        if (longRttNanos > shortRttNanos * 2) {
+            longRttNanos = longRttNanos * 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        // Only probe upwards when the limit is actually being used, otherwise an idle service would
+        // drift up to maxLimit and lose all protection on the next burst.
+        double queueAllowance = inFlightAtStart * 2 >= limit ? Math.sqrt(limit) : 0;
+        double newLimit = limit * gradient + queueAllowance;
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** Releases the slot and feeds the observed latency back into the limit. */
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.doc.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for POST /appointments. Requests are checked against a per-client and a
+ * per-contact token bucket and then against a latency-adaptive global concurrency limit, so that
+ * excess load is rejected up front instead of queueing behind DB inserts, PDF rendering and
+ * notifications.
+ */
+@Service
+public class AdmissionControlService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    public enum Outcome { ADMITTED, RATE_LIMITED, OVERLOADED }
+
+    @Value("${admission.contact.capacity:3}")
+    private double contactCapacity;
+
+    @Value("${admission.contact.refill-per-minute:6}")
+    private double contactRefillPerMinute;
+
+    @Value("${admission.client.capacity:20}")
+    private double clientCapacity;
+
+    @Value("${admission.client.refill-per-second:5}")
+    private double clientRefillPerSecond;
+
+    @Value("${admission.concurrency.initial:20}")
+    private int initialLimit;
+
+    @Value("${admission.concurrency.min:4}")
+    private int minLimit;
+
+    @Value("${admission.concurrency.max:200}")
+    private int maxLimit;
+
+    @Value("${admission.concurrency.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${admission.overload.retry-after-seconds:1}")
+    private long overloadRetryAfterSeconds;
+
+    @Value("${admission.buckets.max-tracked:100000}")
+    private int maxTrackedBuckets;
+
+    private final Map<String, TokenBucket> contactBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @PostConstruct
+    public void init() {
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTolerance);
+        log.info("Admission control ready: contact {} per {}/min, client {} per {}/s, concurrency {} [{}..{}]",
+            contactCapacity, contactRefillPerMinute, clientCapacity, clientRefillPerSecond,
+            initialLimit, minLimit, maxLimit);
+    }
+
+    public Decision admit(String contact, String clientId) {
+        TokenBucket clientBucket = null;
+        if (clientId != null) {
+            clientBucket = clientBuckets.computeIfAbsent(clientId,
+                k -> new TokenBucket(clientCapacity, clientRefillPerSecond));
+            long waitNanos = clientBucket.tryConsume();
+            if (waitNanos > 0) {
+                return Decision.rejected(Outcome.RATE_LIMITED, toRetryAfterSeconds(waitNanos));
+            }
+        }
+
+        TokenBucket contactBucket = null;
+        if (contact != null) {
+            contactBucket = contactBuckets.computeIfAbsent(contact,
+                k -> new TokenBucket(contactCapacity, contactRefillPerMinute / 60d));
+            long waitNanos = contactBucket.tryConsume();
+            if (waitNanos > 0) {
+                if (clientBucket != null) {
+                    clientBucket.refund();
+                }
+                return Decision.rejected(Outcome.RATE_LIMITED, toRetryAfterSeconds(waitNanos));
+            }
+        }
+
+        sweepIfNeeded();
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            // shedding load isn't the client's fault, so it keeps its tokens for the retry
+            if (clientBucket != null) {
+                clientBucket.refund();
+            }
+            if (contactBucket != null) {
+                contactBucket.refund();
+            }
+            return Decision.rejected(Outcome.OVERLOADED, overloadRetryAfterSeconds);
+        }
+        return new Decision(Outcome.ADMITTED, 0, permit);
+    }
+
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    // A bucket that has refilled completely behaves exactly like a fresh one, so it can be dropped.
+    private void sweepIfNeeded() {
+        if (contactBuckets.size() + clientBuckets.size() <= maxTrackedBuckets || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            contactBuckets.values().removeIf(TokenBucket::isFull);
+            clientBuckets.values().removeIf(TokenBucket::isFull);
+            log.info("Admission bucket sweep done, tracking {} contacts and {} clients",
+                contactBuckets.size(), clientBuckets.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public static final class Decision {
+        private final Outcome outcome;
+        private final long retryAfterSeconds;
+        private final AdaptiveConcurrencyLimiter.Permit permit;
+
+        private Decision(Outcome outcome, long retryAfterSeconds, AdaptiveConcurrencyLimiter.Permit permit) {
+            this.outcome = outcome;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.permit = permit;
+        }
+
+        private static Decision rejected(Outcome outcome, long retryAfterSeconds) {
+            return new Decision(outcome, retryAfterSeconds, null);
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public boolean isAdmitted() {
+            return outcome == Outcome.ADMITTED;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        /** Must be called once the admitted request has finished. */
+        public void complete() {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.doc.Service;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appointments of one date window stored column by column: strings (doctor, contact, status,
+ * reason) as codes into per-column dictionaries, dates as epoch days, times as seconds of day. A row
+ * costs ~37 bytes plus its share of the dictionaries, against several hundred for a row map.
+ *
+ * <p>Filters run as tight loops over one primitive column at a time, narrowing a selection vector of
+ * row positions without branching on the data, which the JIT can unroll and vectorize. Writers must
+ * be serialized by the caller; readers need no locking: a row becomes visible when {@code size} is
+ * published, after its columns (and any grown arrays) are written.
+ */
+public class AppointmentColumns {
+
+    private static final int STATUS_LIMIT = 256;
+
+    private final int fromDay;
+    private final int toDay;
+
+    private final Dictionary doctors = new Dictionary();
+    private final Dictionary contacts = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary reasons = new Dictionary();
+
+    private volatile Columns columns;
+    private volatile int size;
+
+    public AppointmentColumns(LocalDate from, LocalDate to, int initialCapacity) {
+        this.fromDay = (int) from.toEpochDay();
+        this.toDay = (int) to.toEpochDay();
+        this.columns = new Columns(Math.max(16, initialCapacity));
+    }
+
+    public LocalDate getFrom() {
+        return LocalDate.ofEpochDay(fromDay);
+    }
+
+    public LocalDate getTo() {
+        return LocalDate.ofEpochDay(toDay);
+    }
+
+    public boolean covers(LocalDate from, LocalDate to) {
+        return from.toEpochDay() >= fromDay && to.toEpochDay() <= toDay;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Adds a row if its date is inside the window; returns whether it was added. */
+    public boolean append(long id, String doctorId, LocalDate date, LocalTime time, String reason, String contact,
+                          String status, long createdAtMillis) {
+        int day = (int) date.toEpochDay();
+        if (day < fromDay || day > toDay) {
+            return false;
+        }
+        int n = size;
+        Columns c = columns;
+        if (n == c.ids.length) {
+            c = c.grow(n + (n >> 1));
+            columns = c;
+        }
+        int statusCode = statuses.encode(status == null ? "SCHEDULED" : status);
+        if (statusCode >= STATUS_LIMIT) {
+            throw new IllegalStateException("More than " + STATUS_LIMIT + " distinct statuses");
+        }
+        c.ids[n] = id;
+        c.doctor[n] = doctors.encode(doctorId);
+        c.contact[n] = contacts.encode(contact);
+        c.status[n] = (byte) statusCode;
+        c.reason[n] = reasons.encode(reason);
+        c.day[n] = day;
+        c.time[n] = time.toSecondOfDay();
+        c.createdAt[n] = createdAtMillis;
+        size = n + 1;
+        return true;
+    }
+
+    /** Like {@link #append} but skips a row that is already present (same doctor and id). */
+    public boolean appendIfAbsent(long id, String doctorId, LocalDate date, LocalTime time, String reason, String contact,
+                                  String status, long createdAtMillis) {
+        return positionOf(doctorId, id) < 0 && append(id, doctorId, date, time, reason, contact, status, createdAtMillis);
+    }
+
+    /** Sets the status of a row in the window; returns false if the row is not here. */
+    public boolean setStatus(String doctorId, long id, String status) {
+        int position = positionOf(doctorId, id);
+        if (position < 0) {
+            return false;
+        }
+        int statusCode = statuses.encode(status);
+        if (statusCode >= STATUS_LIMIT) {
+            throw new IllegalStateException("More than " + STATUS_LIMIT + " distinct statuses");
+        }
+        columns.status[position] = (byte) statusCode;
+        return true;
+    }
+
+    /**
+     * Rows matching every non-null filter with a date in {@code [from, to]}, ordered by date, time
+     * and insertion order, shaped like the rows {@code JdbcTemplate} returns for {@code SELECT * FROM appointments}.
+     */
+    public List<Map<String, Object>> select(String doctorId, String contact, String status, LocalDate from, LocalDate to) {
+        int n = size;
+        Columns c = columns;
+        int[] selection = new int[n];
+        int m = 0;
+
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        int[] day = c.day;
+        for (int i = 0; i < n; i++) {
+            int d = day[i];
+            selection[m] = i;
+            m += (d >= lo & d <= hi) ? 1 : 0;
+        }
+        if (doctorId != null) {
+            m = keepEqual(c.doctor, doctors.codeOf(doctorId), selection, m);
+        }
+        if (contact != null) {
+            m = keepEqual(c.contact, contacts.codeOf(contact), selection, m);
+        }
+        if (status != null) {
+            int code = statuses.codeOf(status);
+            byte[] column = c.status;
+            int k = 0;
+            for (int j = 0; j < m; j++) {
+                int i = selection[j];
+                selection[k] = i;
+                k += (column[i] & 0xFF) == code ? 1 : 0;
+            }
+            m = k;
+        }
+
+        // sort (slot within the window, position) packed into one long: no comparator, no boxing
+        long[] order = new long[m];
+        for (int j = 0; j < m; j++) {
+            int i = selection[j];
+            long slot = (long) (c.day[i] - fromDay) * 86_400 + c.time[i];
+            order[j] = slot << 32 | j;
+        }
+        Arrays.sort(order);
+
+        List<Map<String, Object>> result = new ArrayList<>(m);
+        for (int j = 0; j < m; j++) {
+            result.add(row(c, selection[(int) order[j]]));
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rows", size);
+        stats.put("capacity", columns.ids.length);
+        stats.put("doctors", doctors.size());
+        stats.put("contacts", contacts.size());
+        stats.put("statuses", statuses.size());
+        stats.put("reasons", reasons.size());
+        // 8 (id) + 8 (created) + 4 x 5 (doctor, contact, reason, day, time) + 1 (status)
+        stats.put("columnBytes", (long) columns.ids.length * 37);
+        stats.put("dictionaryBytes", doctors.bytes() + contacts.bytes() + statuses.bytes() + reasons.bytes());
+        return stats;
+    }
+
+    private int positionOf(String doctorId, long id) {
+        int code = doctors.codeOf(doctorId);
+        if (code < 0) {
+            return -1;
+        }
+        int n = size;
+        Columns c = columns;
+        for (int i = 0; i < n; i++) {
+            if (c.ids[i] == id && c.doctor[i] == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int keepEqual(int[] column, int code, int[] selection, int m) {
+        int k = 0;
+        for (int j = 0; j < m; j++) {
+            int i = selection[j];
+            selection[k] = i;
+            k += column[i] == code ? 1 : 0;
+        }
+        return k;
+    }
+
+    private Map<String, Object> row(Columns c, int i) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", c.ids[i]);
+        row.put("doctor_id", doctors.decode(c.doctor[i]));
+        row.put("date", Date.valueOf(LocalDate.ofEpochDay(c.day[i])));
+        row.put("time", Time.valueOf(LocalTime.ofSecondOfDay(c.time[i])));
+        row.put("reason", reasons.decode(c.reason[i]));
+        row.put("contact", contacts.decode(c.contact[i]));
+        row.put("status", statuses.decode(c.status[i] & 0xFF));
+        row.put("created_at", new Timestamp(c.createdAt[i]));
+        return row;
+    }
+
+    private static final class Columns {
+        private final long[] ids;
+        private final int[] doctor;
+        private final int[] contact;
+        private final byte[] status;
+        private final int[] reason;
+        private final int[] day;
+        private final int[] time;
+        private final long[] createdAt;
+
+        private Columns(int capacity) {
+            this(new long[capacity], new int[capacity], new int[capacity], new byte[capacity], new int[capacity],
+                new int[capacity], new int[capacity], new long[capacity]);
+        }
+
+        private Columns(long[] ids, int[] doctor, int[] contact, byte[] status, int[] reason, int[] day, int[] time,
+                        long[] createdAt) {
+            this.ids = ids;
+            this.doctor = doctor;
+            this.contact = contact;
+            this.status = status;
+            this.reason = reason;
+            this.day = day;
+            this.time = time;
+            this.createdAt = createdAt;
+        }
+
+        private Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(ids, capacity), Arrays.copyOf(doctor, capacity),
+                Arrays.copyOf(contact, capacity), Arrays.copyOf(status, capacity), Arrays.copyOf(reason, capacity),
+                Arrays.copyOf(day, capacity), Arrays.copyOf(time, capacity), Arrays.copyOf(createdAt, capacity));
+        }
+    }
+
+    // Append-only string <-> code mapping; encode is called by the (single) writer only.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[16];
+        private volatile int count;
+        private long bytes;
+
+        private int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = count;
+            String[] current = values;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+                values = current;
+            }
+            current[next] = value;
+            count = next + 1;
+            codes.put(value, next);
+            bytes += 40 + value.length();
+            return next;
+        }
+
+        private int codeOf(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        private String decode(int code) {
+            return values[code];
+        }
+
+        private int size() {
+            return count;
+        }
+
+        private long bytes() {
+            return bytes;
+        }
+    }
+}
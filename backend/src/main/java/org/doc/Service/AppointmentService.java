@@ -3,6 +3,8 @@ package org.doc.Service;
 import org.doc.dto.AppointmentDTO;
 import org.doc.Entity.Appointment;
 import org.doc.Repository.AppointmentRepository;
+import org.doc.tracing.Span;
+import org.doc.tracing.Tracer;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.kernel.pdf.PdfDocument;
@@ -26,6 +28,8 @@ import org.slf4j.LoggerFactory;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.sql.Timestamp;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 
@@ -52,12 +56,46 @@ public class AppointmentService {
     @Autowired
     private SMSService smsService;
 
+    @Autowired
+    private BookingBatchWriter bookingBatchWriter;
+
+    @Autowired
+    private BookingJournal bookingJournal;
+
+    @Autowired
+    private AppointmentStatsService appointmentStatsService;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private HotWindowStore hotWindowStore;
+
+    @Autowired
+    private Tracer tracer;
+
     // Twilio vars from env
     private final String ACCOUNT_SID = System.getenv("TWILIO_ACCOUNT_SID");
     private final String AUTH_TOKEN = System.getenv("TWILIO_AUTH_TOKEN");
     private final String FROM_PHONE = System.getenv("TWILIO_PHONE_NUMBER");
 
     public void bookAppointment(AppointmentDTO dto) {
+        try (Span span = tracer.startSpan("booking")) {
+            span.setAttribute("doctorId", dto.getDoctorId())
+                .setAttribute("channel", dto.getContact() != null && dto.getContact().contains("@") ? "email" : "sms");
+            try {
+                book(dto);
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
+
+    private void book(AppointmentDTO dto) {
         log.info("🔥 Booking appointment with: {}", dto);
         
         // Convert DTO to Entity
@@ -71,21 +109,44 @@ public class AppointmentService {
         
         log.info("Appointment entity created: {}", appointment);
 
-        // 1. Insert into DB using both JdbcTemplate and Repository
+        // 1. Insert into DB (routed to the doctor's shard, group-committed with concurrent bookings)
         log.info("🚧 About to insert into DB...");
-        
-        // Method 1: JdbcTemplate
-        String sql = "INSERT INTO appointments (doctor_id, date, time, reason, contact) VALUES (?, ?, ?, ?, ?)";
-        int rows = jdbc.update(sql, dto.getDoctorId(), dto.getDate(), dto.getTime(), dto.getReason(), dto.getContact());
-        log.info("📥 JdbcTemplate DB Insert complete, rows affected: {}", rows);
-        
-        // Method 2: JPA Repository (backup)
-        try {
-            log.info("🚧 Also trying JPA Repository save...");
-            int repoResult = appointmentRepository.save(appointment);
-            log.info("📥 JPA Repository save result: {} rows affected", repoResult);
+        long id = bookingBatchWriter.insert(appointment);
+        log.info("📥 DB Insert complete, appointment id: {}", id);
+
+        // Journal the booking so the in-memory schedule state survives restarts without a full reload
+        try (Span span = tracer.startSpan("journal.append")) {
+            bookingJournal.recordBooked(appointment);
+        } catch (Exception e) {
+            log.warn("⚠️ Booking journal append failed: {}", e.getMessage());
+        }
+
+        // Count it towards the per doctor/day utilization stats
+        try (Span span = tracer.startSpan("stats.update")) {
+            appointmentStatsService.onBooked(appointment.getDoctorId(), appointment.getDate(), appointment.getStatus());
+        } catch (Exception e) {
+            log.warn("⚠️ Stats update failed: {}", e.getMessage());
+        }
+
+        // Add it to the in-memory hot window that serves filtered searches
+        try (Span span = tracer.startSpan("hotwindow.update")) {
+            hotWindowStore.onBooked(appointment);
+        } catch (Exception e) {
+            log.warn("⚠️ Hot window update failed: {}", e.getMessage());
+        }
+
+        // Bump contact/doctor versions so conditional GETs and calendar feeds see the new booking
+        try (Span span = tracer.startSpan("db.versions")) {
+            bookingVersionService.onChanged(dto.getContact(), dto.getDoctorId(), id);
         } catch (Exception e) {
-            log.warn("⚠️ JPA Repository save failed: {}", e.getMessage());
+            log.warn("⚠️ Booking version bump failed: {}", e.getMessage());
+        }
+
+        // Queue 24h/1h reminders if the appointment falls inside the already-loaded window
+        try (Span span = tracer.startSpan("reminders.register")) {
+            reminderScheduler.register(appointment);
+        } catch (Exception e) {
+            log.warn("⚠️ Reminder registration failed: {}", e.getMessage());
         }
 
         // 2. Generate PDF
@@ -119,6 +180,71 @@ public class AppointmentService {
         log.info("✅ Booking process finished successfully!");
     }
 
+    /**
+     * Moves an appointment to a new status and keeps the derived state (stats, schedule journal,
+     * ETags) in step. Returns false if the appointment doesn't exist.
+     */
+    public boolean updateStatus(long id, String doctorId, String status) {
+        log.info("🔁 Setting appointment {} of doctor {} to {}", id, doctorId, status);
+        Map<String, Object> before = appointmentRepository.updateStatus(doctorId, id, status);
+        if (before == null) {
+            return false;
+        }
+        String previous = before.get("status") == null ? "SCHEDULED" : before.get("status").toString();
+
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctorId(doctorId);
+        appointment.setDate(LocalDate.parse(String.valueOf(before.get("date"))));
+        appointment.setTime(LocalTime.parse(String.valueOf(before.get("time"))));
+        appointment.setReason((String) before.get("reason"));
+        appointment.setContact((String) before.get("contact"));
+        appointment.setStatus(status);
+        if (before.get("created_at") instanceof Timestamp createdAt) {
+            appointment.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        try {
+            appointmentStatsService.onStatusChanged(doctorId, appointment.getDate(), previous, status);
+        } catch (Exception e) {
+            log.warn("⚠️ Stats update failed: {}", e.getMessage());
+        }
+
+        // a cancelled appointment frees its slot; un-cancelling takes it again
+        try {
+            if ("CANCELLED".equals(status) && !"CANCELLED".equals(previous)) {
+                bookingJournal.recordReleased(appointment);
+            } else if ("CANCELLED".equals(previous) && !"CANCELLED".equals(status)) {
+                bookingJournal.recordBooked(appointment);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Booking journal append failed: {}", e.getMessage());
+        }
+
+        // reminders of a cancelled appointment are dropped when they come due; un-cancelling brings them back
+        try {
+            if ("CANCELLED".equals(previous) && !"CANCELLED".equals(status)) {
+                reminderScheduler.register(appointment);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Reminder registration failed: {}", e.getMessage());
+        }
+
+        try {
+            hotWindowStore.onStatusChanged(doctorId, id, status);
+        } catch (Exception e) {
+            log.warn("⚠️ Hot window update failed: {}", e.getMessage());
+        }
+
+        try {
+            bookingVersionService.onChanged(appointment.getContact(), doctorId, id);
+        } catch (Exception e) {
+            log.warn("⚠️ Booking version bump failed: {}", e.getMessage());
+        }
+        log.info("✅ Appointment {} is now {} (was {})", id, status, previous);
+        return true;
+    }
+
     private void sendEmail(String to, byte[] pdfBytes) throws Exception {
         log.info("📧 Sending email to: {}", to);
         MimeMessage message = mailSender.createMimeMessage();
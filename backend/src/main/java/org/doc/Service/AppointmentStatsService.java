@@ -0,0 +1,378 @@
+package org.doc.Service;
+
+import org.doc.Repository.AppointmentStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Booking counts by doctor, day and status, kept up to date on every booking and status change
+ * instead of scanning the appointments table.
+ *
+ * <p>Every change bumps {@link LongAdder}s for the exact (doctor, day, status) cell and for the
+ * doctor, day and overall roll-ups, so every read is a handful of map lookups. The per-cell deltas
+ * are flushed to {@code appointment_stats} periodically; at startup the counters are loaded from that
+ * table. A background job recounts the base table, refreshes the counters (picking up other
+ * instances' bookings) and corrects persistent drift in the rollup (e.g. from failed flushes).
+ */
+@Service
+public class AppointmentStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStatsService.class);
+
+    public static final List<String> STATUSES = List.of("SCHEDULED", "COMPLETED", "CANCELLED", "NO_SHOW");
+
+    private static final String ALL = "*";
+
+    @Value("${stats.flush-interval-seconds:10}")
+    private long flushIntervalSeconds;
+
+    @Value("${stats.reconcile-interval-minutes:60}")
+    private long reconcileIntervalMinutes;
+
+    @Autowired
+    private AppointmentStatsRepository statsRepository;
+
+    // (doctor|*, day|*, status) -> count; "*" rows are the roll-ups
+    private volatile Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+    // exact cells changed since the last flush
+    private final Map<Key, LongAdder> pending = new ConcurrentHashMap<>();
+    // exact cells changed since the running reconciliation started counting, null when none runs
+    private volatile Map<Key, LongAdder> duringReconcile;
+
+    private final Object flushLock = new Object();
+    private final Object reconcileLock = new Object();
+    // set while a scheduled or requested reconciliation runs, so they never queue up behind each other
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private ScheduledExecutorService background;
+    private volatile Map<String, Object> lastReconcile = Map.of();
+
+    @PostConstruct
+    public void init() {
+        try {
+            Map<Key, LongAdder> loaded = new ConcurrentHashMap<>();
+            for (Map<String, Object> row : statsRepository.findAll()) {
+                addAll(loaded, cellOf(row), ((Number) row.get("count")).longValue());
+            }
+            counts = loaded;
+            log.info("📊 Appointment stats loaded: {} appointments", total(loaded, ALL, ALL));
+        } catch (Exception e) {
+            log.error("❌ Loading appointment stats failed, starting from zero until reconciled: {}", e.getMessage(), e);
+        }
+        // two threads so flushes keep going while a reconciliation waits between its counts
+        background = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "appointment-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        background.scheduleWithFixedDelay(this::flushQuietly, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+        // an empty rollup (first start) is filled right away, otherwise the recount waits a full interval
+        long reconcileSeconds = reconcileIntervalMinutes * 60;
+        background.scheduleWithFixedDelay(this::runReconcile, counts.isEmpty() ? 1 : reconcileSeconds,
+            reconcileSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (background != null) {
+            background.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    public void onBooked(String doctorId, LocalDate date, String status) {
+        change(new Key(doctorId, date.toString(), status), 1);
+    }
+
+    public void onStatusChanged(String doctorId, LocalDate date, String from, String to) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        change(new Key(doctorId, date.toString(), from), -1);
+        change(new Key(doctorId, date.toString(), to), 1);
+    }
+
+    public Map<String, Object> forDoctorDay(String doctorId, LocalDate date) {
+        return breakdown(doctorId, date.toString());
+    }
+
+    public Map<String, Object> forDoctor(String doctorId) {
+        return breakdown(doctorId, ALL);
+    }
+
+    public Map<String, Object> forDay(LocalDate date) {
+        return breakdown(ALL, date.toString());
+    }
+
+    public Map<String, Object> overall() {
+        return breakdown(ALL, ALL);
+    }
+
+    public long totalAppointments() {
+        return total(counts, ALL, ALL);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("cells", counts.size());
+        status.put("pendingCells", pending.size());
+        status.put("reconciling", reconciling.get());
+        status.put("lastReconcile", lastReconcile);
+        return status;
+    }
+
+    /** Writes the accumulated deltas to the rollup table. */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Object[]> deltas = new ArrayList<>();
+            for (Map.Entry<Key, LongAdder> entry : pending.entrySet()) {
+                long delta = entry.getValue().sumThenReset();
+                if (delta != 0) {
+                    Key key = entry.getKey();
+                    deltas.add(new Object[] {key.doctorId, Date.valueOf(key.day), key.status, delta});
+                }
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                statsRepository.addDeltas(deltas);
+            } catch (RuntimeException e) {
+                // put them back so the next flush retries
+                for (Object[] delta : deltas) {
+                    pending.computeIfAbsent(new Key((String) delta[0], delta[1].toString(), (String) delta[2]), k -> new LongAdder())
+                        .add((Long) delta[3]);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Starts a {@link #reconcile()} in the background, since it can wait two flush intervals; progress
+     * and the result show in {@link #status()}. Throws IllegalStateException if one is already running.
+     */
+    public void startReconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation is already running");
+        }
+        try {
+            background.execute(() -> {
+                try {
+                    reconcileQuietly();
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            reconciling.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Recounts the base table and corrects the rollup and the counters by the difference. Other
+     * instances may hold deltas they haven't flushed yet, which look like drift in a single count, so
+     * only a difference seen in two counts taken a flush interval apart (with every instance having
+     * flushed in between) is corrected, and it is written as a delta rather than overwriting the
+     * rollup, so concurrent flushes are never lost.
+     */
+    public Map<String, Object> reconcile() throws InterruptedException {
+        long start = System.nanoTime();
+        synchronized (reconcileLock) {
+            flush();
+            Map<Key, Long> truth = countAppointments();
+            Map<Key, Long> firstDrift = difference(truth, rollup());
+            Map<Key, Long> corrections = new HashMap<>();
+            if (!firstDrift.isEmpty()) {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(2 * flushIntervalSeconds + 1));
+                flush();
+            }
+            duringReconcile = new ConcurrentHashMap<>();
+            try {
+                if (!firstDrift.isEmpty()) {
+                    truth = countAppointments();
+                    Map<Key, Long> secondDrift = difference(truth, rollup());
+                    firstDrift.forEach((cell, first) -> {
+                        long second = secondDrift.getOrDefault(cell, 0L);
+                        // what persisted in the same direction in both counts is real drift
+                        if (Long.signum(first) == Long.signum(second)) {
+                            corrections.put(cell, Long.signum(first) * Math.min(Math.abs(first), Math.abs(second)));
+                        }
+                    });
+                }
+                if (!corrections.isEmpty()) {
+                    List<Object[]> rows = new ArrayList<>();
+                    corrections.forEach((cell, delta) -> rows.add(new Object[] {cell.doctorId, Date.valueOf(cell.day), cell.status, delta}));
+                    statsRepository.addDeltas(rows);
+                }
+
+                Map<Key, LongAdder> rebuilt = new ConcurrentHashMap<>();
+                truth.forEach((cell, count) -> addAll(rebuilt, cell, count));
+                Map<Key, LongAdder> raced = duringReconcile;
+                duringReconcile = null;
+                raced.forEach((cell, delta) -> addAll(rebuilt, cell, delta.sum()));
+                counts = rebuilt;
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("at", Instant.now().toString());
+                result.put("cells", truth.size());
+                result.put("drift", corrections.values().stream().mapToLong(Math::abs).sum());
+                result.put("correctedCells", corrections.size());
+                result.put("millis", (System.nanoTime() - start) / 1_000_000);
+                lastReconcile = result;
+                log.info("📊 Appointment stats reconciled: {}", result);
+                return result;
+            } finally {
+                duringReconcile = null;
+            }
+        }
+    }
+
+    private Map<Key, Long> countAppointments() {
+        Map<Key, Long> truth = new HashMap<>();
+        for (Map<String, Object> row : statsRepository.countFromAppointments()) {
+            truth.merge(cellOf(row), ((Number) row.get("count")).longValue(), Long::sum);
+        }
+        return truth;
+    }
+
+    private Map<Key, Long> rollup() {
+        Map<Key, Long> rollup = new HashMap<>();
+        for (Map<String, Object> row : statsRepository.findAll()) {
+            rollup.merge(cellOf(row), ((Number) row.get("count")).longValue(), Long::sum);
+        }
+        return rollup;
+    }
+
+    // truth - rollup for every cell where they disagree
+    private static Map<Key, Long> difference(Map<Key, Long> truth, Map<Key, Long> rollup) {
+        Map<Key, Long> difference = new HashMap<>();
+        truth.forEach((cell, count) -> {
+            long delta = count - rollup.getOrDefault(cell, 0L);
+            if (delta != 0) {
+                difference.put(cell, delta);
+            }
+        });
+        rollup.forEach((cell, count) -> {
+            if (!truth.containsKey(cell) && count != 0) {
+                difference.put(cell, -count);
+            }
+        });
+        return difference;
+    }
+
+    private void change(Key cell, long delta) {
+        addAll(counts, cell, delta);
+        pending.computeIfAbsent(cell, k -> new LongAdder()).add(delta);
+        Map<Key, LongAdder> raced = duringReconcile;
+        if (raced != null) {
+            raced.computeIfAbsent(cell, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private Map<String, Object> breakdown(String doctorId, String day) {
+        Map<Key, LongAdder> current = counts;
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        long total = 0;
+        for (String status : STATUSES) {
+            long count = sum(current, new Key(doctorId, day, status));
+            byStatus.put(status, count);
+            total += count;
+        }
+        long completed = (long) byStatus.get("COMPLETED");
+        long noShows = (long) byStatus.get("NO_SHOW");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!ALL.equals(doctorId)) {
+            result.put("doctorId", doctorId);
+        }
+        if (!ALL.equals(day)) {
+            result.put("date", day);
+        }
+        result.put("total", total);
+        result.put("byStatus", byStatus);
+        result.put("noShowRate", completed + noShows == 0 ? null : (double) noShows / (completed + noShows));
+        return result;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("⚠️ Appointment stats flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void runReconcile() {
+        if (reconciling.compareAndSet(false, true)) {
+            try {
+                reconcileQuietly();
+            } finally {
+                reconciling.set(false);
+            }
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Appointment stats reconciliation failed: {}", e.getMessage(), e);
+            lastReconcile = Map.of("at", Instant.now().toString(), "error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static long total(Map<Key, LongAdder> source, String doctorId, String day) {
+        long total = 0;
+        for (String status : STATUSES) {
+            total += sum(source, new Key(doctorId, day, status));
+        }
+        return total;
+    }
+
+    private static long sum(Map<Key, LongAdder> source, Key key) {
+        LongAdder adder = source.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // the exact cell plus its doctor, day and overall roll-ups
+    private static void addAll(Map<Key, LongAdder> target, Key cell, long delta) {
+        for (Key key : new Key[] {cell, new Key(cell.doctorId, ALL, cell.status),
+                new Key(ALL, cell.day, cell.status), new Key(ALL, ALL, cell.status)}) {
+            target.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static Key cellOf(Map<String, Object> row) {
+        Object date = row.get("date");
+        String day = date instanceof Date sqlDate ? sqlDate.toLocalDate().toString() : String.valueOf(date);
+        Object status = row.get("status");
+        return new Key((String) row.get("doctor_id"), day, status == null ? "SCHEDULED" : status.toString());
+    }
+
+    private record Key(String doctorId, String day, String status) {
+    }
+}
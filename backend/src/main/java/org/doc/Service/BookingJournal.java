@@ -0,0 +1,784 @@
+package org.doc.Service;
+
+import org.doc.Entity.Appointment;
+import org.doc.Repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of booking events that keeps a {@link ScheduleState} of booked
+ * slots in memory.
+ *
+ * <p>Segments ({@code journal-<firstSeq>.log}) hold records of
+ * {@code [int length][int crc32][long seq][payload]}; a zero length marks the end. Every
+ * {@code journal.snapshot-every} events the state is written to a checksummed snapshot
+ * ({@code snapshot-<seq>.snap}) and segments older than the previous snapshot are deleted. Startup
+ * loads the newest valid snapshot and replays only the records after it, so warm start depends on the
+ * live window, not on the size of the appointments table. A torn or corrupt record ends the journal:
+ * it is zeroed and everything after it dropped. Without a usable snapshot/journal the state is built
+ * once from the database.
+ *
+ * <p>The journal is local to this instance: it only sees bookings made through it. Every
+ * {@code journal.catch-up-interval-seconds} (and right after startup) the doctors' booking changes
+ * ({@link BookingVersionService}) recorded since the last catch-up are read, and each doctor-day with a
+ * change is re-read from the database, which picks up bookings and cancellations made on other
+ * instances; until then a slot booked elsewhere can still show as free here. How far the catch-up got
+ * is kept in snapshots, so a restart catches up from there too. Only when that point is older than
+ * {@code booking_changes} is reliably kept (half of {@code calendar.change-retention-hours}) is the
+ * whole window rebuilt from the database.
+ */
+@Service
+public class BookingJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingJournal.class);
+
+    static final byte BOOKED = 1;
+    static final byte RELEASED = 2;
+
+    private static final int RECORD_HEADER = 16;
+    private static final int SNAPSHOT_MAGIC = 0x44534E50;
+    // version 2 added the catch-up point; version 1 snapshots still load and get a full reconcile
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.dir:data/journal}")
+    private String directory;
+
+    @Value("${journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${journal.snapshot-every:10000}")
+    private long snapshotEvery;
+
+    // past days kept in memory and in snapshots
+    @Value("${journal.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${journal.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${journal.catch-up-interval-seconds:5}")
+    private long catchUpIntervalSeconds;
+
+    // changes are re-read this far back, so one committed late or stamped by a slightly different clock isn't missed
+    @Value("${journal.catch-up-overlap-seconds:60}")
+    private long catchUpOverlapSeconds;
+
+    // booking_changes are pruned after this (CalendarFeedService)
+    @Value("${calendar.change-retention-hours:24}")
+    private long changeRetentionHours;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    private volatile ScheduleState state = new ScheduleState();
+    private volatile boolean ready;
+    private volatile Map<String, Object> lastRecovery = Map.of();
+    private volatile Map<String, Object> lastReconcile = Map.of();
+    private volatile Map<String, Object> lastCatchUp = Map.of();
+
+    private Path dir;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSeq = 1;
+    private long eventsSinceSnapshot;
+    private boolean snapshotPending;
+    // bookings appended while a reconciliation or catch-up reads the database; guarded by this
+    private List<Appointment> duringReconcile;
+    // booking changes up to here are in the state (null: unknown, reconcile); guarded by this
+    private Instant changesSince;
+    // catch-up state, only touched by the catching-up thread
+    private final Map<String, Long> appliedVersions = new HashMap<>();
+    // one snapshot at a time: the admin endpoint and the background snapshot share snapshot.tmp
+    private final Object snapshotLock = new Object();
+    // one database read at a time: catch-ups and reconciliations share duringReconcile
+    private final Object catchUpLock = new Object();
+    private ScheduledExecutorService background;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("📓 Booking journal disabled");
+            return;
+        }
+        try {
+            dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            recover();
+            ready = true;
+        } catch (Exception e) {
+            log.error("❌ Booking journal could not start, schedule state unavailable: {}", e.getMessage(), e);
+            return;
+        }
+        // a second thread so flushes keep going while a reconciliation reads the database
+        background = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "booking-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        background.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        background.scheduleWithFixedDelay(() -> {
+            try {
+                catchUp();
+            } catch (Exception e) {
+                log.error("❌ Booking journal catch-up failed: {}", e.getMessage(), e);
+            }
+        }, 0, catchUpIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (background != null) {
+            background.shutdownNow();
+        }
+        if (ready) {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                log.warn("⚠️ Final journal snapshot failed: {}", e.getMessage());
+            }
+            synchronized (this) {
+                ready = false;
+                closeSegment();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public ScheduleState getState() {
+        return state;
+    }
+
+    public void recordBooked(Appointment appointment) throws IOException {
+        append(BOOKED, appointment);
+    }
+
+    public void recordReleased(Appointment appointment) throws IOException {
+        append(RELEASED, appointment);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        synchronized (this) {
+            stats.put("lastSeq", nextSeq - 1);
+            stats.put("eventsSinceSnapshot", eventsSinceSnapshot);
+        }
+        stats.put("doctors", state.doctorCount());
+        stats.put("slots", state.slotCount());
+        stats.put("lastRecovery", lastRecovery);
+        stats.put("lastReconcile", lastReconcile);
+        stats.put("lastCatchUp", lastCatchUp);
+        return stats;
+    }
+
+    /** Writes a snapshot of the current state and drops journal segments no snapshot needs anymore. */
+    public Map<String, Object> snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            ScheduleState copy;
+            long seq;
+            Instant caughtUp;
+            synchronized (this) {
+                if (!ready) {
+                    throw new IllegalStateException("Booking journal is not running");
+                }
+                copy = state.copy();
+                seq = nextSeq - 1;
+                caughtUp = changesSince;
+                eventsSinceSnapshot = 0;
+                segment.force();
+            }
+            LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+            copy.pruneBefore(cutoff);
+            state.pruneBefore(cutoff);
+            writeSnapshot(copy, seq, caughtUp);
+            deleteObsoleteFiles();
+            log.info("📓 Journal snapshot at seq {}: {} doctors, {} slots", seq, copy.doctorCount(), copy.slotCount());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("seq", seq);
+            result.put("doctors", copy.doctorCount());
+            result.put("slots", copy.slotCount());
+            return result;
+        }
+    }
+
+    /**
+     * Rebuilds the state from the database. Slots this instance changed while the database was read
+     * keep their journal value, since the read may or may not have seen those changes.
+     */
+    public Map<String, Object> reconcile() {
+        synchronized (catchUpLock) {
+            return reconcileLocked();
+        }
+    }
+
+    private Map<String, Object> reconcileLocked() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            if (!ready) {
+                throw new IllegalStateException("Booking journal is not running");
+            }
+            duringReconcile = new ArrayList<>();
+        }
+        try {
+            // changes from here on may be missing from the rows read below, so the next catch-up starts here
+            Instant readStart = Instant.now();
+            ScheduleState fresh = new ScheduleState();
+            long rows = loadFromDatabase(fresh, LocalDate.now().minusDays(retentionDays));
+            int raced;
+            synchronized (this) {
+                raced = duringReconcile.size();
+                for (Appointment changed : duringReconcile) {
+                    fresh.setBookings(changed.getDoctorId(), changed.getDate(), changed.getTime(),
+                        state.bookings(changed.getDoctorId(), changed.getDate(), changed.getTime()));
+                }
+                state = fresh;
+                changesSince = readStart;
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("at", Instant.now().toString());
+            result.put("rows", rows);
+            result.put("slots", fresh.slotCount());
+            result.put("raced", raced);
+            result.put("millis", (System.nanoTime() - start) / 1_000_000);
+            lastReconcile = result;
+            log.info("📓 Schedule state reconciled from the database: {}", result);
+            return result;
+        } finally {
+            synchronized (this) {
+                duringReconcile = null;
+            }
+        }
+    }
+
+    /**
+     * Applies the booking changes recorded since the last catch-up (by any instance): every doctor-day
+     * with a changed appointment is re-read from the database and its slots replaced, so re-reading a
+     * change is harmless. Falls back to {@link #reconcile()} when {@code booking_changes} may no longer
+     * reach back to the last catch-up.
+     */
+    public Map<String, Object> catchUp() {
+        synchronized (catchUpLock) {
+            return catchUpLocked();
+        }
+    }
+
+    private Map<String, Object> catchUpLocked() {
+        long start = System.nanoTime();
+        Instant since;
+        synchronized (this) {
+            if (!ready) {
+                throw new IllegalStateException("Booking journal is not running");
+            }
+            since = changesSince;
+        }
+        if (since == null || since.isBefore(Instant.now().minusMillis(TimeUnit.HOURS.toMillis(changeRetentionHours) / 2))) {
+            Map<String, Object> result = new LinkedHashMap<>(reconcileLocked());
+            result.put("full", true);
+            lastCatchUp = result;
+            return result;
+        }
+
+        synchronized (this) {
+            duringReconcile = new ArrayList<>();
+        }
+        try {
+            Map<String, List<Long>> changedByDoctor = new LinkedHashMap<>();
+            Map<String, Long> newestVersions = new HashMap<>();
+            Instant latest = since;
+            for (Map<String, Object> change : bookingVersionService.doctorChangesAt(since.minusSeconds(catchUpOverlapSeconds))) {
+                String doctorId = (String) change.get("doctor_id");
+                long version = ((Number) change.get("version")).longValue();
+                // a doctor's versions commit in order, so anything at or below the applied one was seen already
+                if (version > appliedVersions.getOrDefault(doctorId, 0L)) {
+                    newestVersions.merge(doctorId, version, Math::max);
+                    changedByDoctor.computeIfAbsent(doctorId, k -> new ArrayList<>())
+                        .add(((Number) change.get("appointment_id")).longValue());
+                }
+                if (change.get("changed_at") instanceof Timestamp changedAt && changedAt.toInstant().isAfter(latest)) {
+                    latest = changedAt.toInstant();
+                }
+            }
+
+            LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+            Map<String, Map<LocalDate, Map<LocalTime, Integer>>> days = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Long>> changed : changedByDoctor.entrySet()) {
+                String doctorId = changed.getKey();
+                Map<LocalDate, Map<LocalTime, Integer>> doctorDays = new TreeMap<>();
+                for (Map<String, Object> row : appointmentRepository.findByIds(doctorId, changed.getValue())) {
+                    LocalDate date = toLocalDate(row.get("date"));
+                    if (!date.isBefore(cutoff) && !doctorDays.containsKey(date)) {
+                        doctorDays.put(date, countBookings(appointmentRepository.search(doctorId, null, null, date, date)));
+                    }
+                }
+                days.put(doctorId, doctorDays);
+            }
+
+            int slots = 0;
+            int raced;
+            synchronized (this) {
+                raced = duringReconcile.size();
+                for (Appointment changed : duringReconcile) {
+                    Map<LocalTime, Integer> counts = days.getOrDefault(changed.getDoctorId(), Map.of()).get(changed.getDate());
+                    if (counts != null) {
+                        // the read may or may not have seen this instance's change; the journal knows
+                        counts.put(changed.getTime(), state.bookings(changed.getDoctorId(), changed.getDate(), changed.getTime()));
+                    }
+                }
+                for (Map.Entry<String, Map<LocalDate, Map<LocalTime, Integer>>> doctor : days.entrySet()) {
+                    for (Map.Entry<LocalDate, Map<LocalTime, Integer>> day : doctor.getValue().entrySet()) {
+                        state.replaceDay(doctor.getKey(), day.getKey(), day.getValue());
+                        slots += day.getValue().size();
+                    }
+                }
+                changesSince = latest;
+            }
+            appliedVersions.putAll(newestVersions);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("at", Instant.now().toString());
+            result.put("doctors", days.size());
+            result.put("days", days.values().stream().mapToInt(Map::size).sum());
+            result.put("slots", slots);
+            result.put("raced", raced);
+            result.put("millis", (System.nanoTime() - start) / 1_000_000);
+            lastCatchUp = result;
+            if (!days.isEmpty()) {
+                log.info("📓 Schedule state caught up on booking changes: {}", result);
+            }
+            return result;
+        } finally {
+            synchronized (this) {
+                duringReconcile = null;
+            }
+        }
+    }
+
+    // ---- writing ----
+
+    private void append(byte type, Appointment appointment) throws IOException {
+        byte[] payload = encode(type, appointment);
+        synchronized (this) {
+            if (!ready) {
+                return;
+            }
+            if (segment.remaining() < RECORD_HEADER + payload.length) {
+                roll(payload.length);
+            }
+            long seq = nextSeq++;
+            int pos = segment.position();
+            segment.putInt(pos + 4, crc(seq, payload, 0, payload.length));
+            segment.putLong(pos + 8, seq);
+            segment.put(pos + RECORD_HEADER, payload);
+            // length last: until it is written the record reads as end of journal
+            segment.putInt(pos, payload.length);
+            segment.position(pos + RECORD_HEADER + payload.length);
+
+            apply(state, type, appointment.getDoctorId(), appointment.getDate(), appointment.getTime());
+            if (duringReconcile != null) {
+                duringReconcile.add(appointment);
+            }
+            if (++eventsSinceSnapshot >= snapshotEvery && !snapshotPending && !background.isShutdown()) {
+                snapshotPending = true;
+                background.execute(this::backgroundSnapshot);
+            }
+        }
+    }
+
+    private void roll(int payloadLength) throws IOException {
+        if (RECORD_HEADER + payloadLength > segmentBytes()) {
+            throw new IOException("Journal record larger than a segment");
+        }
+        segment.force();
+        closeSegment();
+        openSegment(segmentPath(nextSeq), 0);
+    }
+
+    private synchronized void flush() {
+        if (ready) {
+            segment.force();
+        }
+    }
+
+    private void backgroundSnapshot() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.error("❌ Journal snapshot failed: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                snapshotPending = false;
+            }
+        }
+    }
+
+    private void openSegment(Path path, int position) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentBytes()));
+        segment.position(position);
+    }
+
+    private void closeSegment() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Closing journal segment failed: {}", e.getMessage());
+        }
+        channel = null;
+    }
+
+    // ---- recovery ----
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        Map<String, Object> recovery = new LinkedHashMap<>();
+        List<Path> segments = listFiles("journal-", ".log");
+        Snapshot snapshot = loadNewestSnapshot();
+
+        long fromSeq = snapshot == null ? 0 : snapshot.seq;
+        boolean gap = segments.isEmpty() ? snapshot == null : firstSeqOf(segments.get(0)) > fromSeq + 1;
+        if (gap) {
+            bootstrapFromDatabase(segments, recovery);
+        } else {
+            state = snapshot == null ? new ScheduleState() : snapshot.state;
+            changesSince = snapshot == null ? null : snapshot.changesSince;
+            nextSeq = fromSeq + 1;
+            recovery.put("source", snapshot == null ? "journal" : "snapshot+journal");
+            recovery.put("snapshotSeq", fromSeq);
+            replay(segments, fromSeq, recovery);
+        }
+        state.pruneBefore(LocalDate.now().minusDays(retentionDays));
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        recovery.put("millis", millis);
+        recovery.put("lastSeq", nextSeq - 1);
+        lastRecovery = recovery;
+        log.info("📓 Schedule state ready in {} ms: {}", millis, recovery);
+    }
+
+    private void replay(List<Path> segments, long fromSeq, Map<String, Object> recovery) throws IOException {
+        long replayed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            int end;
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+                int pos = 0;
+                while (true) {
+                    Record record = readRecord(buffer, pos);
+                    if (record == null) {
+                        break;
+                    }
+                    if (record.seq != nextSeq && record.seq > fromSeq) {
+                        record = Record.CORRUPT;
+                    }
+                    if (record == Record.CORRUPT) {
+                        log.warn("⚠️ Journal {} is torn or corrupt at offset {}, truncating", path.getFileName(), pos);
+                        recovery.put("truncatedAt", path.getFileName() + "@" + pos);
+                        for (int p = pos; p < buffer.capacity(); p++) {
+                            buffer.put(p, (byte) 0);
+                        }
+                        buffer.force();
+                        for (Path later : segments.subList(i + 1, segments.size())) {
+                            Files.deleteIfExists(later);
+                        }
+                        segments = segments.subList(0, i + 1);
+                        break;
+                    }
+                    if (record.seq > fromSeq) {
+                        applyPayload(record.payload);
+                        nextSeq = record.seq + 1;
+                        replayed++;
+                    }
+                    pos += RECORD_HEADER + record.payload.length;
+                }
+                end = pos;
+            }
+            if (i == segments.size() - 1) {
+                openSegment(path, end);
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(segmentPath(nextSeq), 0);
+        }
+        recovery.put("replayedEvents", replayed);
+    }
+
+    private void bootstrapFromDatabase(List<Path> staleSegments, Map<String, Object> recovery) throws IOException {
+        log.info("📓 No usable snapshot/journal, building schedule state from the database");
+        for (Path path : staleSegments) {
+            Files.deleteIfExists(path);
+        }
+        Instant readStart = Instant.now();
+        ScheduleState fresh = new ScheduleState();
+        long rows = loadFromDatabase(fresh, LocalDate.now().minusDays(retentionDays));
+        state = fresh;
+        changesSince = readStart;
+        nextSeq = 1;
+        writeSnapshot(fresh, 0, readStart);
+        openSegment(segmentPath(nextSeq), 0);
+        recovery.put("source", "database");
+        recovery.put("rows", rows);
+    }
+
+    private long loadFromDatabase(ScheduleState target, LocalDate cutoff) {
+        long rows = 0;
+        for (Map<String, Object> row : appointmentRepository.findByDateRange(cutoff, cutoff.plusYears(5))) {
+            if ("CANCELLED".equals(row.get("status"))) {
+                continue;
+            }
+            target.book((String) row.get("doctor_id"), toLocalDate(row.get("date")), toLocalTime(row.get("time")));
+            rows++;
+        }
+        return rows;
+    }
+
+    private static Map<LocalTime, Integer> countBookings(List<Map<String, Object>> rows) {
+        Map<LocalTime, Integer> counts = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            if (!"CANCELLED".equals(row.get("status"))) {
+                counts.merge(toLocalTime(row.get("time")), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /** Returns the record at {@code pos}, null at the end of the journal, or {@link Record#CORRUPT}. */
+    private static Record readRecord(ByteBuffer buffer, int pos) {
+        if (pos + RECORD_HEADER > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(pos);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || pos + RECORD_HEADER + length > buffer.capacity()) {
+            return Record.CORRUPT;
+        }
+        long seq = buffer.getLong(pos + 8);
+        byte[] payload = new byte[length];
+        buffer.get(pos + RECORD_HEADER, payload);
+        if (buffer.getInt(pos + 4) != crc(seq, payload, 0, length)) {
+            return Record.CORRUPT;
+        }
+        return new Record(seq, payload);
+    }
+
+    // ---- snapshots ----
+
+    private void writeSnapshot(ScheduleState snapshotState, long seq, Instant caughtUp) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(seq);
+            out.writeLong(caughtUp == null ? -1 : caughtUp.toEpochMilli());
+            snapshotState.writeTo(out);
+        }
+        byte[] body = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        Path tmp = dir.resolve("snapshot.tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.wrap(body));
+            ch.write(ByteBuffer.allocate(8).putLong(0, crc.getValue()));
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(String.format("snapshot-%020d.snap", seq)),
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Snapshot loadNewestSnapshot() throws IOException {
+        List<Path> snapshots = listFiles("snapshot-", ".snap");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            try {
+                byte[] data = Files.readAllBytes(path);
+                if (data.length < 8) {
+                    throw new IOException("too short");
+                }
+                CRC32 crc = new CRC32();
+                crc.update(data, 0, data.length - 8);
+                if (crc.getValue() != ByteBuffer.wrap(data, data.length - 8, 8).getLong()) {
+                    throw new IOException("checksum mismatch");
+                }
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 8));
+                int version = in.readInt() == SNAPSHOT_MAGIC ? in.readInt() : -1;
+                if (version < 1 || version > SNAPSHOT_VERSION) {
+                    throw new IOException("unknown format");
+                }
+                long seq = in.readLong();
+                long caughtUp = version >= 2 ? in.readLong() : -1;
+                return new Snapshot(seq, caughtUp < 0 ? null : Instant.ofEpochMilli(caughtUp), ScheduleState.readFrom(in));
+            } catch (IOException e) {
+                log.warn("⚠️ Skipping unusable snapshot {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // keeps the newest snapshots and the segments the oldest kept one still needs
+    private void deleteObsoleteFiles() throws IOException {
+        List<Path> snapshots = listFiles("snapshot-", ".snap");
+        if (snapshots.size() < SNAPSHOTS_KEPT) {
+            return;
+        }
+        for (Path old : snapshots.subList(0, snapshots.size() - SNAPSHOTS_KEPT)) {
+            Files.deleteIfExists(old);
+        }
+        long coveredSeq = firstSeqOf(snapshots.get(snapshots.size() - SNAPSHOTS_KEPT));
+        synchronized (this) {
+            List<Path> segments = listFiles("journal-", ".log");
+            // a segment is obsolete once the next one starts at or before the first record still needed
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (firstSeqOf(segments.get(i + 1)) <= coveredSeq + 1) {
+                    Files.deleteIfExists(segments.get(i));
+                }
+            }
+        }
+    }
+
+    // ---- helpers ----
+
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(prefix) && p.getFileName().toString().endsWith(suffix))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return dir.resolve(String.format("journal-%020d.log", firstSeq));
+    }
+
+    private static long firstSeqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+    private long segmentBytes() {
+        return segmentSizeMb * 1024L * 1024L;
+    }
+
+    private static int crc(long seq, byte[] payload, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, seq));
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(byte type, Appointment appointment) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            out.writeLong(appointment.getId() == null ? 0 : appointment.getId());
+            out.writeUTF(appointment.getDoctorId());
+            out.writeLong(appointment.getDate().toEpochDay());
+            out.writeInt(appointment.getTime().toSecondOfDay());
+        }
+        return bytes.toByteArray();
+    }
+
+    private void applyPayload(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        in.readLong(); // appointment id, kept for diagnostics
+        String doctorId = in.readUTF();
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+        apply(state, type, doctorId, date, time);
+    }
+
+    private static void apply(ScheduleState target, byte type, String doctorId, LocalDate date, LocalTime time) {
+        if (type == BOOKED) {
+            target.book(doctorId, date, time);
+        } else if (type == RELEASED) {
+            target.release(doctorId, date, time);
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        return value instanceof Time time ? time.toLocalTime() : (LocalTime) value;
+    }
+
+    private static final class Record {
+        private static final Record CORRUPT = new Record(-1, new byte[0]);
+
+        private final long seq;
+        private final byte[] payload;
+
+        private Record(long seq, byte[] payload) {
+            this.seq = seq;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Snapshot {
+        private final long seq;
+        private final Instant changesSince;
+        private final ScheduleState state;
+
+        private Snapshot(long seq, Instant changesSince, ScheduleState state) {
+            this.seq = seq;
+            this.changesSince = changesSince;
+            this.state = state;
+        }
+    }
+}
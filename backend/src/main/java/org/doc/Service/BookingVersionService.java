@@ -0,0 +1,93 @@
+package org.doc.Service;
+
+import org.doc.Repository.BookingVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monotonic per-contact and per-doctor versions, bumped on every booking write. They live in the
+ * small {@code booking_versions} table so every instance sees the same value, and a conditional
+ * GET can be answered with a primary-key lookup instead of a scan of {@code appointments}.
+ */
+@Service
+public class BookingVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingVersionService.class);
+
+    private static final String CONTACT = "contact";
+    private static final String DOCTOR = "doctor";
+
+    @Autowired
+    private BookingVersionRepository versionRepository;
+
+    /** After a booking or status change; the doctor's bump also records which appointment changed. */
+    public void onChanged(String contact, String doctorId, long appointmentId) {
+        versionRepository.increment(CONTACT, contact);
+        long version = versionRepository.incrementWithChange(DOCTOR, doctorId, appointmentId);
+        log.info("🔖 Booking versions bumped for contact {} and doctor {} (v{})", contact, doctorId, version);
+    }
+
+    /**
+     * After a doctor's rows moved shards: bumps the doctor and every contact that has rows with them.
+     * A move keeps ids and row contents, so it writes no {@code booking_changes} rows; incremental
+     * consumers (calendar feeds, the hot window) see a version step with no change and have nothing to redo.
+     */
+    public void onMoved(String doctorId, Collection<String> contacts) {
+        versionRepository.increment(DOCTOR, doctorId);
+        for (String contact : contacts) {
+            versionRepository.increment(CONTACT, contact);
+        }
+        log.info("🔖 Booking versions bumped for moved doctor {} and {} contacts", doctorId, contacts.size());
+    }
+
+    public long contactVersion(String contact) {
+        return versionRepository.findVersion(CONTACT, contact);
+    }
+
+    public long doctorVersion(String doctorId) {
+        return versionRepository.findVersion(DOCTOR, doctorId);
+    }
+
+    /**
+     * {version, appointment id} of the doctor's changes after {@code version}, oldest first. Versions
+     * bumped by {@link #onMoved} have no entry, so the list can have gaps.
+     */
+    public List<long[]> doctorChangesSince(String doctorId, long version) {
+        return versionRepository.findChangesSince(DOCTOR, doctorId, version);
+    }
+
+    /** Every doctor's changes recorded at or after {@code since}: doctor_id, version, appointment_id, changed_at. */
+    public List<Map<String, Object>> doctorChangesAt(Instant since) {
+        return versionRepository.findChangesAt(DOCTOR, Timestamp.from(since)).stream()
+            .map(change -> Map.of("doctor_id", change.get("entity_key"), "version", change.get("version"),
+                "appointment_id", change.get("appointment_id"), "changed_at", change.get("changed_at")))
+            .toList();
+    }
+
+    public int pruneChanges(Instant before) {
+        return versionRepository.deleteChangesBefore(DOCTOR, Timestamp.from(before));
+    }
+
+    // Weak, so Tomcat still gzips the body (it skips compression for strong ETags), and one per
+    // representation, so a cache never answers a Smile request with a 304 for the JSON copy.
+    public String contactETag(String contact, MediaType format) {
+        return "W/\"c" + contactVersion(contact) + "-" + format.getSubtype() + "\"";
+    }
+
+    public String doctorETag(String doctorId, MediaType format) {
+        return doctorETag(doctorVersion(doctorId), format);
+    }
+
+    public static String doctorETag(long version, MediaType format) {
+        return "W/\"d" + version + "-" + format.getSubtype() + "\"";
+    }
+}
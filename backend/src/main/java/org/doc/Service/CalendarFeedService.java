@@ -0,0 +1,297 @@
+package org.doc.Service;
+
+import org.doc.Repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * iCalendar feeds per doctor for calendar apps. Each appointment is serialized once into a VEVENT
+ * fragment and cached, so serving a feed is copying cached bytes. A feed remembers the doctor's
+ * booking version it reflects; when the version has moved, only the appointments recorded in
+ * {@code booking_changes} since then are re-read and re-rendered, whichever instance changed them.
+ * Conditional GETs are answered from the version alone.
+ *
+ * <p>SEQUENCE is the doctor's version when the event was last rendered from a change (or when the
+ * feed was loaded), so it never goes down, even across restarts, which only ever raise it.
+ *
+ * <p>Feeds carry patient contacts, so their URL includes a token derived from
+ * {@code calendar.feed-secret}; without a secret there are no feeds.
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarFeedService.class);
+
+    private static final DateTimeFormatter UTC_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final byte[] FOOTER = "END:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${calendar.zone:${reminders.zone:Asia/Kolkata}}")
+    private String zoneProperty;
+
+    @Value("${calendar.slot-minutes:30}")
+    private int slotMinutes;
+
+    @Value("${calendar.max-feeds:500}")
+    private int maxFeeds;
+
+    @Value("${calendar.feed-secret:}")
+    private String feedSecret;
+
+    // booking_changes rows are kept this long; a feed not caught up within half of it is reloaded
+    @Value("${calendar.change-retention-hours:24}")
+    private long changeRetentionHours;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    private ZoneId zone;
+    // least recently served feed is evicted beyond calendar.max-feeds
+    private Map<String, Feed> feeds;
+    private ScheduledExecutorService pruner;
+
+    @PostConstruct
+    public void init() {
+        zone = ZoneId.of(zoneProperty);
+        feeds = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Feed> eldest) {
+                return size() > maxFeeds;
+            }
+        });
+        pruner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "calendar-changes");
+            t.setDaemon(true);
+            return t;
+        });
+        pruner.scheduleWithFixedDelay(this::pruneChanges, 1, 60, TimeUnit.MINUTES);
+        if (feedSecret == null || feedSecret.isBlank()) {
+            log.info("📅 Calendar feeds disabled (calendar.feed-secret not set)");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pruner != null) {
+            pruner.shutdownNow();
+        }
+    }
+
+    /** Unguessable part of the doctor's feed URL, or null when feeds are disabled. */
+    public String feedToken(String doctorId) {
+        if (feedSecret == null || feedSecret.isBlank()) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(feedSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(doctorId.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive calendar feed token", e);
+        }
+    }
+
+    public boolean isFeedToken(String doctorId, String token) {
+        String expected = feedToken(doctorId);
+        return expected != null && token != null
+            && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The doctor's feed as of {@code version} (read before calling, so every change up to it is
+     * already in the database and in {@code booking_changes}).
+     */
+    public Feed feed(String doctorId, long version) {
+        Feed feed = feeds.get(doctorId);
+        if (feed != null) {
+            synchronized (feed) {
+                if (feed.version >= version) {
+                    return feed;
+                }
+                long retentionMillis = TimeUnit.HOURS.toMillis(changeRetentionHours);
+                if (System.currentTimeMillis() - feed.syncedAtMillis < retentionMillis / 2) {
+                    catchUp(feed, version);
+                    return feed;
+                }
+            }
+        }
+        long start = System.nanoTime();
+        Feed loaded = new Feed(doctorId, version);
+        for (Map<String, Object> row : appointmentRepository.findByDoctorId(doctorId)) {
+            loaded.events.put(((Number) row.get("id")).longValue(), vevent(row, version));
+        }
+        feeds.put(doctorId, loaded);
+        log.info("📅 Calendar feed for doctor {} loaded at version {}: {} events in {} ms", doctorId, version,
+            loaded.events.size(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (feeds) {
+            stats.put("feeds", feeds.size());
+            stats.put("events", feeds.values().stream().mapToLong(f -> f.events.size()).sum());
+        }
+        return stats;
+    }
+
+    // re-renders only the appointments changed after the feed's version, with that change's version
+    private void catchUp(Feed feed, long version) {
+        long start = System.nanoTime();
+        Map<Long, Long> changed = new HashMap<>();
+        for (long[] change : bookingVersionService.doctorChangesSince(feed.doctorId, feed.version)) {
+            if (change[0] <= version) {
+                changed.put(change[1], change[0]);
+            }
+        }
+        for (Map<String, Object> row : appointmentRepository.findByIds(feed.doctorId, changed.keySet())) {
+            long id = ((Number) row.get("id")).longValue();
+            feed.events.put(id, vevent(row, changed.get(id)));
+        }
+        log.info("📅 Calendar feed for doctor {} caught up from version {} to {}: {} events changed in {} ms",
+            feed.doctorId, feed.version, version, changed.size(), (System.nanoTime() - start) / 1_000_000);
+        feed.version = version;
+        feed.syncedAtMillis = System.currentTimeMillis();
+    }
+
+    private void pruneChanges() {
+        try {
+            int deleted = bookingVersionService.pruneChanges(Instant.now().minus(Duration.ofHours(changeRetentionHours)));
+            if (deleted > 0) {
+                log.info("📅 Pruned {} booking changes older than {}h", deleted, changeRetentionHours);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Pruning booking changes failed: {}", e.getMessage());
+        }
+    }
+
+    private byte[] vevent(Map<String, Object> row, long sequence) {
+        long id = ((Number) row.get("id")).longValue();
+        String doctorId = (String) row.get("doctor_id");
+        String reason = (String) row.get("reason");
+        String status = (String) row.get("status");
+        LocalDateTime createdAt = toLocalDateTime(row.get("created_at"));
+        ZonedDateTime start = toLocalDate(row.get("date")).atTime(toLocalTime(row.get("time"))).atZone(zone);
+        StringBuilder event = new StringBuilder(384);
+        line(event, "BEGIN:VEVENT");
+        line(event, "UID:appointment-" + id + "-" + escape(doctorId) + "@docai-scheduler");
+        line(event, "DTSTAMP:" + utc(createdAt == null ? ZonedDateTime.now(zone) : createdAt.atZone(zone)));
+        line(event, "DTSTART:" + utc(start));
+        line(event, "DTEND:" + utc(start.plusMinutes(slotMinutes)));
+        line(event, "SUMMARY:" + escape(reason == null ? "Appointment" : reason));
+        line(event, "DESCRIPTION:" + escape("Patient contact: " + row.get("contact") + "\nStatus: " + (status == null ? "SCHEDULED" : status)));
+        line(event, "STATUS:" + ("CANCELLED".equals(status) ? "CANCELLED" : "CONFIRMED"));
+        line(event, "SEQUENCE:" + sequence);
+        line(event, "END:VEVENT");
+        return event.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String utc(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneOffset.UTC).format(UTC_STAMP);
+    }
+
+    // RFC 5545 TEXT escaping
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\r\n", "\\n").replace("\n", "\\n");
+    }
+
+    // content lines are folded at 75 octets, continuation lines start with a space
+    private static void line(StringBuilder out, String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int cp = content.codePointAt(i);
+            int size = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + size > 75) {
+                out.append("\r\n ");
+                octets = 1;
+            }
+            out.appendCodePoint(cp);
+            octets += size;
+            i += Character.charCount(cp);
+        }
+        out.append("\r\n");
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        return value instanceof Time time ? time.toLocalTime() : (LocalTime) value;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    public static final class Feed {
+        private final String doctorId;
+        private final Map<Long, byte[]> events = new ConcurrentHashMap<>();
+        // guarded by the feed itself
+        private long version;
+        private long syncedAtMillis;
+
+        private Feed(String doctorId, long version) {
+            this.doctorId = doctorId;
+            this.version = version;
+            this.syncedAtMillis = System.currentTimeMillis();
+        }
+
+        public int size() {
+            return events.size();
+        }
+
+        /** Writes the whole VCALENDAR document; only the cached fragments are copied. */
+        public void writeTo(OutputStream out) throws IOException {
+            StringBuilder header = new StringBuilder();
+            line(header, "BEGIN:VCALENDAR");
+            line(header, "VERSION:2.0");
+            line(header, "PRODID:-//DocAI Scheduler//Doctor Calendar//EN");
+            line(header, "CALSCALE:GREGORIAN");
+            line(header, "METHOD:PUBLISH");
+            line(header, "X-WR-CALNAME:" + escape("Appointments - " + doctorId));
+            out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+            for (byte[] event : events.values()) {
+                out.write(event);
+            }
+            out.write(FOOTER);
+            out.flush();
+        }
+    }
+}
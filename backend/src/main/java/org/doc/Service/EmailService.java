@@ -1,5 +1,7 @@
 package org.doc.Service;
 
+import org.doc.tracing.Span;
+import org.doc.tracing.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -18,6 +20,9 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private Tracer tracer;
+
     public void sendAppointmentSlip(String toEmail, File pdfFile) throws MessagingException {
         log.info("=== EMAIL SERVICE DEBUG ===");
         log.info("Attempting to send email to: {}", toEmail);
@@ -25,7 +30,8 @@ public class EmailService {
         log.info("PDF exists: {}", pdfFile.exists());
         log.info("PDF size: {} bytes", pdfFile.length());
         
-        try {
+        try (Span span = tracer.startSpan("smtp.send", Span.Kind.CLIENT)) {
+            span.setAttribute("kind", "appointment-slip");
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
@@ -35,7 +41,12 @@ public class EmailService {
             helper.addAttachment("AppointmentSlip.pdf", pdfFile);
 
             log.info("Email message prepared, attempting to send...");
-            mailSender.send(message);
+            try {
+                mailSender.send(message);
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
             log.info("✅ Email sent successfully!");
         } catch (Exception e) {
             log.error("❌ Email sending failed: {}", e.getMessage(), e);
@@ -43,4 +54,28 @@ public class EmailService {
         }
         log.info("=== EMAIL SERVICE COMPLETED ===");
     }
-} 
\ No newline at end of file
+
+    public void sendReminder(String toEmail, String subject, String text) throws MessagingException {
+        log.info("Sending reminder email to: {}", toEmail);
+        try (Span span = tracer.startSpan("smtp.send", Span.Kind.CLIENT)) {
+            span.setAttribute("kind", "reminder");
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false);
+
+            helper.setTo(toEmail);
+            helper.setSubject(subject);
+            helper.setText(text);
+
+            try {
+                mailSender.send(message);
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+            log.info("✅ Reminder email sent to {}", toEmail);
+        } catch (Exception e) {
+            log.error("❌ Reminder email failed: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+}
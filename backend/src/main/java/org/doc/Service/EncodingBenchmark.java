@@ -0,0 +1,142 @@
+package org.doc.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.doc.Repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares payload size and serialize time of the appointment list responses in JSON, Smile and
+ * CBOR, each with and without gzip. Uses the ObjectMappers of the registered message converters so
+ * the numbers match what GET /appointments actually sends.
+ */
+@Component
+@Profile("bench")
+public class EncodingBenchmark {
+
+    public static final int MAX_ROWS = 10_000;
+    public static final int MAX_ITERATIONS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(EncodingBenchmark.class);
+
+    private static final MediaType[] FORMATS = {
+        MediaType.APPLICATION_JSON,
+        new MediaType("application", "x-jackson-smile"),
+        MediaType.APPLICATION_CBOR
+    };
+
+    @Autowired
+    private HttpMessageConverters messageConverters;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    /** Encodes {@code rows} synthetic rows, or the newest {@code rows} appointments for source "db". */
+    public List<Map<String, Object>> run(String source, int rows, int iterations) throws IOException {
+        if (rows < 1 || rows > MAX_ROWS || iterations < 1 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("rows must be 1.." + MAX_ROWS + " and iterations 1.." + MAX_ITERATIONS);
+        }
+        List<Map<String, Object>> data = "db".equals(source) ? appointmentRepository.findNewest(rows) : syntheticRows(rows);
+        return run(data, iterations);
+    }
+
+    private List<Map<String, Object>> run(List<Map<String, Object>> rows, int iterations) throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        long jsonBytes = 0;
+
+        for (MediaType format : FORMATS) {
+            ObjectMapper mapper = mapperFor(format);
+            if (mapper == null) {
+                log.warn("⚠️ No converter registered for {}", format);
+                continue;
+            }
+            for (boolean gzip : new boolean[] {false, true}) {
+                // warm-up so JIT and Jackson's serializer caches don't skew the first format
+                for (int i = 0; i < Math.max(10, iterations / 5); i++) {
+                    encode(mapper, rows, gzip);
+                }
+                long size = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    size = encode(mapper, rows, gzip).length;
+                }
+                long avgNanos = (System.nanoTime() - start) / iterations;
+                if (format.equals(MediaType.APPLICATION_JSON) && !gzip) {
+                    jsonBytes = size;
+                }
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("format", format.toString() + (gzip ? " + gzip" : ""));
+                result.put("bytes", size);
+                result.put("sizeVsJson", jsonBytes > 0 ? Math.round(size * 1000.0 / jsonBytes) / 1000.0 : null);
+                result.put("avgSerializeMicros", avgNanos / 1000.0);
+                results.add(result);
+                log.info("📊 {} rows as {}: {} bytes, {} µs", rows.size(), result.get("format"), size, avgNanos / 1000.0);
+            }
+        }
+        return results;
+    }
+
+    /** Rows shaped like {@code SELECT * FROM appointments} as returned by JdbcTemplate.queryForList. */
+    private List<Map<String, Object>> syntheticRows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        LocalDate baseDate = LocalDate.now();
+        LocalDateTime baseCreated = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", (long) i + 1);
+            row.put("doctor_id", "doc" + (i % 50));
+            row.put("date", Date.valueOf(baseDate.plusDays(i % 30)));
+            row.put("time", Time.valueOf(LocalTime.of(9 + i % 8, (i % 4) * 15)));
+            row.put("reason", "Follow-up consultation #" + i);
+            row.put("contact", i % 3 == 0 ? "patient" + i + "@example.com" : String.valueOf(9000000000L + i));
+            row.put("status", "SCHEDULED");
+            row.put("created_at", Timestamp.valueOf(baseCreated.minusMinutes(i)));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private ObjectMapper mapperFor(MediaType mediaType) {
+        for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter jackson
+                    && jackson.getSupportedMediaTypes().contains(mediaType)) {
+                return jackson.getObjectMapper();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] encode(ObjectMapper mapper, Object value, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        if (gzip) {
+            try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+                mapper.writeValue(zip, value);
+            }
+        } else {
+            mapper.writeValue(out, value);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,172 @@
+package org.doc.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable 3-d tree over points on the unit sphere. Latitude/longitude are turned into unit
+ * vectors, so straight-line (chord) distance orders points exactly like great-circle distance and
+ * the usual k-d tree pruning works without special cases at the poles or the date line.
+ *
+ * <p>The tree is implicit: points are stored in flat arrays, permuted so that the median of every
+ * range is its node. No per-node objects are allocated.
+ */
+public class GeoKdTree {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final int[] ids;
+
+    /** @param ids caller's identifier for each point, returned by {@link #nearest} */
+    public GeoKdTree(double[] latitudes, double[] longitudes, int[] ids) {
+        int n = ids.length;
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.zs = new double[n];
+        this.ids = Arrays.copyOf(ids, n);
+        for (int i = 0; i < n; i++) {
+            double[] v = toVector(latitudes[i], longitudes[i]);
+            xs[i] = v[0];
+            ys[i] = v[1];
+            zs[i] = v[2];
+        }
+        build(0, n, 0);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Up to {@code limit} nearest points, closest first. */
+    public List<Neighbor> nearest(double latitude, double longitude, int limit) {
+        if (limit <= 0 || ids.length == 0) {
+            return List.of();
+        }
+        double[] q = toVector(latitude, longitude);
+        // max-heap on squared chord distance holding the best candidates so far
+        PriorityQueue<double[]> best = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+        search(0, ids.length, 0, q, limit, best);
+
+        List<Neighbor> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            double[] entry = best.poll();
+            result.add(new Neighbor(ids[(int) entry[1]], chordToKm(Math.sqrt(entry[0]))));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void search(int from, int to, int axis, double[] q, int limit, PriorityQueue<double[]> best) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        double dx = xs[mid] - q[0];
+        double dy = ys[mid] - q[1];
+        double dz = zs[mid] - q[2];
+        double d2 = dx * dx + dy * dy + dz * dz;
+        if (best.size() < limit) {
+            best.add(new double[] {d2, mid});
+        } else if (d2 < best.peek()[0]) {
+            best.poll();
+            best.add(new double[] {d2, mid});
+        }
+
+        double diff = q[axis] - coordinate(mid, axis);
+        int next = (axis + 1) % 3;
+        if (diff < 0) {
+            search(from, mid, next, q, limit, best);
+            if (best.size() < limit || diff * diff < best.peek()[0]) {
+                search(mid + 1, to, next, q, limit, best);
+            }
+        } else {
+            search(mid + 1, to, next, q, limit, best);
+            if (best.size() < limit || diff * diff < best.peek()[0]) {
+                search(from, mid, next, q, limit, best);
+            }
+        }
+    }
+
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        int next = (axis + 1) % 3;
+        build(from, mid, next);
+        build(mid + 1, to, next);
+    }
+
+    // quickselect so that position k holds the median along axis and the range is partitioned around it
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            double pivot = coordinate((left + right) >>> 1, axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinate(i, axis) < pivot) {
+                    i++;
+                }
+                while (coordinate(j, axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double coordinate(int i, int axis) {
+        return axis == 0 ? xs[i] : axis == 1 ? ys[i] : zs[i];
+    }
+
+    private void swap(int a, int b) {
+        double t = xs[a]; xs[a] = xs[b]; xs[b] = t;
+        t = ys[a]; ys[a] = ys[b]; ys[b] = t;
+        t = zs[a]; zs[a] = zs[b]; zs[b] = t;
+        int id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+    }
+
+    private static double[] toVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[] {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double chordToKm(double chord) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, chord / 2));
+    }
+
+    public static final class Neighbor {
+        private final int id;
+        private final double distanceKm;
+
+        private Neighbor(int id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.doc.Service;
+
+import org.doc.Entity.Appointment;
+import org.doc.Repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares per-request inserts (one commit per booking, as before group commit) with the
+ * {@link GroupCommitter} path under the same number of concurrent writers. Writes go to a scratch
+ * table on the primary datasource so real appointments are never touched, and the scratch rows take
+ * their ids from a counter of their own rather than the shared appointment id sequence, which they
+ * would otherwise burn through. Only created with the
+ * {@code bench} profile, so a production instance can't be made to run it.
+ */
+@Component
+@Profile("bench")
+public class GroupCommitBenchmark {
+
+    public static final int MAX_WRITERS = 64;
+    public static final int MAX_ROWS_PER_WRITER = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitBenchmark.class);
+
+    private static final String TABLE = "appointments_bench";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // the repository only allocates from AppointmentIdAllocator for rows that have no id yet
+    private final AtomicLong benchIds = new AtomicLong();
+
+    public Map<String, Object> run(int writers, int rowsPerWriter, int maxBatchSize, long maxWaitMicros) throws Exception {
+        if (writers < 1 || writers > MAX_WRITERS || rowsPerWriter < 1 || rowsPerWriter > MAX_ROWS_PER_WRITER
+                || maxBatchSize < 1 || maxBatchSize > MAX_BATCH_SIZE || maxWaitMicros < 0 || maxWaitMicros > 1_000_000) {
+            throw new IllegalArgumentException("writers must be 1.." + MAX_WRITERS + ", rowsPerWriter 1.." + MAX_ROWS_PER_WRITER
+                + ", maxBatchSize 1.." + MAX_BATCH_SIZE + " and maxWaitMicros 0..1000000");
+        }
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, doctor_id VARCHAR(255) NOT NULL, date DATE NOT NULL, "
+            + "time TIME NOT NULL, reason VARCHAR(255) NOT NULL, contact VARCHAR(255) NOT NULL, "
+            + "status VARCHAR(50) DEFAULT 'SCHEDULED', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        // rows left behind by a run that died before its cleanup keep their ids
+        benchIds.accumulateAndGet(jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + TABLE, Long.class), Math::max);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        try {
+            results.put("perRequest", measure(writers, rowsPerWriter, a -> appointmentRepository.insert(jdbc, TABLE, a), null));
+
+            GroupCommitter<Appointment> grouped = new GroupCommitter<>("bench-batch", maxBatchSize, maxWaitMicros, 2,
+                items -> appointmentRepository.insertBatch(jdbc, TABLE, items),
+                item -> appointmentRepository.insert(jdbc, TABLE, item));
+            try {
+                results.put("groupCommit", measure(writers, rowsPerWriter, grouped::write, grouped));
+            } finally {
+                grouped.shutdown();
+            }
+        } finally {
+            jdbc.execute("DELETE FROM " + TABLE);
+        }
+        return results;
+    }
+
+    private interface Insert {
+        long insert(Appointment appointment);
+    }
+
+    private Map<String, Object> measure(int writers, int rowsPerWriter, Insert insert, GroupCommitter<Appointment> grouped)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        LongAdder failures = new LongAdder();
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < rowsPerWriter; i++) {
+                        try {
+                            insert.insert(row(writer, i));
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                    }
+                }, pool));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long rows = (long) writers * rowsPerWriter;
+            long commits = grouped == null ? rows : (long) grouped.stats().get("batches");
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("rows", rows);
+            result.put("failures", failures.sum());
+            result.put("commits", commits);
+            result.put("seconds", Math.round(seconds * 1000) / 1000.0);
+            result.put("rowsPerSecond", Math.round(rows / seconds));
+            result.put("commitsPerSecond", Math.round(commits / seconds));
+            log.info("📊 {} writers x {} rows: {} commits in {} s", writers, rowsPerWriter, commits, result.get("seconds"));
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Appointment row(int writer, int i) {
+        Appointment appointment = new Appointment();
+        appointment.setId(benchIds.incrementAndGet());
+        appointment.setDoctorId("bench-doc-" + (i % 50));
+        appointment.setDate(LocalDate.now().plusDays(1 + i % 30));
+        appointment.setTime(LocalTime.of(9 + i % 8, (i % 4) * 15));
+        appointment.setReason("benchmark");
+        appointment.setContact("bench-" + writer + "@example.com");
+        return appointment;
+    }
+}
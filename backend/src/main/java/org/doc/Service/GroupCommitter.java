@@ -0,0 +1,213 @@
+package org.doc.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Micro-batching write stage. Callers submit single rows; flusher threads collect whatever arrives
+ * within {@code maxWaitMicros} of the first row (or until {@code maxBatch} rows) and hand the batch
+ * to the {@link Flusher} to be written in one transaction. Each caller still gets its own id or its
+ * own failure through its future.
+ */
+public class GroupCommitter<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+    public interface Flusher<T> {
+        void flush(List<Request<T>> batch) throws Exception;
+    }
+
+    public interface BatchInsert<T> {
+        long[] insert(List<T> items) throws Exception;
+    }
+
+    public interface SingleInsert<T> {
+        long insert(T item) throws Exception;
+    }
+
+    public static final class Request<T> {
+        private final T item;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private Request(T item) {
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public void complete(long id) {
+            result.complete(id);
+        }
+
+        public void fail(Throwable error) {
+            result.completeExceptionally(error);
+        }
+    }
+
+    private final String name;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final Flusher<T> flusher;
+    private final BlockingQueue<Request<T>> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public GroupCommitter(String name, int maxBatch, long maxWaitMicros, int flusherThreads, Flusher<T> flusher) {
+        this(name, maxBatch, maxWaitMicros, flusherThreads, flusher, null, null);
+    }
+
+    /** Single-target variant: every batch goes through {@link #insertWithFallback}. */
+    public GroupCommitter(String name, int maxBatch, long maxWaitMicros, int flusherThreads,
+                          BatchInsert<T> batchInsert, SingleInsert<T> singleInsert) {
+        this(name, maxBatch, maxWaitMicros, flusherThreads, null, batchInsert, singleInsert);
+    }
+
+    private GroupCommitter(String name, int maxBatch, long maxWaitMicros, int flusherThreads, Flusher<T> flusher,
+                           BatchInsert<T> batchInsert, SingleInsert<T> singleInsert) {
+        this.name = name;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.flusher = flusher != null ? flusher : batch -> insertWithFallback(batch, batchInsert, singleInsert);
+        for (int i = 0; i < flusherThreads; i++) {
+            Thread t = new Thread(this::flushLoop, name + "-flusher-" + i);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+    }
+
+    public CompletableFuture<Long> submit(T item) {
+        Request<T> request = new Request<>(item);
+        if (!running) {
+            request.fail(new IllegalStateException(name + " is shut down"));
+        } else {
+            queue.add(request);
+        }
+        return request.result;
+    }
+
+    /** Submits and waits for the row's id; a failure of this row is rethrown as it was raised. */
+    public long write(T item) {
+        try {
+            return submit(item).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        List<Request<T>> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(r -> r.fail(new IllegalStateException(name + " is shut down")));
+    }
+
+    public Map<String, Object> stats() {
+        long batchCount = batches.sum();
+        long rowCount = rows.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("batches", batchCount);
+        stats.put("rows", rowCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : (double) rowCount / batchCount);
+        stats.put("rowByRowFallbacks", fallbacks.sum());
+        stats.put("queued", queue.size());
+        return stats;
+    }
+
+    /**
+     * Inserts the batch in one go; if that fails, inserts the rows one by one so a single bad row
+     * only fails its own caller.
+     */
+    public void insertWithFallback(List<Request<T>> batch, BatchInsert<T> batchInsert, SingleInsert<T> singleInsert) {
+        List<T> items = new ArrayList<>(batch.size());
+        batch.forEach(r -> items.add(r.getItem()));
+        try {
+            long[] ids = batchInsert.insert(items);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(ids[i]);
+            }
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).fail(e);
+                return;
+            }
+            fallbacks.increment();
+            log.warn("⚠️ {} batch of {} failed ({}), retrying row by row", name, batch.size(), e.getMessage());
+        }
+        for (Request<T> request : batch) {
+            try {
+                request.complete(singleInsert.insert(request.getItem()));
+            } catch (Exception e) {
+                request.fail(e);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        List<Request<T>> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0) {
+                        break;
+                    }
+                    Request<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                batch.forEach(r -> r.fail(new IllegalStateException(name + " is shut down")));
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Request<T>> batch) {
+        batches.increment();
+        rows.add(batch.size());
+        try {
+            flusher.flush(batch);
+        } catch (Exception e) {
+            log.error("❌ {} flush of {} rows failed: {}", name, batch.size(), e.getMessage(), e);
+            batch.forEach(r -> r.fail(e));
+        }
+        // a flusher that forgot a row must not leave its caller waiting forever
+        for (Request<T> request : batch) {
+            if (!request.result.isDone()) {
+                request.fail(new IllegalStateException("Row was not written by " + name));
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.doc.Service;
+
+import com.twilio.rest.api.v2010.Account;
+import org.doc.Repository.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background dependency checks for liveness/readiness. Each dependency (database shards, SMTP,
+ * Twilio, ML service) is probed on its own schedule with a timeout and the latest result is cached,
+ * so health endpoints only read memory and orchestrator probes never reach the dependencies.
+ * Readiness requires the critical dependencies ({@code health.critical}, the database by default)
+ * to be UP with a fresh result; the others only degrade the status.
+ */
+@Service
+public class HealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(HealthMonitor.class);
+
+    public static final String UP = "UP";
+    public static final String DOWN = "DOWN";
+    public static final String DEGRADED = "DEGRADED";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    @Value("${health.db.interval-seconds:15}")
+    private long dbIntervalSeconds;
+
+    @Value("${health.external.interval-seconds:60}")
+    private long externalIntervalSeconds;
+
+    @Value("${health.timeout-ms:3000}")
+    private long timeoutMillis;
+
+    @Value("${health.critical:db}")
+    private List<String> critical;
+
+    @Value("${triage.remote.url:https://doc-ai-ml.onrender.com/predict}")
+    private String mlUrl;
+
+    @Value("${twilio.account.sid:}")
+    private String twilioAccountSid;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    private final Map<String, Map<String, Object>> results = new ConcurrentHashMap<>();
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+    private final Map<String, Long> intervals = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService checkers;
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void init() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout((int) timeoutMillis);
+        factory.setReadTimeout((int) timeoutMillis);
+        restTemplate = new RestTemplate(factory);
+
+        // one thread per dependency so a slow check never delays the others
+        scheduler = Executors.newScheduledThreadPool(4, r -> {
+            Thread t = new Thread(r, "health-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        checkers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "health-check");
+            t.setDaemon(true);
+            return t;
+        });
+
+        schedule("db", dbIntervalSeconds, this::checkDatabase);
+        schedule("smtp", externalIntervalSeconds, this::checkSmtp);
+        schedule("sms", externalIntervalSeconds, this::checkTwilio);
+        schedule("ml", externalIntervalSeconds, this::checkMl);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        checkers.shutdownNow();
+    }
+
+    /** Cached composite status; {@code ready} is false unless every critical dependency is UP and fresh. */
+    public Map<String, Object> readiness() {
+        Map<String, Object> dependencies = new LinkedHashMap<>();
+        boolean ready = true;
+        boolean allUp = true;
+        for (String name : intervals.keySet().stream().sorted().toList()) {
+            Map<String, Object> result = new LinkedHashMap<>(results.getOrDefault(name, Map.of("status", UNKNOWN)));
+            Object checkedAt = result.get("checkedAtMillis");
+            if (checkedAt != null && System.currentTimeMillis() - (long) checkedAt > 3 * intervals.get(name) * 1000) {
+                result.put("status", UNKNOWN);
+                result.put("stale", true);
+            }
+            result.put("critical", critical.contains(name));
+            boolean up = UP.equals(result.get("status"));
+            allUp &= up;
+            if (!up && critical.contains(name)) {
+                ready = false;
+            }
+            dependencies.put(name, result);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", !ready ? DOWN : allUp ? UP : DEGRADED);
+        status.put("ready", ready);
+        status.put("dependencies", dependencies);
+        return status;
+    }
+
+    public boolean isReady() {
+        return (boolean) readiness().get("ready");
+    }
+
+    public Map<String, Object> dependency(String name) {
+        return results.getOrDefault(name, Map.of("status", UNKNOWN));
+    }
+
+    private void schedule(String name, long intervalSeconds, Callable<String> check) {
+        intervals.put(name, intervalSeconds);
+        running.put(name, new AtomicBoolean());
+        scheduler.scheduleWithFixedDelay(() -> run(name, check), 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void run(String name, Callable<String> check) {
+        // a check still hanging from the last round is not started again
+        AtomicBoolean busy = running.get(name);
+        if (!busy.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        Future<String> future = checkers.submit(() -> {
+            try {
+                return check.call();
+            } finally {
+                busy.set(false);
+            }
+        });
+        String status;
+        String detail;
+        try {
+            detail = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            status = UP;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            status = DOWN;
+            detail = "timed out after " + timeoutMillis + " ms";
+        } catch (Exception e) {
+            status = DOWN;
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            detail = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        }
+
+        Map<String, Object> previous = results.get(name);
+        long failures = DOWN.equals(status) && previous != null
+            ? ((Number) previous.getOrDefault("consecutiveFailures", 0L)).longValue() + 1
+            : DOWN.equals(status) ? 1 : 0;
+        if (previous != null && !status.equals(previous.get("status"))) {
+            if (UP.equals(status)) {
+                log.info("✅ {} is back UP", name);
+            } else {
+                log.warn("⚠️ {} is {}: {}", name, status, detail);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", status);
+        result.put("latencyMs", (System.nanoTime() - start) / 1_000_000);
+        result.put("detail", detail);
+        result.put("checkedAt", Instant.now().toString());
+        result.put("checkedAtMillis", System.currentTimeMillis());
+        result.put("consecutiveFailures", failures);
+        results.put(name, result);
+    }
+
+    private String checkDatabase() {
+        for (String shard : shardRouter.getShardNames()) {
+            shardRouter.jdbcFor(shard).queryForObject("SELECT 1", Integer.class);
+        }
+        return shardRouter.getShardNames().size() + " shard(s) answered";
+    }
+
+    // connect only: a login every round would count against the mail account's sign-in limits
+    private String checkSmtp() throws Exception {
+        if (!(mailSender instanceof JavaMailSenderImpl impl) || impl.getHost() == null) {
+            return "not checkable (" + mailSender.getClass().getSimpleName() + ")";
+        }
+        int port = impl.getPort() > 0 ? impl.getPort() : "smtps".equals(impl.getProtocol()) ? 465 : 25;
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(impl.getHost(), port), (int) timeoutMillis);
+        }
+        return "reachable at " + impl.getHost() + ":" + port;
+    }
+
+    // no credentials is a deployment without SMS, reported like an uncheckable mail sender rather than as an outage
+    private String checkTwilio() {
+        if (twilioAccountSid == null || twilioAccountSid.isBlank()) {
+            return "not configured";
+        }
+        Account account = Account.fetcher(twilioAccountSid).fetch();
+        if (account.getStatus() != Account.Status.ACTIVE) {
+            throw new IllegalStateException("Twilio account is " + account.getStatus());
+        }
+        return "account active";
+    }
+
+    private String checkMl() {
+        try {
+            restTemplate.getForEntity(mlUrl, String.class);
+        } catch (HttpClientErrorException e) {
+            // /predict only takes POST; any 4xx still proves the service is up
+            return "responded " + e.getStatusCode().value();
+        }
+        return "responded";
+    }
+}
@@ -0,0 +1,117 @@
+package org.doc.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck, as used by Kafka and Netty). Level 0 has
+ * {@code wheelSize} buckets of {@code tickMillis}; each higher level's bucket spans one full
+ * revolution of the level below. Adding and expiring a timer is O(1) regardless of how many are
+ * pending; timers in coarse buckets are cascaded down as their slot comes around.
+ *
+ * <p>Not thread-safe on its own; callers synchronize.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Entry<T>>>[] levels;
+
+    private long currentSlot;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levelCount];
+        this.levels = new List[levelCount];
+        long ticks = 1;
+        for (int i = 0; i < levelCount; i++) {
+            levelTicks[i] = ticks;
+            levels[i] = new ArrayList<>(wheelSize);
+            for (int b = 0; b < wheelSize; b++) {
+                levels[i].add(new ArrayList<>());
+            }
+            ticks *= wheelSize;
+        }
+        this.currentSlot = startMillis / tickMillis;
+    }
+
+    /** Largest delay (ms) that fits in the wheel. */
+    public long getSpanMillis() {
+        return levelTicks[levelTicks.length - 1] * wheelSize * tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return false if the deadline falls in the current or a past tick (the caller should run it
+     *         now), true if the timer was scheduled
+     * @throws IllegalArgumentException if the deadline is beyond {@link #getSpanMillis()}
+     */
+    public boolean add(long deadlineMillis, T task) {
+        long slot = deadlineMillis / tickMillis;
+        if (slot <= currentSlot) {
+            return false;
+        }
+        for (int i = 0; i < levels.length; i++) {
+            long distance = slot / levelTicks[i] - currentSlot / levelTicks[i];
+            if (distance < wheelSize) {
+                int bucket = (int) ((slot / levelTicks[i]) % wheelSize);
+                levels[i].get(bucket).add(new Entry<>(deadlineMillis, task));
+                size++;
+                return true;
+            }
+        }
+        throw new IllegalArgumentException("Deadline " + deadlineMillis + " is beyond the wheel span");
+    }
+
+    /** Moves the wheel forward to {@code nowMillis}, handing every timer that came due to {@code expired}. */
+    public void advanceTo(long nowMillis, Consumer<T> expired) {
+        long targetSlot = nowMillis / tickMillis;
+        while (currentSlot < targetSlot) {
+            currentSlot++;
+            // cascade coarse buckets whose slot starts now, highest level first
+            for (int i = levels.length - 1; i > 0; i--) {
+                if (currentSlot % levelTicks[i] == 0) {
+                    List<Entry<T>> bucket = levels[i].get((int) ((currentSlot / levelTicks[i]) % wheelSize));
+                    if (bucket.isEmpty()) {
+                        continue;
+                    }
+                    List<Entry<T>> moving = new ArrayList<>(bucket);
+                    bucket.clear();
+                    size -= moving.size();
+                    for (Entry<T> entry : moving) {
+                        if (!add(entry.deadlineMillis, entry.task)) {
+                            expired.accept(entry.task);
+                        }
+                    }
+                }
+            }
+            List<Entry<T>> due = levels[0].get((int) (currentSlot % wheelSize));
+            if (!due.isEmpty()) {
+                List<Entry<T>> firing = new ArrayList<>(due);
+                due.clear();
+                size -= firing.size();
+                for (Entry<T> entry : firing) {
+                    expired.accept(entry.task);
+                }
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final long deadlineMillis;
+        private final T task;
+
+        private Entry(long deadlineMillis, T task) {
+            this.deadlineMillis = deadlineMillis;
+            this.task = task;
+        }
+    }
+}
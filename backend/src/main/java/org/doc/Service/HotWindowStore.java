@@ -0,0 +1,278 @@
+package org.doc.Service;
+
+import org.doc.Entity.Appointment;
+import org.doc.Repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-memory {@link AppointmentColumns} copy of the hot window, the last {@code hotwindow.days-back}
+ * days and the next {@code hotwindow.days-ahead}, which nearly every list query targets. Bookings and
+ * status changes made through {@link AppointmentService} are applied as they happen. Writes from
+ * other instances are picked up from the doctors' booking changes ({@link BookingVersionService})
+ * every {@code hotwindow.refresh-interval-seconds}, so a search served from memory is at most that
+ * stale; a periodic reload from the database rolls the window forward. Queries that reach outside
+ * the window return null and go to the database.
+ */
+@Service
+public class HotWindowStore {
+
+    private static final Logger log = LoggerFactory.getLogger(HotWindowStore.class);
+
+    @Value("${hotwindow.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hotwindow.days-back:7}")
+    private int daysBack;
+
+    @Value("${hotwindow.days-ahead:31}")
+    private int daysAhead;
+
+    @Value("${hotwindow.reload-interval-minutes:10}")
+    private long reloadIntervalMinutes;
+
+    @Value("${hotwindow.refresh-interval-seconds:5}")
+    private long refreshIntervalSeconds;
+
+    // changes are re-read this far back, so one committed late or stamped by a slightly different clock isn't missed
+    @Value("${hotwindow.refresh-overlap-seconds:60}")
+    private long refreshOverlapSeconds;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    // serializes writers to the current window (AppointmentColumns needs a single writer)
+    private final Object writeLock = new Object();
+    private volatile AppointmentColumns window;
+    // changes made while a reload reads the database, replayed onto the new window; guarded by writeLock
+    private List<Consumer<AppointmentColumns>> duringReload;
+    private ScheduledExecutorService loader;
+    private volatile Map<String, Object> lastReload = Map.of();
+    // refresh state, only touched by the loader thread
+    private Instant changesSince;
+    private final Map<String, Long> appliedVersions = new HashMap<>();
+    private volatile Map<String, Object> lastRefresh = Map.of();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("🔥 Hot window store disabled");
+            return;
+        }
+        loader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hot-window-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        loader.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (Exception e) {
+                log.error("❌ Hot window reload failed: {}", e.getMessage(), e);
+            }
+        }, 0, reloadIntervalMinutes, TimeUnit.MINUTES);
+        loader.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("⚠️ Hot window refresh failed: {}", e.getMessage());
+            }
+        }, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+
+    /** Filtered rows from memory, or null if the window isn't loaded or doesn't cover {@code [from, to]}. */
+    public List<Map<String, Object>> search(String doctorId, String contact, String status, LocalDate from, LocalDate to) {
+        AppointmentColumns current = window;
+        if (current == null || from == null || to == null || !current.covers(from, to)) {
+            return null;
+        }
+        return current.select(doctorId, contact, status, from, to);
+    }
+
+    public void onBooked(Appointment appointment) {
+        long createdAt = System.currentTimeMillis();
+        apply(columns -> columns.appendIfAbsent(appointment.getId(), appointment.getDoctorId(), appointment.getDate(),
+            appointment.getTime(), appointment.getReason(), appointment.getContact(), appointment.getStatus(), createdAt));
+    }
+
+    public void onStatusChanged(String doctorId, long id, String status) {
+        apply(columns -> columns.setStatus(doctorId, id, status));
+    }
+
+    /**
+     * Applies the booking changes recorded since the last refresh (by any instance) to the window:
+     * each changed appointment is re-read and added or given its current status. Runs on the loader
+     * thread; returns the number of appointments applied.
+     */
+    public synchronized int refresh() {
+        if (window == null) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Instant since = changesSince.minusSeconds(refreshOverlapSeconds);
+        Map<String, List<Long>> changedByDoctor = new LinkedHashMap<>();
+        Map<String, Long> newestVersions = new HashMap<>();
+        Instant latest = changesSince;
+        for (Map<String, Object> change : bookingVersionService.doctorChangesAt(since)) {
+            String doctorId = (String) change.get("doctor_id");
+            long version = ((Number) change.get("version")).longValue();
+            // a doctor's versions commit in order, so anything at or below the applied one was seen already
+            if (version > appliedVersions.getOrDefault(doctorId, 0L)) {
+                newestVersions.merge(doctorId, version, Math::max);
+                changedByDoctor.computeIfAbsent(doctorId, k -> new ArrayList<>())
+                    .add(((Number) change.get("appointment_id")).longValue());
+            }
+            if (change.get("changed_at") instanceof Timestamp changedAt && changedAt.toInstant().isAfter(latest)) {
+                latest = changedAt.toInstant();
+            }
+        }
+        int applied = 0;
+        for (Map.Entry<String, List<Long>> changed : changedByDoctor.entrySet()) {
+            for (Map<String, Object> row : appointmentRepository.findByIds(changed.getKey(), changed.getValue())) {
+                apply(columns -> upsert(columns, row));
+                applied++;
+            }
+        }
+        appliedVersions.putAll(newestVersions);
+        changesSince = latest;
+        if (applied > 0) {
+            log.info("🔥 Hot window refreshed {} changed appointments of {} doctors", applied, changedByDoctor.size());
+        }
+        lastRefresh = Map.of("applied", applied, "millis", (System.nanoTime() - start) / 1_000_000,
+            "at", Instant.now().toString());
+        return applied;
+    }
+
+    /** Rebuilds the window from the database, rolled forward to today. */
+    public synchronized Map<String, Object> reload() {
+        long start = System.nanoTime();
+        // changes from here on may be missing from the rows read below, so the next refresh starts here
+        Instant readStart = Instant.now();
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(daysBack);
+        LocalDate to = today.plusDays(daysAhead);
+        synchronized (writeLock) {
+            duringReload = new ArrayList<>();
+        }
+        try {
+            List<Map<String, Object>> rows = appointmentRepository.findByDateRange(from, to);
+            AppointmentColumns fresh = new AppointmentColumns(from, to, rows.size() + rows.size() / 4);
+            for (Map<String, Object> row : rows) {
+                fresh.append(((Number) row.get("id")).longValue(), (String) row.get("doctor_id"),
+                    toLocalDate(row.get("date")), toLocalTime(row.get("time")), (String) row.get("reason"),
+                    (String) row.get("contact"), (String) row.get("status"), toMillis(row.get("created_at")));
+            }
+            if (changesSince == null) {
+                changesSince = readStart;
+            }
+            int replayed;
+            synchronized (writeLock) {
+                replayed = duringReload.size();
+                duringReload.forEach(change -> change.accept(fresh));
+                window = fresh;
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>(fresh.stats());
+            result.put("from", from.toString());
+            result.put("to", to.toString());
+            result.put("replayed", replayed);
+            result.put("millis", (System.nanoTime() - start) / 1_000_000);
+            result.put("at", Instant.now().toString());
+            lastReload = result;
+            log.info("🔥 Hot window {}..{} loaded: {} rows in {} ms", from, to, fresh.size(), result.get("millis"));
+            return result;
+        } finally {
+            synchronized (writeLock) {
+                duringReload = null;
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        AppointmentColumns current = window;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("loaded", current != null);
+        if (current != null) {
+            stats.put("from", current.getFrom().toString());
+            stats.put("to", current.getTo().toString());
+            stats.putAll(current.stats());
+        }
+        stats.put("lastReload", lastReload);
+        stats.put("lastRefresh", lastRefresh);
+        return stats;
+    }
+
+    private void apply(Consumer<AppointmentColumns> change) {
+        synchronized (writeLock) {
+            AppointmentColumns current = window;
+            if (current != null) {
+                change.accept(current);
+            }
+            if (duringReload != null) {
+                duringReload.add(change);
+            }
+        }
+    }
+
+    private static void upsert(AppointmentColumns columns, Map<String, Object> row) {
+        long id = ((Number) row.get("id")).longValue();
+        String doctorId = (String) row.get("doctor_id");
+        String status = row.get("status") == null ? "SCHEDULED" : (String) row.get("status");
+        if (!columns.setStatus(doctorId, id, status)) {
+            columns.append(id, doctorId, toLocalDate(row.get("date")), toLocalTime(row.get("time")),
+                (String) row.get("reason"), (String) row.get("contact"), status, toMillis(row.get("created_at")));
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        return value instanceof Time time ? time.toLocalTime() : (LocalTime) value;
+    }
+
+    private static long toMillis(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,157 @@
+package org.doc.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-demand Flight Recorder recordings for chasing production latency spikes. One recording at a
+ * time, using the JDK "profile" settings plus the {@code org.doc.Span} events, capped in duration
+ * and size; it stops by itself when the duration runs out. Environment, system property and JVM
+ * argument events are left out so recordings carry no credentials. Finished files are kept in
+ * {@code jfr.dir}, the oldest deleted beyond {@code jfr.keep}.
+ */
+@Service
+public class JfrRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${jfr.dir:data/jfr}")
+    private String dir;
+
+    @Value("${jfr.max-duration-seconds:300}")
+    private long maxDurationSeconds;
+
+    @Value("${jfr.max-size-mb:200}")
+    private long maxSizeMb;
+
+    @Value("${jfr.keep:5}")
+    private int keep;
+
+    private Recording recording;
+    private Path file;
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /** Starts a recording of at most {@code seconds} (capped by {@code jfr.max-duration-seconds}). */
+    public synchronized Map<String, Object> start(long seconds) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running: " + file.getFileName());
+        }
+        closeFinished();
+        pruneOldRecordings();
+        Path directory = Path.of(dir);
+        Files.createDirectories(directory);
+        Path target = directory.resolve("recording-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+
+        Recording started = new Recording(Configuration.getConfiguration("profile"));
+        started.setName("docai-on-demand");
+        started.enable("org.doc.Span");
+        // these would put the process environment (DB, SMTP and Twilio credentials) and JVM flags in the file
+        started.disable("jdk.InitialEnvironmentVariable");
+        started.disable("jdk.InitialSystemProperty");
+        started.disable("jdk.JVMInformation");
+        started.setDuration(Duration.ofSeconds(Math.max(1, Math.min(seconds, maxDurationSeconds))));
+        started.setMaxSize(maxSizeMb * 1024 * 1024);
+        started.setToDisk(true);
+        started.setDestination(target);
+        started.start();
+        recording = started;
+        file = target;
+        log.info("🎥 JFR recording started: {} for up to {} s", target, started.getDuration().toSeconds());
+        return status();
+    }
+
+    /** Stops the recording (if it hasn't stopped by itself) and returns the written file. */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording to stop");
+        }
+        if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED) {
+            recording.stop();
+        }
+        Path written = file;
+        closeFinished();
+        pruneOldRecordings();
+        log.info("🎥 JFR recording stopped: {} ({} bytes)", written, Files.size(written));
+        return written;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording == null ? "IDLE" : recording.getState().name());
+        if (recording != null) {
+            status.put("file", file.getFileName().toString());
+            status.put("startedAt", String.valueOf(recording.getStartTime()));
+            status.put("maxSeconds", recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+            status.put("bytesSoFar", recording.getSize());
+        }
+        status.put("recordings", listRecordings().stream().map(p -> p.getFileName().toString()).toList());
+        return status;
+    }
+
+    /** A finished recording in {@code jfr.dir} by file name; never resolves outside that directory. */
+    public Path recordingFile(String name) {
+        Path directory = Path.of(dir).toAbsolutePath().normalize();
+        Path path = directory.resolve(name).normalize();
+        if (!path.getParent().equals(directory) || !name.endsWith(".jfr") || !Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No recording named " + name);
+        }
+        return path;
+    }
+
+    public List<Path> listRecordings() {
+        Path directory = Path.of(dir);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".jfr")).sorted().toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    // a recording that stopped on its own has already been written; release it
+    private void closeFinished() {
+        if (recording != null && recording.getState() != RecordingState.RUNNING) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void pruneOldRecordings() {
+        List<Path> recordings = listRecordings();
+        for (Path old : recordings.subList(0, Math.max(0, recordings.size() - keep))) {
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                log.warn("⚠️ Could not delete old recording {}: {}", old, e.getMessage());
+            }
+        }
+    }
+}
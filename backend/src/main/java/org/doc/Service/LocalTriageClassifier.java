@@ -0,0 +1,177 @@
+package org.doc.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process HIGH/LOW triage: multinomial naive Bayes over the symptom vocabulary, plus the same
+ * high-risk keyword override the remote ML service applies. The model is a versioned JSON file
+ * produced by {@code ML model/export_local_model.py} from the same training data as the remote model.
+ * A prediction is a few hash lookups, well under a millisecond.
+ */
+@Service
+public class LocalTriageClassifier {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalTriageClassifier.class);
+
+    @Value("${triage.local.model-file:classpath:models/triage-nb-v1.json}")
+    private String modelLocation;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private volatile Model model;
+
+    @PostConstruct
+    public void init() {
+        try {
+            load();
+        } catch (Exception e) {
+            log.error("❌ Local triage model could not be loaded, fallback disabled: {}", e.getMessage(), e);
+        }
+    }
+
+    public synchronized void load() throws Exception {
+        try (InputStream in = resourceLoader.getResource(modelLocation).getInputStream()) {
+            model = Model.parse(new ObjectMapper().readTree(in));
+        }
+        log.info("🧠 Local triage model {} loaded ({} tokens)", model.version, model.logLikelihoods.size());
+    }
+
+    public boolean isAvailable() {
+        return model != null;
+    }
+
+    public String getModelVersion() {
+        Model current = model;
+        return current == null ? null : current.version;
+    }
+
+    /** Result shaped like the remote /predict response so callers can use either one. */
+    public Map<String, Object> predict(List<String> symptoms) {
+        Model current = model;
+        if (current == null) {
+            throw new IllegalStateException("Local triage model not loaded");
+        }
+        String cleaned = clean(String.join(",", symptoms));
+
+        String label = null;
+        double confidence = 1.0;
+        for (String keyword : current.highRiskKeywords) {
+            if (cleaned.contains(keyword)) {
+                label = "HIGH";
+                break;
+            }
+        }
+        if (label == null) {
+            double[] scores = current.logPriors.clone();
+            for (String token : tokenize(cleaned)) {
+                double[] likelihoods = current.logLikelihoods.get(token);
+                if (likelihoods == null) {
+                    continue; // unseen tokens carry no evidence either way
+                }
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] += likelihoods[i];
+                }
+            }
+            int best = 0;
+            for (int i = 1; i < scores.length; i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            // softmax over log scores for the winning label's probability
+            double sum = 0;
+            for (double score : scores) {
+                sum += Math.exp(score - scores[best]);
+            }
+            label = current.labels[best];
+            confidence = 1.0 / sum;
+        }
+
+        boolean high = "HIGH".equals(label);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("input_symptoms", symptoms);
+        result.put("predicted_risk", label);
+        result.put("treatment", null);
+        result.put("recommend_doctor", high ? "Consult Doctor" : null);
+        result.put("confidence", Math.round(confidence * 10000) / 100.0 + "%");
+        result.put("model_version", current.version);
+        return result;
+    }
+
+    // same cleaning as clean_text in the ML service
+    static String clean(String text) {
+        String cleaned = text.toLowerCase().replaceAll("[^a-z0-9, ]", "");
+        return cleaned.replaceAll("\\s+", " ").trim();
+    }
+
+    // unigrams plus bigrams inside each comma separated phrase, as in export_local_model.py
+    static List<String> tokenize(String cleaned) {
+        List<String> tokens = new ArrayList<>();
+        for (String phrase : cleaned.split(",")) {
+            String[] words = phrase.trim().split(" ");
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].isEmpty()) {
+                    continue;
+                }
+                tokens.add(words[i]);
+                if (i + 1 < words.length && !words[i + 1].isEmpty()) {
+                    tokens.add(words[i] + " " + words[i + 1]);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Model {
+        private String version;
+        private String[] labels;
+        private double[] logPriors;
+        private List<String> highRiskKeywords;
+        private Map<String, double[]> logLikelihoods;
+
+        private static Model parse(JsonNode json) {
+            Model model = new Model();
+            model.version = json.get("version").asText();
+            JsonNode labels = json.get("labels");
+            model.labels = new String[labels.size()];
+            for (int i = 0; i < labels.size(); i++) {
+                model.labels[i] = labels.get(i).asText();
+            }
+            model.logPriors = doubles(json.get("logPriors"));
+            model.highRiskKeywords = new ArrayList<>();
+            json.get("highRiskKeywords").forEach(k -> model.highRiskKeywords.add(k.asText()));
+            model.logLikelihoods = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = json.get("logLikelihoods").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                model.logLikelihoods.put(field.getKey(), doubles(field.getValue()));
+            }
+            return model;
+        }
+
+        private static double[] doubles(JsonNode array) {
+            double[] values = new double[array.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = array.get(i).asDouble();
+            }
+            return values;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.doc.Service;
 
 import org.doc.dto.AppointmentDTO;
+import org.doc.tracing.Span;
+import org.doc.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
@@ -11,7 +14,23 @@ import java.io.File;
 @Component
 public class PDFGenerator {
 
+    @Autowired
+    private Tracer tracer;
+
     public File createPDF(AppointmentDTO dto) throws Exception {
+        try (Span span = tracer.startSpan("pdf.generate")) {
+            try {
+                File pdf = writePDF(dto);
+                span.setAttribute("bytes", pdf.length());
+                return pdf;
+            } catch (Exception e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
+
+    private File writePDF(AppointmentDTO dto) throws Exception {
         String filename = "Appointment_" + System.currentTimeMillis() + ".pdf";
         PdfWriter writer = new PdfWriter(filename);
         PdfDocument pdf = new PdfDocument(writer);
@@ -18,4 +18,8 @@ public class PatientService {
     public String fetchSymptoms(String name) {
         return repository.getSymptomsByName(name);
     }
-}
\ No newline at end of file
+
+    public String fetchPincode(String name) {
+        return repository.getPincodeByName(name);
+    }
+}
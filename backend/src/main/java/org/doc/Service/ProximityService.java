@@ -0,0 +1,252 @@
+package org.doc.Service;
+
+import org.doc.Repository.DoctorLocationRepository;
+import org.doc.dto.DoctorLocationDTO;
+import org.doc.dto.NearbyDoctorDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the doctors closest to a pincode. A pincode -> coordinates dataset and the doctor roster
+ * are loaded into a {@link GeoKdTree}; a query is one hash lookup plus a tree search. The pincodes
+ * come from a file; the roster from {@code proximity.doctors-file} if set, otherwise from the
+ * {@code doctor_locations} table the API pushes into, so every instance serves the same roster and
+ * it survives restarts. Both sources are checked for changes periodically.
+ * Every change builds a complete new index and swaps it in with one volatile write, so queries never
+ * see a half-built index.
+ */
+@Service
+public class ProximityService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProximityService.class);
+
+    @Value("${proximity.pincodes-file:classpath:proximity/pincodes.csv}")
+    private String pincodesLocation;
+
+    // doctor_id,name,pincode; empty means the roster comes from the API (stored in doctor_locations)
+    @Value("${proximity.doctors-file:}")
+    private String doctorsLocation;
+
+    @Value("${proximity.refresh-check-seconds:60}")
+    private long refreshCheckSeconds;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private DoctorLocationRepository doctorLocationRepository;
+
+    private volatile Index index = Index.EMPTY;
+
+    private ScheduledExecutorService refresher;
+    private long pincodesModified;
+    private long doctorsModified;
+    private long rosterVersion = -1;
+
+    @PostConstruct
+    public void init() {
+        try {
+            reloadFromFiles();
+        } catch (Exception e) {
+            log.error("❌ Proximity index load failed: {}", e.getMessage(), e);
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "proximity-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::reloadIfChanged, refreshCheckSeconds, refreshCheckSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    public List<NearbyDoctorDTO> nearestDoctors(String pincode, int limit) {
+        if (pincode == null) {
+            return null;
+        }
+        Index current = index;
+        double[] location = current.pincodes.get(pincode.trim());
+        if (location == null) {
+            return null;
+        }
+        List<NearbyDoctorDTO> result = new ArrayList<>(limit);
+        for (GeoKdTree.Neighbor neighbor : current.tree.nearest(location[0], location[1], limit)) {
+            DoctorLocationDTO doctor = current.doctors.get(neighbor.getId());
+            result.add(new NearbyDoctorDTO(doctor.getDoctorId(), doctor.getName(), doctor.getPincode(),
+                Math.round(neighbor.getDistanceKm() * 10) / 10.0));
+        }
+        return result;
+    }
+
+    /** Replaces the stored roster (e.g. pushed by the Node backend) and rebuilds the index. */
+    public synchronized Map<String, Object> replaceRoster(List<DoctorLocationDTO> doctors) {
+        if (!doctorsLocation.isBlank()) {
+            throw new IllegalStateException("The roster comes from " + doctorsLocation + " (proximity.doctors-file)");
+        }
+        for (DoctorLocationDTO doctor : doctors) {
+            if (doctor.getDoctorId() == null || doctor.getDoctorId().isBlank()) {
+                throw new IllegalArgumentException("Every doctor needs a doctorId");
+            }
+        }
+        doctorLocationRepository.replaceAll(doctors);
+        rosterVersion = doctorLocationRepository.version();
+        index = Index.build(index.pincodes, doctors);
+        log.info("📍 Doctor roster replaced: {} doctors indexed, {} without known pincode",
+            index.tree.size(), doctors.size() - index.tree.size());
+        return stats();
+    }
+
+    public synchronized Map<String, Object> reloadFromFiles() throws IOException {
+        Resource pincodes = resourceLoader.getResource(pincodesLocation);
+        Map<String, double[]> pincodeMap = readPincodes(pincodes);
+        pincodesModified = lastModified(pincodes);
+
+        List<DoctorLocationDTO> doctors;
+        if (!doctorsLocation.isBlank()) {
+            Resource roster = resourceLoader.getResource(doctorsLocation);
+            doctors = readDoctors(roster);
+            doctorsModified = lastModified(roster);
+        } else {
+            rosterVersion = doctorLocationRepository.version();
+            doctors = doctorLocationRepository.findAll();
+        }
+        index = Index.build(pincodeMap, doctors);
+        log.info("📍 Proximity index loaded: {} pincodes, {} doctors indexed", pincodeMap.size(), index.tree.size());
+        return stats();
+    }
+
+    public Map<String, Object> stats() {
+        Index current = index;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pincodes", current.pincodes.size());
+        stats.put("doctors", current.roster.size());
+        stats.put("indexedDoctors", current.tree.size());
+        return stats;
+    }
+
+    private void reloadIfChanged() {
+        try {
+            boolean changed = lastModified(resourceLoader.getResource(pincodesLocation)) != pincodesModified;
+            if (!doctorsLocation.isBlank()) {
+                changed |= lastModified(resourceLoader.getResource(doctorsLocation)) != doctorsModified;
+            } else {
+                changed |= doctorLocationRepository.version() != rosterVersion;
+            }
+            if (changed) {
+                log.info("📍 Proximity data changed, reloading");
+                reloadFromFiles();
+            }
+        } catch (Exception e) {
+            log.error("❌ Proximity refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, double[]> readPincodes(Resource resource) throws IOException {
+        Map<String, double[]> pincodes = new HashMap<>();
+        for (String[] row : readCsv(resource)) {
+            if (row.length >= 3) {
+                pincodes.put(row[0].trim(), new double[] {Double.parseDouble(row[1].trim()), Double.parseDouble(row[2].trim())});
+            }
+        }
+        return pincodes;
+    }
+
+    private static List<DoctorLocationDTO> readDoctors(Resource resource) throws IOException {
+        List<DoctorLocationDTO> doctors = new ArrayList<>();
+        for (String[] row : readCsv(resource)) {
+            if (row.length >= 3) {
+                DoctorLocationDTO doctor = new DoctorLocationDTO();
+                doctor.setDoctorId(row[0].trim());
+                doctor.setName(row[1].trim());
+                doctor.setPincode(row[2].trim());
+                doctors.add(doctor);
+            }
+        }
+        return doctors;
+    }
+
+    // simple comma separated rows with a header line; the data sets have no quoted fields
+    private static List<String[]> readCsv(Resource resource) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows.add(line.split(","));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static final class Index {
+        private static final Index EMPTY = build(Map.of(), List.of());
+
+        private final Map<String, double[]> pincodes;
+        private final List<DoctorLocationDTO> roster;
+        // doctors with a known pincode, positioned by their id in the tree
+        private final List<DoctorLocationDTO> doctors;
+        private final GeoKdTree tree;
+
+        private Index(Map<String, double[]> pincodes, List<DoctorLocationDTO> roster,
+                      List<DoctorLocationDTO> doctors, GeoKdTree tree) {
+            this.pincodes = pincodes;
+            this.roster = roster;
+            this.doctors = doctors;
+            this.tree = tree;
+        }
+
+        private static Index build(Map<String, double[]> pincodes, List<DoctorLocationDTO> roster) {
+            List<DoctorLocationDTO> located = new ArrayList<>();
+            List<double[]> points = new ArrayList<>();
+            for (DoctorLocationDTO doctor : roster) {
+                double[] point = doctor.getPincode() == null ? null : pincodes.get(doctor.getPincode().trim());
+                if (point != null) {
+                    located.add(doctor);
+                    points.add(point);
+                }
+            }
+            double[] lats = new double[points.size()];
+            double[] lons = new double[points.size()];
+            int[] ids = new int[points.size()];
+            for (int i = 0; i < ids.length; i++) {
+                lats[i] = points.get(i)[0];
+                lons[i] = points.get(i)[1];
+                ids[i] = i;
+            }
+            return new Index(pincodes, List.copyOf(roster), located, new GeoKdTree(lats, lons, ids));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.doc.Service;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes a JFR recording: latency distribution per span name (the booking stages and outbound
+ * calls), the allocation sites and classes with the most sampled bytes, and where threads waited on
+ * monitors or parked on locks. Stack-based groupings use the first frame in our own code
+ * ({@code org.doc.*}) so library internals don't hide which call site is responsible.
+ */
+@Component
+public class RecordingAnalyzer {
+
+    private static final int TOP = 10;
+
+    public Map<String, Object> analyze(Path file) throws IOException {
+        Map<String, List<Long>> spanNanos = new HashMap<>();
+        Map<String, Long> spanErrors = new HashMap<>();
+        Map<String, Long> allocationBySite = new HashMap<>();
+        Map<String, Long> allocationByClass = new HashMap<>();
+        Map<String, long[]> monitorWaits = new HashMap<>();
+        Map<String, long[]> parks = new HashMap<>();
+        long events = 0;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                events++;
+                switch (event.getEventType().getName()) {
+                    case "org.doc.Span" -> {
+                        String name = event.getString("name");
+                        spanNanos.computeIfAbsent(name, k -> new ArrayList<>()).add(event.getDuration().toNanos());
+                        if (event.getString("error") != null) {
+                            spanErrors.merge(name, 1L, Long::sum);
+                        }
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        RecordedClass type = event.getClass("objectClass");
+                        allocationByClass.merge(type == null ? "?" : type.getName(), weight, Long::sum);
+                        allocationBySite.merge(site(event.getStackTrace()), weight, Long::sum);
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        RecordedClass monitor = event.getClass("monitorClass");
+                        String key = (monitor == null ? "?" : monitor.getName()) + " at " + site(event.getStackTrace());
+                        add(monitorWaits, key, event.getDuration().toNanos());
+                    }
+                    case "jdk.ThreadPark" -> {
+                        RecordedClass parked = event.getClass("parkedClass");
+                        // only lock acquisition; idle threads awaiting a condition or a future park all the time
+                        if (parked != null && (parked.getName().endsWith("Sync") || parked.getName().contains("Lock"))) {
+                            add(parks, parked.getName() + " at " + site(event.getStackTrace()), event.getDuration().toNanos());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        spanNanos.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(e -> stages.put(e.getKey(), distribution(e.getValue(), spanErrors.getOrDefault(e.getKey(), 0L))));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("file", file.getFileName().toString());
+        summary.put("events", events);
+        summary.put("stages", stages);
+        summary.put("allocationSites", topBytes(allocationBySite));
+        summary.put("allocatedClasses", topBytes(allocationByClass));
+        summary.put("monitorContention", topWaits(monitorWaits));
+        summary.put("lockParking", topWaits(parks));
+        return summary;
+    }
+
+    private static Map<String, Object> distribution(List<Long> nanos, long errors) {
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", sorted.length);
+        stats.put("errors", errors);
+        stats.put("p50Ms", millis(percentile(sorted, 50)));
+        stats.put("p90Ms", millis(percentile(sorted, 90)));
+        stats.put("p99Ms", millis(percentile(sorted, 99)));
+        stats.put("maxMs", millis(sorted[sorted.length - 1]));
+        stats.put("totalMs", millis(Arrays.stream(sorted).sum()));
+        return stats;
+    }
+
+    private static List<Map<String, Object>> topBytes(Map<String, Long> bytes) {
+        return bytes.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(TOP)
+            .map(e -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("where", e.getKey());
+                row.put("sampledMb", Math.round(e.getValue() / 1024.0 / 1024.0 * 10) / 10.0);
+                return row;
+            })
+            .toList();
+    }
+
+    private static List<Map<String, Object>> topWaits(Map<String, long[]> waits) {
+        return waits.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+            .limit(TOP)
+            .map(e -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("where", e.getKey());
+                row.put("count", e.getValue()[0]);
+                row.put("totalMs", millis(e.getValue()[1]));
+                row.put("maxMs", millis(e.getValue()[2]));
+                return row;
+            })
+            .toList();
+    }
+
+    // count, total nanos, max nanos
+    private static void add(Map<String, long[]> waits, String key, long nanos) {
+        long[] stats = waits.computeIfAbsent(key, k -> new long[3]);
+        stats[0]++;
+        stats[1] += nanos;
+        stats[2] = Math.max(stats[2], nanos);
+    }
+
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "?";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith("org.doc.")) {
+                return frame(frame);
+            }
+        }
+        return frame(stackTrace.getFrames().get(0));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
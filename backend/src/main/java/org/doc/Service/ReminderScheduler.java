@@ -0,0 +1,349 @@
+package org.doc.Service;
+
+import org.doc.Entity.Appointment;
+import org.doc.Repository.AppointmentRepository;
+import org.doc.Repository.ReminderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends SMS/email reminders ahead of each appointment (24h and 1h by default).
+ *
+ * <p>Pending reminders live in a {@link HierarchicalTimingWheel}. Instead of scanning the table every
+ * minute, a loader only pulls appointments whose start falls in the next slice of the look-ahead
+ * window, advancing a cursor each time; bookings made through {@link AppointmentService} inside the
+ * already-loaded window are registered directly. Several instances may run the same wheel, so each
+ * reminder is claimed in {@code appointment_reminders} before it is sent. A failed send is put back
+ * in the wheel after {@code reminders.retry-delay}, up to {@code reminders.max-attempts} sends, and
+ * any instance whose wheel reaches a reminder left FAILED takes it over. A claim is a lease of
+ * {@code reminders.claim-lease}: instances that lost the claim look again once it has run out and
+ * take over a reminder still CLAIMED, so a crash between claim and send doesn't drop it.
+ */
+@Service
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    @Value("${reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reminders.offsets:24h,1h}")
+    private String offsetsProperty;
+
+    @Value("${reminders.load-interval:5m}")
+    private String loadIntervalProperty;
+
+    @Value("${reminders.max-lateness:30m}")
+    private String maxLatenessProperty;
+
+    @Value("${reminders.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${reminders.retry-delay:5m}")
+    private String retryDelayProperty;
+
+    @Value("${reminders.claim-lease:10m}")
+    private String claimLeaseProperty;
+
+    @Value("${reminders.max-concurrent-sends:4}")
+    private int maxConcurrentSends;
+
+    @Value("${reminders.zone:Asia/Kolkata}")
+    private String zoneProperty;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SMSService smsService;
+
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private List<Duration> offsets;
+    private Duration loadInterval;
+    private Duration maxLateness;
+    private Duration retryDelay;
+    private Duration claimLease;
+    private ZoneId zone;
+
+    private HierarchicalTimingWheel<Reminder> wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService senders;
+
+    // appointments starting at or before this instant have already been loaded into the wheel
+    private long loadedUntilMillis;
+    // end of the window being loaded; bookings up to here are registered directly so none slip
+    // between the loader's query and its merge
+    private long loadingUntilMillis;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Reminder scheduler disabled");
+            return;
+        }
+        offsets = new ArrayList<>();
+        for (String offset : offsetsProperty.split(",")) {
+            offsets.add(DurationStyle.detectAndParse(offset.trim()));
+        }
+        offsets.sort(Comparator.reverseOrder());
+        loadInterval = DurationStyle.detectAndParse(loadIntervalProperty);
+        maxLateness = DurationStyle.detectAndParse(maxLatenessProperty);
+        retryDelay = DurationStyle.detectAndParse(retryDelayProperty);
+        claimLease = DurationStyle.detectAndParse(claimLeaseProperty);
+        zone = ZoneId.of(zoneProperty);
+
+        long now = System.currentTimeMillis();
+        // 1s ticks, 64 buckets, 4 levels: ~194 days of span, far beyond the look-ahead window
+        wheel = new HierarchicalTimingWheel<>(1000, 64, 4, now);
+        loadedUntilMillis = now;
+        loadingUntilMillis = now;
+
+        senders = Executors.newFixedThreadPool(maxConcurrentSends, r -> {
+            Thread t = new Thread(r, "reminder-sender");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+        ticker.scheduleWithFixedDelay(this::loadNextWindow, 0, loadInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("⏰ Reminder scheduler started: offsets {}, load interval {}, instance {}",
+            offsets, loadInterval, instanceId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            senders.shutdown();
+        }
+    }
+
+    /** Called from the booking path once the appointment has been written. */
+    public void register(Appointment appointment) {
+        if (wheel == null) {
+            return;
+        }
+        long startMillis = startMillisOf(appointment.getDate(), appointment.getTime());
+        synchronized (this) {
+            // Outside the loaded window the loader will pick it up when its slice comes round
+            if (startMillis > loadingUntilMillis) {
+                return;
+            }
+            schedule(appointment.getDoctorId(), appointment.getContact(), appointment.getDate(), appointment.getTime(), startMillis);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel == null ? 0 : wheel.size();
+    }
+
+    private void loadNextWindow() {
+        try {
+            long now = System.currentTimeMillis();
+            // load far enough ahead that the earliest reminder of every appointment is in the
+            // wheel at least one load interval before it is due
+            long windowEnd = now + offsets.get(0).toMillis() + 2 * loadInterval.toMillis();
+            long windowStart;
+            synchronized (this) {
+                windowStart = Math.max(loadedUntilMillis, now);
+                if (windowEnd <= windowStart) {
+                    return;
+                }
+                loadingUntilMillis = Math.max(loadingUntilMillis, windowEnd);
+            }
+
+            LocalDate fromDate = LocalDateTime.ofInstant(Instant.ofEpochMilli(windowStart), zone).toLocalDate();
+            LocalDate toDate = LocalDateTime.ofInstant(Instant.ofEpochMilli(windowEnd), zone).toLocalDate();
+            // scatter query across the shards without holding the lock register() and tick() need
+            List<Map<String, Object>> rows = appointmentRepository.findByDateRange(fromDate, toDate);
+
+            synchronized (this) {
+                int loaded = 0;
+                for (Map<String, Object> row : rows) {
+                    Object status = row.get("status");
+                    if (status != null && !"SCHEDULED".equals(status)) {
+                        continue;
+                    }
+                    LocalDate date = toLocalDate(row.get("date"));
+                    LocalTime time = toLocalTime(row.get("time"));
+                    long startMillis = startMillisOf(date, time);
+                    if (startMillis <= windowStart || startMillis > windowEnd) {
+                        continue;
+                    }
+                    loaded += schedule((String) row.get("doctor_id"), (String) row.get("contact"), date, time, startMillis);
+                }
+                loadedUntilMillis = windowEnd;
+                log.info("⏰ Loaded {} reminders for appointments up to {} ({} pending)",
+                    loaded, Instant.ofEpochMilli(windowEnd), wheel.size());
+            }
+        } catch (Exception e) {
+            log.error("❌ Reminder window load failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int schedule(String doctorId, String contact, LocalDate date, LocalTime time, long startMillis) {
+        int added = 0;
+        long now = System.currentTimeMillis();
+        for (Duration offset : offsets) {
+            long dueMillis = startMillis - offset.toMillis();
+            if (now >= startMillis || now - dueMillis > maxLateness.toMillis()) {
+                continue;
+            }
+            Reminder reminder = new Reminder(doctorId, contact, date, time, offset, 1);
+            if (!pendingKeys.add(reminder.key())) {
+                continue;
+            }
+            if (!wheel.add(dueMillis, reminder)) {
+                dispatch(reminder);
+            }
+            added++;
+        }
+        return added;
+    }
+
+    private void tick() {
+        try {
+            synchronized (this) {
+                wheel.advanceTo(System.currentTimeMillis(), this::dispatch);
+            }
+        } catch (Exception e) {
+            log.error("❌ Reminder wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(Reminder reminder) {
+        senders.execute(() -> send(reminder));
+    }
+
+    private void send(Reminder reminder) {
+        String key = reminder.key();
+        pendingKeys.remove(key);
+        try {
+            // the wheel keeps reminders of appointments cancelled since they were loaded, here or elsewhere
+            if (!appointmentRepository.isScheduled(reminder.doctorId, reminder.contact, reminder.date, reminder.time)) {
+                log.info("Reminder {} skipped, the appointment is no longer scheduled", key);
+                return;
+            }
+            Timestamp leaseExpired = Timestamp.from(Instant.now().minus(claimLease));
+            if (!reminderRepository.claim(key, instanceId) && !reminderRepository.claimAbandoned(key, instanceId, leaseExpired)) {
+                if ("CLAIMED".equals(reminderRepository.findStatus(key))) {
+                    // another instance is sending it; look again after its lease in case it died first
+                    log.info("Reminder {} claimed by another instance, checking again in {}", key, claimLease);
+                    requeue(reminder, reminder.attempt, claimLease);
+                } else {
+                    log.info("Reminder {} already handled by another instance", key);
+                }
+                return;
+            }
+            String text = "⏰ Reminder: your appointment with Doctor " + reminder.doctorId
+                + " is on " + reminder.date + " at " + reminder.time + ".";
+            if (reminder.contact.contains("@")) {
+                emailService.sendReminder(reminder.contact, "Appointment Reminder", text);
+            } else {
+                smsService.sendReminder(reminder.contact, text);
+            }
+            reminderRepository.updateStatus(key, "SENT");
+        } catch (Exception e) {
+            log.error("❌ Reminder {} failed (attempt {}/{}): {}", key, reminder.attempt, maxAttempts, e.getMessage(), e);
+            try {
+                reminderRepository.updateStatus(key, "FAILED");
+            } catch (Exception ignored) {
+                // best effort, the claim row already prevents duplicates
+            }
+            retry(reminder);
+        }
+    }
+
+    private void retry(Reminder failed) {
+        if (failed.attempt < maxAttempts) {
+            requeue(failed, failed.attempt + 1, retryDelay);
+        }
+    }
+
+    private void requeue(Reminder previous, int attempt, Duration delay) {
+        long retryAt = System.currentTimeMillis() + delay.toMillis();
+        if (retryAt >= startMillisOf(previous.date, previous.time)) {
+            return;
+        }
+        Reminder reminder = new Reminder(previous.doctorId, previous.contact, previous.date, previous.time, previous.offset, attempt);
+        synchronized (this) {
+            if (pendingKeys.add(reminder.key()) && !wheel.add(retryAt, reminder)) {
+                dispatch(reminder);
+            }
+        }
+    }
+
+    private long startMillisOf(LocalDate date, LocalTime time) {
+        return LocalDateTime.of(date, time).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date d ? d.toLocalDate() : LocalDate.parse(value.toString());
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        return value instanceof Time t ? t.toLocalTime() : LocalTime.parse(value.toString());
+    }
+
+    private static final class Reminder {
+        private final String doctorId;
+        private final String contact;
+        private final LocalDate date;
+        private final LocalTime time;
+        private final Duration offset;
+        private final int attempt;
+
+        private Reminder(String doctorId, String contact, LocalDate date, LocalTime time, Duration offset, int attempt) {
+            this.doctorId = doctorId;
+            this.contact = contact;
+            this.date = date;
+            this.time = time;
+            this.offset = offset;
+            this.attempt = attempt;
+        }
+
+        // Keyed by content rather than row id so duplicate rows of one booking share a reminder
+        private String key() {
+            return doctorId + "|" + contact + "|" + date + "T" + time + "|" + offset;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.doc.Service;
+
+import org.doc.Repository.ShardRingRepository;
+import org.doc.Repository.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Moves appointments onto a new shard ring while the service keeps running. Doctors are migrated
+ * one at a time: under that doctor's write lock their rows are copied to the new owner and the
+ * router flips ownership, so bookings for other doctors are never blocked. Rows left behind on old
+ * owners are deleted once everything has moved, every live instance routes by the new ring and
+ * in-flight reads have drained.
+ *
+ * <p>The ring and the migrated doctors are persisted ({@link ShardRingRepository}); every instance
+ * follows them every {@code sharding.ring-refresh-seconds} and on startup, and a resharding cut
+ * short by a restart resumes when it is started again with the same ring. The per-doctor lock only
+ * fences writes made through this instance, so resharding is refused unless
+ * {@code sharding.single-instance} declares that no other instance writes appointments meanwhile.
+ */
+@Service
+public class ReshardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReshardingService.class);
+
+    // ids are global (AppointmentIdAllocator), so rows keep theirs on the new shard
+    private static final String COPY_SQL =
+        "INSERT INTO appointments(id, doctor_id, date, time, reason, contact, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRingRepository ringRepository;
+
+    @Autowired
+    private BookingVersionService bookingVersionService;
+
+    @Value("${sharding.cleanup-grace-ms:30000}")
+    private long cleanupGraceMillis;
+
+    @Value("${sharding.single-instance:false}")
+    private boolean singleInstance;
+
+    @Value("${sharding.ring-refresh-seconds:5}")
+    private long ringRefreshSeconds;
+
+    // instances that haven't reported for this long are considered gone
+    @Value("${sharding.instance-expiry-seconds:60}")
+    private long instanceExpirySeconds;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+    private final AtomicInteger doctorsMoved = new AtomicInteger();
+    private volatile String lastError;
+    private volatile Thread worker;
+    private ScheduledExecutorService follower;
+
+    @PostConstruct
+    public void init() {
+        if (shardRouter.isSingleShard()) {
+            return;
+        }
+        follower = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "shard-ring-follower");
+            t.setDaemon(true);
+            return t;
+        });
+        follower.scheduleWithFixedDelay(() -> {
+            try {
+                followRing();
+            } catch (Exception e) {
+                log.warn("⚠️ Shard ring refresh failed: {}", e.getMessage());
+            }
+        }, 0, ringRefreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (follower != null) {
+            follower.shutdownNow();
+        }
+    }
+
+    /** Adopts the persisted ring unless this instance is the one resharding, and reports the epoch it routes by. */
+    public void followRing() {
+        ShardRingRepository.Ring ring = ringRepository.load();
+        if (ring == null) {
+            return;
+        }
+        if (!isRunning()) {
+            shardRouter.follow(ring);
+        }
+        ringRepository.heartbeat(instanceId, shardRouter.getEpoch());
+    }
+
+    public synchronized void start(List<String> targetNodes) {
+        if (isRunning()) {
+            throw new IllegalStateException("A resharding is already running");
+        }
+        if (!singleInstance) {
+            throw new IllegalStateException("Resharding needs every other instance stopped; set sharding.single-instance=true to declare that");
+        }
+        if (shardRouter.isResharding()) {
+            // left over from a restart: carry on with the doctors not migrated yet
+            if (!shardRouter.getTargetRingNodes().equals(targetNodes)) {
+                throw new IllegalStateException("A resharding to " + shardRouter.getTargetRingNodes() + " is unfinished; start it again with that ring");
+            }
+            log.info("🧩 Resuming resharding to {}", targetNodes);
+        } else {
+            long epoch = shardRouter.getEpoch();
+            if (!ringRepository.beginResharding(epoch, targetNodes)) {
+                throw new IllegalStateException("The shard ring changed in the meantime (epoch " + epoch + "), retry");
+            }
+            shardRouter.beginResharding(targetNodes, epoch + 1);
+        }
+        doctorsMoved.set(0);
+        lastError = null;
+        worker = new Thread(this::run, "resharding");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("shards", shardRouter.getShardNames());
+        status.put("ring", shardRouter.getRingNodes());
+        status.put("targetRing", shardRouter.getTargetRingNodes());
+        status.put("resharding", shardRouter.isResharding());
+        status.put("epoch", shardRouter.getEpoch());
+        status.put("singleInstance", singleInstance);
+        status.put("doctorsMoved", doctorsMoved.get());
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    /** Runs a whole resharding on the calling thread; the endpoint uses {@link #start}. */
+    public void run() {
+        try {
+            moveRemainingDoctors();
+            List<String> finalRing = shardRouter.getTargetRingNodes();
+            long epoch = shardRouter.getEpoch();
+            // Doctors booked for the first time during the bulk pass still sit on their old owner:
+            // pick them up in a short stop-the-world cut-over, then switch rings
+            shardRouter.withAllDoctorsLocked(() -> {
+                moveRemainingDoctors();
+                if (!ringRepository.completeResharding(epoch)) {
+                    throw new IllegalStateException("The persisted ring is no longer at epoch " + epoch);
+                }
+                shardRouter.completeResharding(epoch + 1);
+            });
+            ringRepository.heartbeat(instanceId, epoch + 1);
+            awaitInstancesOn(epoch + 1);
+            // give reads that snapshotted the old routing time to finish before deleting their rows
+            Thread.sleep(cleanupGraceMillis);
+            deleteOrphans(finalRing);
+            log.info("🧩 Resharding finished, {} doctors moved", doctorsMoved.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("❌ Resharding failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void moveRemainingDoctors() {
+        for (String shard : shardRouter.getRingNodes()) {
+            JdbcTemplate source = shardRouter.jdbcFor(shard);
+            List<String> doctors = source.queryForList("SELECT DISTINCT doctor_id FROM appointments", String.class);
+            for (String doctorId : doctors) {
+                if (!shardRouter.isMigrated(doctorId)
+                        && shard.equals(shardRouter.stableOwnerOf(doctorId))
+                        && !shard.equals(shardRouter.targetOwnerOf(doctorId))) {
+                    moveDoctor(doctorId, shard, shardRouter.targetOwnerOf(doctorId));
+                }
+            }
+        }
+    }
+
+    private void moveDoctor(String doctorId, String from, String to) {
+        Lock lock = shardRouter.migrationLock(doctorId);
+        lock.lock();
+        try {
+            JdbcTemplate source = shardRouter.jdbcFor(from);
+            JdbcTemplate target = shardRouter.jdbcFor(to);
+            // the target doesn't own this doctor yet, so anything there is a leftover of a failed attempt
+            target.update("DELETE FROM appointments WHERE doctor_id = ?", doctorId);
+
+            List<Object[]> rows = new ArrayList<>();
+            Set<String> contacts = new HashSet<>();
+            for (Map<String, Object> row : source.queryForList("SELECT * FROM appointments WHERE doctor_id = ?", doctorId)) {
+                rows.add(new Object[] {
+                    row.get("id"), row.get("doctor_id"), row.get("date"), row.get("time"), row.get("reason"),
+                    row.get("contact"), row.get("status"), row.get("created_at")
+                });
+                contacts.add((String) row.get("contact"));
+            }
+            target.batchUpdate(COPY_SQL, rows);
+            // persisted first: after a restart the doctor is read from the new owner, which has the rows
+            ringRepository.markMigrated(doctorId, shardRouter.getEpoch());
+            shardRouter.markMigrated(doctorId);
+            doctorsMoved.incrementAndGet();
+            log.info("🧩 Moved {} appointments of doctor {} from {} to {}", rows.size(), doctorId, from, to);
+            bumpVersions(doctorId, contacts);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // cached lists of the moved rows were read from the old owner; make clients refetch them
+    private void bumpVersions(String doctorId, Set<String> contacts) {
+        try {
+            bookingVersionService.onMoved(doctorId, contacts);
+        } catch (Exception e) {
+            log.warn("⚠️ Booking version bump after moving doctor {} failed: {}", doctorId, e.getMessage());
+        }
+    }
+
+    // rows on the old owners are still read by instances routing by an older epoch
+    private void awaitInstancesOn(long epoch) throws InterruptedException {
+        while (true) {
+            Timestamp liveSince = Timestamp.from(Instant.now().minusSeconds(instanceExpirySeconds));
+            List<String> behind = new ArrayList<>();
+            for (Map<String, Object> instance : ringRepository.findLiveInstances(liveSince)) {
+                if (((Number) instance.get("epoch")).longValue() < epoch) {
+                    behind.add((String) instance.get("instance_id"));
+                }
+            }
+            if (behind.isEmpty()) {
+                return;
+            }
+            log.info("🧩 Waiting for {} to follow ring epoch {} before cleaning up", behind, epoch);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(ringRefreshSeconds));
+        }
+    }
+
+    private boolean isRunning() {
+        return worker != null && worker.isAlive();
+    }
+
+    private void deleteOrphans(List<String> ring) {
+        for (String shard : shardRouter.getShardNames()) {
+            JdbcTemplate jdbc = shardRouter.jdbcFor(shard);
+            for (String doctorId : jdbc.queryForList("SELECT DISTINCT doctor_id FROM appointments", String.class)) {
+                if (!shard.equals(shardRouter.ownerOf(doctorId))) {
+                    int deleted = jdbc.update("DELETE FROM appointments WHERE doctor_id = ?", doctorId);
+                    log.info("🧹 Removed {} moved appointments of doctor {} from {}", deleted, doctorId, shard);
+                }
+            }
+        }
+        log.info("🧹 Orphan cleanup done for ring {}", ring);
+    }
+}
@@ -1,6 +1,9 @@
 package org.doc.Service;
 
 import org.doc.dto.AppointmentDTO;
+import org.doc.tracing.Span;
+import org.doc.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -24,6 +27,9 @@ public class SMSService {
     @Value("${twilio.phone.number}")
     private String twilioPhoneNumber;
 
+    @Autowired
+    private Tracer tracer;
+
     @PostConstruct
     public void init() {
         log.info("=== SMS SERVICE INIT ===");
@@ -57,11 +63,7 @@ public class SMSService {
             log.info("Sending to phone: +91{}", phone);
             log.info("From Twilio number: {}", twilioPhoneNumber);
 
-            Message.creator(
-                    new PhoneNumber("+91" + phone), // customize country code if needed
-                    new PhoneNumber(twilioPhoneNumber),
-                    message
-            ).create();
+            send("appointment-summary", phone, message);
             
             log.info("✅ SMS sent successfully!");
         } catch (Exception e) {
@@ -70,4 +72,31 @@ public class SMSService {
         }
         log.info("=== SMS SERVICE COMPLETED ===");
     }
+
+    public void sendReminder(String phone, String text) {
+        log.info("Sending reminder SMS to: +91{}", phone);
+        try {
+            send("reminder", phone, text);
+            log.info("✅ Reminder SMS sent to +91{}", phone);
+        } catch (Exception e) {
+            log.error("❌ Reminder SMS failed: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void send(String kind, String phone, String text) {
+        try (Span span = tracer.startSpan("twilio.send", Span.Kind.CLIENT)) {
+            span.setAttribute("kind", kind);
+            try {
+                Message.creator(
+                        new PhoneNumber("+91" + phone), // customize country code if needed
+                        new PhoneNumber(twilioPhoneNumber),
+                        text
+                ).create();
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
 }
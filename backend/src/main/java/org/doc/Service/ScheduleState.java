@@ -0,0 +1,136 @@
+package org.doc.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Booked slots per doctor, rebuilt from the {@link BookingJournal}. A slot is keyed by
+ * {@code epochDay * 86400 + secondOfDay} so one doctor's slots for a day are a contiguous range;
+ * the value counts bookings in that slot.
+ */
+public class ScheduleState {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final Map<String, ConcurrentSkipListMap<Long, Integer>> slots = new ConcurrentHashMap<>();
+
+    public void book(String doctorId, LocalDate date, LocalTime time) {
+        slots.computeIfAbsent(doctorId, k -> new ConcurrentSkipListMap<>()).merge(key(date, time), 1, Integer::sum);
+    }
+
+    public void release(String doctorId, LocalDate date, LocalTime time) {
+        ConcurrentSkipListMap<Long, Integer> doctorSlots = slots.get(doctorId);
+        if (doctorSlots != null) {
+            doctorSlots.computeIfPresent(key(date, time), (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    public List<LocalTime> bookedTimes(String doctorId, LocalDate date) {
+        List<LocalTime> times = new ArrayList<>();
+        ConcurrentSkipListMap<Long, Integer> doctorSlots = slots.get(doctorId);
+        if (doctorSlots != null) {
+            long day = date.toEpochDay() * SECONDS_PER_DAY;
+            for (Long slot : doctorSlots.subMap(day, day + SECONDS_PER_DAY).keySet()) {
+                times.add(LocalTime.ofSecondOfDay(slot - day));
+            }
+        }
+        return times;
+    }
+
+    /** Bookings held in one slot, 0 when it is free. */
+    int bookings(String doctorId, LocalDate date, LocalTime time) {
+        ConcurrentSkipListMap<Long, Integer> doctorSlots = slots.get(doctorId);
+        return doctorSlots == null ? 0 : doctorSlots.getOrDefault(key(date, time), 0);
+    }
+
+    void setBookings(String doctorId, LocalDate date, LocalTime time, int count) {
+        if (count > 0) {
+            slots.computeIfAbsent(doctorId, k -> new ConcurrentSkipListMap<>()).put(key(date, time), count);
+        } else {
+            ConcurrentSkipListMap<Long, Integer> doctorSlots = slots.get(doctorId);
+            if (doctorSlots != null) {
+                doctorSlots.remove(key(date, time));
+            }
+        }
+    }
+
+    /** Sets one doctor's slots on {@code date} to {@code counts} (time -> bookings), leaving other days alone. */
+    void replaceDay(String doctorId, LocalDate date, Map<LocalTime, Integer> counts) {
+        // new counts first, then removals, so a slot booked before and after never reads as free
+        counts.forEach((time, count) -> setBookings(doctorId, date, time, count));
+        ConcurrentSkipListMap<Long, Integer> doctorSlots = slots.get(doctorId);
+        if (doctorSlots != null) {
+            long day = date.toEpochDay() * SECONDS_PER_DAY;
+            doctorSlots.subMap(day, day + SECONDS_PER_DAY).keySet()
+                .removeIf(slot -> counts.getOrDefault(LocalTime.ofSecondOfDay(slot - day), 0) == 0);
+        }
+    }
+
+    /** Drops every slot before {@code cutoff}, so the state (and snapshots) only hold the live window. */
+    public void pruneBefore(LocalDate cutoff) {
+        long limit = cutoff.toEpochDay() * SECONDS_PER_DAY;
+        // emptied doctors stay until the next copy(); removing them here could race with book()
+        slots.values().forEach(doctorSlots -> doctorSlots.headMap(limit).clear());
+    }
+
+    public int doctorCount() {
+        return slots.size();
+    }
+
+    public long slotCount() {
+        long count = 0;
+        for (ConcurrentSkipListMap<Long, Integer> doctorSlots : slots.values()) {
+            count += doctorSlots.size();
+        }
+        return count;
+    }
+
+    public ScheduleState copy() {
+        ScheduleState copy = new ScheduleState();
+        slots.forEach((doctorId, doctorSlots) -> {
+            if (!doctorSlots.isEmpty()) {
+                copy.slots.put(doctorId, new ConcurrentSkipListMap<>(doctorSlots));
+            }
+        });
+        return copy;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(slots.size());
+        for (Map.Entry<String, ConcurrentSkipListMap<Long, Integer>> doctor : slots.entrySet()) {
+            out.writeUTF(doctor.getKey());
+            out.writeInt(doctor.getValue().size());
+            for (Map.Entry<Long, Integer> slot : doctor.getValue().entrySet()) {
+                out.writeLong(slot.getKey());
+                out.writeInt(slot.getValue());
+            }
+        }
+    }
+
+    static ScheduleState readFrom(DataInputStream in) throws IOException {
+        ScheduleState state = new ScheduleState();
+        int doctors = in.readInt();
+        for (int d = 0; d < doctors; d++) {
+            String doctorId = in.readUTF();
+            int count = in.readInt();
+            ConcurrentSkipListMap<Long, Integer> doctorSlots = new ConcurrentSkipListMap<>();
+            for (int i = 0; i < count; i++) {
+                doctorSlots.put(in.readLong(), in.readInt());
+            }
+            state.slots.put(doctorId, doctorSlots);
+        }
+        return state;
+    }
+
+    private static long key(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * SECONDS_PER_DAY + time.toSecondOfDay();
+    }
+}
@@ -0,0 +1,55 @@
+package org.doc.Service;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously at
+ * {@code refillPerSecond}. Used by {@link AdmissionControlService} for per-contact and
+ * per-client booking limits.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is due
+     */
+    public synchronized long tryConsume() {
+        refill(System.nanoTime());
+        if (tokens >= 1d) {
+            tokens -= 1d;
+            return 0L;
+        }
+        return (long) Math.ceil((1d - tokens) / refillPerNano);
+    }
+
+    /** Gives back a token taken by {@link #tryConsume()} when the request was rejected further down. */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1d);
+    }
+
+    /** True once the bucket has refilled completely, i.e. it is indistinguishable from a fresh one. */
+    public synchronized boolean isFull() {
+        refill(System.nanoTime());
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.doc.Service;
+
+import org.doc.tracing.Span;
+import org.doc.tracing.TraceContext;
+import org.doc.tracing.Tracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Risk prediction for /api/patient/submit-all. The remote ML service is called with a deadline;
+ * if it misses it (cold start, outage) the in-process {@link LocalTriageClassifier} answers instead.
+ * In shadow mode the local model also runs on every request and its answer is compared with the
+ * remote one, including remote answers that arrive after the deadline, so we can see how far it can
+ * be trusted before relying on it.
+ */
+@Service
+public class TriageService {
+
+    private static final Logger log = LoggerFactory.getLogger(TriageService.class);
+
+    @Value("${triage.remote.url:https://doc-ai-ml.onrender.com/predict}")
+    private String remoteUrl;
+
+    @Value("${triage.remote.deadline-ms:3000}")
+    private long deadlineMillis;
+
+    // remote calls keep running after the deadline (to feed shadow metrics) but never longer than this
+    @Value("${triage.remote.read-timeout-ms:30000}")
+    private int readTimeoutMillis;
+
+    @Value("${triage.remote.max-concurrent:16}")
+    private int maxConcurrentRemote;
+
+    @Value("${triage.local.fallback-enabled:true}")
+    private boolean fallbackEnabled;
+
+    @Value("${triage.local.shadow-enabled:true}")
+    private boolean shadowEnabled;
+
+    @Autowired
+    private LocalTriageClassifier localClassifier;
+
+    @Autowired
+    private Tracer tracer;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RestTemplate restTemplate;
+    private ThreadPoolExecutor remoteCalls;
+
+    private final LongAdder remoteOnTime = new LongAdder();
+    private final LongAdder remoteLate = new LongAdder();
+    private final LongAdder remoteFailed = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder shadowCompared = new LongAdder();
+    private final LongAdder shadowAgreed = new LongAdder();
+    // remote label -> local label -> count
+    private final Map<String, Map<String, LongAdder>> confusion = new ConcurrentHashMap<>();
+    private final AtomicLong localNanosTotal = new AtomicLong();
+    private final LongAdder localCalls = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout((int) Math.min(Integer.MAX_VALUE, deadlineMillis));
+        factory.setReadTimeout(readTimeoutMillis);
+        restTemplate = new RestTemplate(factory);
+        remoteCalls = new ThreadPoolExecutor(maxConcurrentRemote, maxConcurrentRemote, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxConcurrentRemote * 4), r -> {
+                Thread t = new Thread(r, "triage-remote");
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        remoteCalls.shutdownNow();
+    }
+
+    public Map<String, Object> predict(List<String> symptoms) throws Exception {
+        try (Span span = tracer.startSpan("triage.predict")) {
+            span.setAttribute("symptoms", symptoms.size());
+            try {
+                Map<String, Object> result = predictWithDeadline(symptoms);
+                span.setAttribute("source", result.getOrDefault("source", "remote"));
+                return result;
+            } catch (Exception e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
+
+    private Map<String, Object> predictWithDeadline(List<String> symptoms) throws Exception {
+        Map<String, Object> local = shadowEnabled && localClassifier.isAvailable() ? runLocal(symptoms) : null;
+
+        CompletableFuture<Map<String, Object>> remote;
+        try {
+            remote = CompletableFuture.supplyAsync(TraceContext.wrap(() -> callRemote(symptoms)), remoteCalls);
+        } catch (RejectedExecutionException e) {
+            log.warn("⚠️ Too many pending ML calls, answering locally");
+            return fallback(symptoms, local, e);
+        }
+        if (local != null) {
+            remote.thenAccept(result -> recordShadow(result, local));
+        }
+
+        try {
+            Map<String, Object> result = remote.get(deadlineMillis, TimeUnit.MILLISECONDS);
+            remoteOnTime.increment();
+            return result;
+        } catch (TimeoutException e) {
+            remote.thenRun(remoteLate::increment);
+            log.warn("⚠️ ML service missed the {} ms deadline", deadlineMillis);
+            return fallback(symptoms, local, e);
+        } catch (Exception e) {
+            remoteFailed.increment();
+            log.warn("⚠️ ML service call failed: {}", e.getMessage());
+            return fallback(symptoms, local, e);
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("modelVersion", localClassifier.getModelVersion());
+        metrics.put("remoteOnTime", remoteOnTime.sum());
+        metrics.put("remoteLate", remoteLate.sum());
+        metrics.put("remoteFailed", remoteFailed.sum());
+        metrics.put("localFallbacks", fallbacks.sum());
+        long compared = shadowCompared.sum();
+        metrics.put("shadowCompared", compared);
+        metrics.put("shadowAgreement", compared == 0 ? null : (double) shadowAgreed.sum() / compared);
+        Map<String, Map<String, Long>> matrix = new HashMap<>();
+        confusion.forEach((remoteLabel, row) -> {
+            Map<String, Long> counts = new HashMap<>();
+            row.forEach((localLabel, count) -> counts.put(localLabel, count.sum()));
+            matrix.put(remoteLabel, counts);
+        });
+        metrics.put("confusion", matrix);
+        long calls = localCalls.sum();
+        metrics.put("localAvgMicros", calls == 0 ? null : localNanosTotal.get() / 1000.0 / calls);
+        return metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> callRemote(List<String> symptoms) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("symptoms", symptoms);
+        try (Span span = tracer.startSpan("ml.remote", Span.Kind.CLIENT)) {
+            span.setAttribute("http.url", remoteUrl);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("traceparent", span.traceparent());
+            ResponseEntity<String> response;
+            try {
+                response = restTemplate.postForEntity(remoteUrl, new HttpEntity<>(payload, headers), String.class);
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+            span.setAttribute("http.status", response.getStatusCode().value());
+            try {
+                return mapper.readValue(response.getBody(), Map.class);
+            } catch (Exception e) {
+                throw new IllegalStateException("Unreadable ML response: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private Map<String, Object> runLocal(List<String> symptoms) {
+        try (Span span = tracer.startSpan("triage.local")) {
+            long start = System.nanoTime();
+            Map<String, Object> result = localClassifier.predict(symptoms);
+            localNanosTotal.addAndGet(System.nanoTime() - start);
+            localCalls.increment();
+            span.setAttribute("predicted_risk", result.get("predicted_risk"));
+            return result;
+        }
+    }
+
+    private Map<String, Object> fallback(List<String> symptoms, Map<String, Object> local, Exception cause) throws Exception {
+        if (!fallbackEnabled || !localClassifier.isAvailable()) {
+            throw cause;
+        }
+        Map<String, Object> result = new LinkedHashMap<>(local != null ? local : runLocal(symptoms));
+        result.put("source", "local-fallback");
+        fallbacks.increment();
+        return result;
+    }
+
+    private void recordShadow(Map<String, Object> remote, Map<String, Object> local) {
+        Object remoteLabel = remote.get("predicted_risk");
+        if (remoteLabel == null) {
+            return;
+        }
+        Object localLabel = local.get("predicted_risk");
+        shadowCompared.increment();
+        if (remoteLabel.equals(localLabel)) {
+            shadowAgreed.increment();
+        }
+        confusion.computeIfAbsent(remoteLabel.toString(), k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(String.valueOf(localLabel), k -> new LongAdder())
+            .increment();
+    }
+}
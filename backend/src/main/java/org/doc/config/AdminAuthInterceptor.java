@@ -0,0 +1,50 @@
+package org.doc.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards operational endpoints (see {@link WebConfig#ADMIN_PATHS}) with a shared admin token sent as
+ * {@code Authorization: Bearer <admin.token>}. Without a configured token they are switched off.
+ */
+@Component
+public class AdminAuthInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminAuthInterceptor.class);
+
+    private static final String BEARER = "Bearer ";
+
+    @Value("${admin.token:}")
+    private String token;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        if (token == null || token.isBlank()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin endpoints are disabled (admin.token not set)");
+            return false;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String presented = header != null && header.startsWith(BEARER) ? header.substring(BEARER.length()).trim() : "";
+        // constant-time comparison so the token can't be guessed byte by byte from response times
+        if (!MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("🔒 Rejected unauthenticated {} {} from {}", request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Admin token required");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package org.doc.config;
+
+import org.doc.Repository.ShardRingRepository;
+import org.doc.Repository.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Appointments can be spread over several databases by setting sharding.urls to a comma separated
+// list of JDBC URLs (shard0, shard1, ...). Without it the primary datasource is the only shard.
+// schema.sql is applied to the primary and every shard at startup, so a fresh shard can take rows.
+// With several shards the ring lives in the primary database (ShardRingRepository): sharding.ring
+// only seeds it on the first start, after that resharding changes it for every instance.
+@Configuration
+public class ShardingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+
+    @Value("${sharding.urls:}")
+    private String urls;
+
+    @Value("${sharding.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${sharding.password:${spring.datasource.password:}}")
+    private String password;
+
+    // shards that start out on the ring (first start only); extra configured shards can be brought in by resharding
+    @Value("${sharding.ring:}")
+    private String ring;
+
+    @Value("${sharding.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Bean
+    public ShardRouter shardRouter(JdbcTemplate primary, ShardRingRepository ringRepository) {
+        applySchema("primary", primary);
+        Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+        if (urls.isBlank()) {
+            shards.put("primary", primary);
+        } else {
+            String[] shardUrls = urls.split(",");
+            for (int i = 0; i < shardUrls.length; i++) {
+                shards.put("shard" + i, new JdbcTemplate(DataSourceBuilder.create()
+                    .url(shardUrls[i].trim())
+                    .username(username)
+                    .password(password)
+                    .build()));
+            }
+            shards.forEach(ShardingConfig::applySchema);
+        }
+
+        List<String> ringNodes = new ArrayList<>();
+        if (ring.isBlank()) {
+            ringNodes.addAll(shards.keySet());
+        } else {
+            for (String node : ring.split(",")) {
+                ringNodes.add(node.trim());
+            }
+        }
+        if (urls.isBlank()) {
+            return new ShardRouter(shards, ringNodes, virtualNodes);
+        }
+
+        ShardRingRepository.Ring persisted = ringRepository.load();
+        if (persisted == null) {
+            ringRepository.initialize(ringNodes);
+            persisted = ringRepository.load();
+        } else if (!persisted.getNodes().equals(ringNodes)) {
+            log.warn("⚠️ Configured ring {} ignored, following the ring {} stored in the database", ringNodes, persisted.getNodes());
+        }
+        ShardRouter router = new ShardRouter(shards, persisted.getNodes(), virtualNodes);
+        router.follow(persisted);
+        return router;
+    }
+
+    private static void applySchema(String name, JdbcTemplate jdbc) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        // MySQL has no CREATE INDEX IF NOT EXISTS, so re-creating an existing index fails; the check below
+        // still catches a shard that really has no schema
+        populator.setContinueOnError(true);
+        DatabasePopulatorUtils.execute(populator, jdbc.getDataSource());
+        jdbc.queryForList("SELECT id FROM appointments WHERE 1 = 0");
+        log.info("🧩 Schema applied to {}", name);
+    }
+}
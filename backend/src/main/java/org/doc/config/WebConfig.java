@@ -1,11 +1,26 @@
 package org.doc.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+// Smile (application/x-jackson-smile) and CBOR (application/cbor) converters are registered
+// automatically because jackson-dataformat-smile/cbor are on the classpath. They sit after the
+// JSON converter, so clients sending no Accept header or Accept: application/json still get JSON.
+// Gzip for those list responses is the standard server.compression.* setup in application.properties.
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    // operational endpoints that need the admin token
+    static final String[] ADMIN_PATHS = {
+        "/admin/**", "/debug/benchmark/**", "/api/stats/reconcile", "/api/proximity/roster", "/api/proximity/reload"
+    };
+
+    @Autowired
+    private AdminAuthInterceptor adminAuthInterceptor;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")  // Allow all paths, not just /api/**
@@ -14,9 +29,14 @@ public class WebConfig implements WebMvcConfigurer {
                 "https://doc-ai-scheduler.vercel.app" // Your Vercel frontend
             )
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-            .allowedHeaders("Authorization", "Content-Type", "X-Requested-With", "Accept")
-            .exposedHeaders("Authorization")
+            .allowedHeaders("Authorization", "Content-Type", "X-Requested-With", "Accept", "If-None-Match")
+            .exposedHeaders("Authorization", "Retry-After", "ETag", "Vary")
             .allowCredentials(true)
             .maxAge(3600);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(adminAuthInterceptor).addPathPatterns(ADMIN_PATHS);
+    }
+}
@@ -0,0 +1,16 @@
+package org.doc.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+public class DoctorLocationDTO {
+    @JsonProperty("doctorId")
+    private String doctorId;
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("pincode")
+    private String pincode;
+}
@@ -0,0 +1,21 @@
+package org.doc.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NearbyDoctorDTO {
+    @JsonProperty("doctorId")
+    private String doctorId;
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("pincode")
+    private String pincode;
+
+    @JsonProperty("distanceKm")
+    private double distanceKm;
+}
@@ -0,0 +1,43 @@
+package org.doc.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** Appends spans to a file as JSON lines. */
+public class FileSpanExporter implements SpanExporter {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BufferedWriter writer;
+
+    public FileSpanExporter(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void export(List<Span> spans) throws IOException {
+        for (Span span : spans) {
+            writer.write(mapper.writeValueAsString(span.toMap()));
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // nothing left to do on shutdown
+        }
+    }
+}
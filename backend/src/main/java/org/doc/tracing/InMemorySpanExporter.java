@@ -0,0 +1,45 @@
+package org.doc.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/** Keeps the most recent spans in memory, for tests and for {@code /admin/traces}. */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final int capacity;
+    private final Deque<Span> spans = new ArrayDeque<>();
+
+    public InMemorySpanExporter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void export(List<Span> batch) {
+        for (Span span : batch) {
+            if (spans.size() == capacity) {
+                spans.removeFirst();
+            }
+            spans.addLast(span);
+        }
+    }
+
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public synchronized List<Span> getTrace(String traceId) {
+        List<Span> trace = new ArrayList<>();
+        for (Span span : spans) {
+            if (span.getTraceId().equals(traceId)) {
+                trace.add(span);
+            }
+        }
+        return trace;
+    }
+
+    public synchronized void clear() {
+        spans.clear();
+    }
+}
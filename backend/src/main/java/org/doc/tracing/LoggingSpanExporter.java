@@ -0,0 +1,17 @@
+package org.doc.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.List;
+
+public class LoggingSpanExporter implements SpanExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingSpanExporter.class);
+
+    @Override
+    public void export(List<Span> spans) {
+        for (Span span : spans) {
+            log.info("🔭 {}", span);
+        }
+    }
+}
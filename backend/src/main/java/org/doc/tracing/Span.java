@@ -0,0 +1,174 @@
+package org.doc.tracing;
+
+import jdk.jfr.EventType;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation in a trace. Open it with try-with-resources so it becomes the thread's
+ * current span for its lifetime and is ended (and exported, if sampled) on close. A span is meant
+ * to be used by the thread that started it.
+ */
+public class Span implements AutoCloseable {
+
+    /** INTERNAL for work inside this service, SERVER for an inbound request, CLIENT for an outbound call. */
+    public enum Kind { INTERNAL, SERVER, CLIENT }
+
+    private static final String NO_TRACE_ID = "0".repeat(32);
+    private static final String NO_SPAN_ID = "0".repeat(16);
+
+    /** Returned when tracing is disabled and no recording wants span events: records nothing and never becomes current. */
+    static final Span NOOP = new Span(null, NO_TRACE_ID, NO_SPAN_ID, null, "noop", Kind.INTERNAL, false, null, false);
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(SpanEvent.class);
+
+    private final Tracer tracer;
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final Kind kind;
+    private final boolean sampled;
+    private final Span previous;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private final SpanEvent event;
+    private long durationNanos = -1;
+    private Map<String, Object> attributes;
+    private String error;
+
+    Span(Tracer tracer, String traceId, String spanId, String parentSpanId, String name, Kind kind, boolean sampled,
+         Span previous) {
+        this(tracer, traceId, spanId, parentSpanId, name, kind, sampled, previous, true);
+    }
+
+    private Span(Tracer tracer, String traceId, String spanId, String parentSpanId, String name, Kind kind, boolean sampled,
+                 Span previous, boolean recordEvent) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.sampled = sampled;
+        this.previous = previous;
+        Instant now = Instant.now();
+        this.startEpochMicros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+        this.startNanos = System.nanoTime();
+        this.event = recordEvent ? new SpanEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+    }
+
+    /**
+     * A span with tracing disabled: no ids, never current and never exported, but still an
+     * {@code org.doc.Span} JFR event while a recording has those enabled, so stage latencies can be
+     * recorded without turning tracing on.
+     */
+    static Span untraced(String name, Kind kind) {
+        if (!EVENT_TYPE.isEnabled()) {
+            return NOOP;
+        }
+        return new Span(null, NO_TRACE_ID, NO_SPAN_ID, null, name, kind, false, null, true);
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (sampled) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span recordError(Throwable e) {
+        // kept for unsampled spans too, the JFR event reports it
+        error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return this;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /** W3C trace context header value for outbound calls made on behalf of this span. */
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    @Override
+    public void close() {
+        if (event == null || durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        event.end();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.kind = kind.name();
+            event.traceId = traceId;
+            event.spanId = spanId;
+            event.parentSpanId = parentSpanId;
+            event.error = error;
+            event.commit();
+        }
+        if (TraceContext.current() == this) {
+            TraceContext.swap(previous);
+        }
+        if (sampled && tracer != null) {
+            tracer.export(this);
+        }
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", traceId);
+        map.put("spanId", spanId);
+        map.put("parentSpanId", parentSpanId);
+        map.put("name", name);
+        map.put("kind", kind.name());
+        map.put("startMicros", startEpochMicros);
+        map.put("durationMicros", durationNanos / 1_000);
+        map.put("attributes", attributes == null ? Map.of() : attributes);
+        if (error != null) {
+            map.put("error", error);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + (durationNanos / 1_000) + "us trace=" + traceId + " span=" + spanId
+            + (parentSpanId == null ? "" : " parent=" + parentSpanId)
+            + (attributes == null ? "" : " " + attributes)
+            + (error == null ? "" : " error=" + error);
+    }
+}
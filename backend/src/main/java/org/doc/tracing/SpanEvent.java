@@ -0,0 +1,37 @@
+package org.doc.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Every span (sampled or not) is also a Flight Recorder event while a recording has it enabled.
+@Name(SpanEvent.NAME)
+@Label("DocAI Span")
+@Category({"DocAI", "Tracing"})
+@Description("A traced stage of request handling, e.g. a booking step or an outbound SMTP/Twilio/ML call")
+@StackTrace(false)
+class SpanEvent extends Event {
+
+    static final String NAME = "org.doc.Span";
+
+    @Label("Name")
+    String name;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Trace Id")
+    String traceId;
+
+    @Label("Span Id")
+    String spanId;
+
+    @Label("Parent Span Id")
+    String parentSpanId;
+
+    @Label("Error")
+    String error;
+}
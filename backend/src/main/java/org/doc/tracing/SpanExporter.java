@@ -0,0 +1,15 @@
+package org.doc.tracing;
+
+import java.util.List;
+
+/**
+ * Receives finished, sampled spans in batches on the tracer's export thread. Define a bean of this
+ * type to replace the exporter chosen by {@code tracing.exporter}.
+ */
+public interface SpanExporter {
+
+    void export(List<Span> spans) throws Exception;
+
+    default void shutdown() {
+    }
+}
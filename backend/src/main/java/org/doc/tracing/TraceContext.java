@@ -0,0 +1,60 @@
+package org.doc.tracing;
+
+import java.util.function.Supplier;
+
+/**
+ * The span a thread is currently working for. Tasks handed to an executor lose it, so wrap them
+ * with {@link #wrap} at submission time to keep the work in the caller's trace.
+ */
+public final class TraceContext {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private TraceContext() {
+    }
+
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /** Makes {@code span} current and returns the span that was. */
+    static Span swap(Span span) {
+        Span previous = CURRENT.get();
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+        return previous;
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Span captured = current();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = swap(captured);
+            try {
+                task.run();
+            } finally {
+                swap(previous);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Span captured = current();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = swap(captured);
+            try {
+                return task.get();
+            } finally {
+                swap(previous);
+            }
+        };
+    }
+}
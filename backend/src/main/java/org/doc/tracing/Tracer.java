@@ -0,0 +1,215 @@
+package org.doc.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts spans and ships the finished ones to the configured {@link SpanExporter}. The sampling
+ * decision is made once per trace (at the root, or taken from an inbound {@code traceparent}) and
+ * inherited by every child, so a trace is recorded completely or not at all. Unsampled spans still
+ * carry ids for propagation but record no attributes and are never queued. Export runs on a single
+ * background thread from a bounded queue; spans are dropped, not waited for, when it is full.
+ * Every span, sampled or not, is also an {@code org.doc.Span} JFR event during a recording, and so
+ * is every span started while tracing is disabled (those carry no ids and are never exported).
+ */
+@Component
+public class Tracer {
+
+    private static final Logger log = LoggerFactory.getLogger(Tracer.class);
+
+    // version 00, lowercase hex trace id, parent id and flags; bit 0 of the flags is "sampled"
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+
+    @Value("${tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracing.sample-rate:0.1}")
+    private double sampleRate;
+
+    @Value("${tracing.exporter:logging}")
+    private String exporterName;
+
+    @Value("${tracing.file:data/traces/spans.jsonl}")
+    private String file;
+
+    @Value("${tracing.memory-capacity:10000}")
+    private int memoryCapacity;
+
+    @Value("${tracing.queue-size:4096}")
+    private int queueSize;
+
+    @Autowired(required = false)
+    private SpanExporter customExporter;
+
+    private SpanExporter exporter;
+    private BlockingQueue<Span> queue;
+    private Thread exportThread;
+    private final LongAdder started = new LongAdder();
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder exportFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() throws Exception {
+        if (!enabled) {
+            log.info("🔭 Tracing disabled");
+            return;
+        }
+        exporter = customExporter != null ? customExporter : switch (exporterName) {
+            case "memory" -> new InMemorySpanExporter(memoryCapacity);
+            case "file" -> new FileSpanExporter(Path.of(file));
+            case "none" -> null;
+            default -> new LoggingSpanExporter();
+        };
+        queue = new ArrayBlockingQueue<>(queueSize);
+        exportThread = new Thread(this::exportLoop, "span-exporter");
+        exportThread.setDaemon(true);
+        exportThread.start();
+        log.info("🔭 Tracing enabled: sample rate {}, exporter {}", sampleRate,
+            exporter == null ? "none" : exporter.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (exportThread != null) {
+            exportThread.interrupt();
+            drain();
+            if (exporter != null) {
+                exporter.shutdown();
+            }
+        }
+    }
+
+    /** Starts a child of the current span, or a new trace if there is none. */
+    public Span startSpan(String name) {
+        return startSpan(name, Span.Kind.INTERNAL);
+    }
+
+    public Span startSpan(String name, Span.Kind kind) {
+        Span parent = TraceContext.current();
+        if (parent == null) {
+            return startRoot(name, kind, null);
+        }
+        return start(name, kind, parent.getTraceId(), parent.getSpanId(), parent.isSampled());
+    }
+
+    /**
+     * Starts a root span, continuing the caller's trace if {@code traceparent} is a valid W3C header
+     * ({@code 00-<trace id>-<parent id>-<flags>}).
+     */
+    public Span startTrace(String name, String traceparent) {
+        return startRoot(name, Span.Kind.SERVER, traceparent);
+    }
+
+    private Span startRoot(String name, Span.Kind kind, String traceparent) {
+        if (!enabled) {
+            return Span.untraced(name, kind);
+        }
+        Matcher header = traceparent == null ? null : TRACEPARENT.matcher(traceparent);
+        if (header != null && header.matches() && !isAllZeros(header.group(1)) && !isAllZeros(header.group(2))) {
+            boolean sampled = (Integer.parseInt(header.group(3), 16) & 1) == 1;
+            return start(name, kind, header.group(1), header.group(2), sampled);
+        }
+        return start(name, kind, randomHex(16), null, ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public SpanExporter getExporter() {
+        return exporter;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("sampleRate", sampleRate);
+        stats.put("exporter", exporter == null ? "none" : exporter.getClass().getSimpleName());
+        stats.put("spansStarted", started.sum());
+        stats.put("spansExported", exported.sum());
+        stats.put("spansDropped", dropped.sum());
+        stats.put("exportFailures", exportFailures.sum());
+        stats.put("queued", queue == null ? 0 : queue.size());
+        return stats;
+    }
+
+    void export(Span span) {
+        if (exporter != null && !queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    private Span start(String name, Span.Kind kind, String traceId, String parentSpanId, boolean sampled) {
+        if (!enabled) {
+            return Span.untraced(name, kind);
+        }
+        started.increment();
+        Span span = new Span(this, traceId, randomHex(8), parentSpanId, name, kind, sampled, TraceContext.current());
+        TraceContext.swap(span);
+        return span;
+    }
+
+    private void exportLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Span first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    List<Span> batch = new ArrayList<>();
+                    batch.add(first);
+                    queue.drainTo(batch, 511);
+                    exportBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        List<Span> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            exportBatch(rest);
+        }
+    }
+
+    private void exportBatch(List<Span> batch) {
+        try {
+            exporter.export(batch);
+            exported.add(batch.size());
+        } catch (Exception e) {
+            exportFailures.increment();
+            log.warn("⚠️ Span export failed, {} spans lost: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // all-zero ids are invalid per the W3C spec
+    private static boolean isAllZeros(String hex) {
+        return hex.chars().allMatch(c -> c == '0');
+    }
+
+    private static String randomHex(int bytes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            int b = random.nextInt(256);
+            hex.append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package org.doc.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// One root span per HTTP request, continuing the caller's trace when it sends a traceparent header.
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (Span span = tracer.startTrace(request.getMethod() + " " + request.getRequestURI(), request.getHeader("traceparent"))) {
+            span.setAttribute("http.method", request.getMethod()).setAttribute("http.target", request.getRequestURI());
+            if (span.isSampled()) {
+                response.setHeader("X-Trace-Id", span.getTraceId());
+            }
+            try {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            } finally {
+                span.setAttribute("http.status", response.getStatus());
+            }
+        }
+    }
+}
@@ -13,4 +13,77 @@ CREATE TABLE IF NOT EXISTS appointments (
 -- Create index for better performance
 CREATE INDEX IF NOT EXISTS idx_appointments_contact ON appointments(contact);
 CREATE INDEX IF NOT EXISTS idx_appointments_doctor ON appointments(doctor_id);
-CREATE INDEX IF NOT EXISTS idx_appointments_date ON appointments(date); 
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_appointments_date ON appointments(date); 
+
+-- Per contact / per doctor booking versions, bumped on every booking and used as ETags
+CREATE TABLE IF NOT EXISTS booking_versions (
+    kind VARCHAR(16) NOT NULL,
+    entity_key VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (kind, entity_key)
+);
+
+-- The appointment behind each doctor version bump, so calendar feeds can catch up on changes made
+-- by other instances without reloading the doctor's whole schedule; pruned after a while
+CREATE TABLE IF NOT EXISTS booking_changes (
+    kind VARCHAR(16) NOT NULL,
+    entity_key VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (kind, entity_key, version)
+);
+
+-- Catch-up (findChangesAt) and pruning (deleteChangesBefore) look changes up by time, not by doctor
+CREATE INDEX IF NOT EXISTS idx_booking_changes_kind_changed_at ON booking_changes(kind, changed_at);
+
+-- One row per reminder sent; the primary key lets only one instance claim each reminder
+CREATE TABLE IF NOT EXISTS appointment_reminders (
+    reminder_key VARCHAR(512) PRIMARY KEY,
+    instance_id VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'CLAIMED',
+    claimed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Booking counts per doctor/day/status, maintained incrementally by AppointmentStatsService
+CREATE TABLE IF NOT EXISTS appointment_stats (
+    doctor_id VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (doctor_id, date, status)
+);
+
+-- Appointment id sequence shared by all shards (AppointmentIdAllocator), so ids stay unique when rows move
+CREATE TABLE IF NOT EXISTS appointment_ids (
+    name VARCHAR(64) PRIMARY KEY,
+    next_id BIGINT NOT NULL
+);
+
+-- The shard ring every instance routes by, and the progress of a running resharding (ShardRingRepository).
+-- epoch goes up whenever the ring or the target ring changes; instances report the epoch they route by
+CREATE TABLE IF NOT EXISTS shard_ring (
+    id INT PRIMARY KEY,
+    ring VARCHAR(1024) NOT NULL,
+    target_ring VARCHAR(1024),
+    epoch BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS shard_migrated_doctors (
+    doctor_id VARCHAR(255) PRIMARY KEY,
+    epoch BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS shard_ring_instances (
+    instance_id VARCHAR(255) PRIMARY KEY,
+    epoch BIGINT NOT NULL,
+    seen_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Doctor roster pushed through PUT /api/proximity/roster, shared by every instance (ProximityService)
+CREATE TABLE IF NOT EXISTS doctor_locations (
+    doctor_id VARCHAR(255) PRIMARY KEY,
+    name VARCHAR(255),
+    pincode VARCHAR(16),
+    roster_version BIGINT NOT NULL
+);
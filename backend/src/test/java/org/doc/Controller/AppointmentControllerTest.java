@@ -0,0 +1,151 @@
+package org.doc.Controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.doc.Repository.AppointmentRepository;
+import org.doc.Repository.BookingVersionRepository;
+import org.doc.Service.BookingVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AppointmentControllerTest {
+
+    private static final String CONTACT = "patient@example.com";
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final MediaType CBOR = new MediaType("application", "cbor");
+
+    private MockMvc mvc;
+    private AppointmentRepository appointments;
+    private BookingVersionRepository versions;
+
+    @BeforeEach
+    void setUp() {
+        appointments = mock(AppointmentRepository.class);
+        versions = mock(BookingVersionRepository.class);
+        BookingVersionService versionService = new BookingVersionService();
+        ReflectionTestUtils.setField(versionService, "versionRepository", versions);
+
+        AppointmentController controller = new AppointmentController();
+        ReflectionTestUtils.setField(controller, "appointmentRepository", appointments);
+        ReflectionTestUtils.setField(controller, "bookingVersionService", versionService);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("doctor_id", "doc1");
+        row.put("date", Date.valueOf(LocalDate.of(2026, 3, 2)));
+        row.put("time", Time.valueOf(LocalTime.of(9, 30)));
+        row.put("contact", CONTACT);
+        when(appointments.findByContact(CONTACT)).thenReturn(List.of(row));
+        when(versions.findVersion("contact", CONTACT)).thenReturn(3L);
+    }
+
+    @Test
+    void listsAreJsonWithoutAnAcceptHeader() throws Exception {
+        MvcResult result = mvc.perform(get("/appointments/{contact}", CONTACT))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+        assertEquals("doc1", decode(new ObjectMapper(), result).get("doctor_id"));
+    }
+
+    @Test
+    void acceptSelectsSmileOrCbor() throws Exception {
+        MvcResult smile = mvc.perform(get("/appointments/{contact}", CONTACT).accept(SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(SMILE))
+            .andReturn();
+        assertEquals("doc1", decode(new SmileMapper(), smile).get("doctor_id"));
+
+        MvcResult cbor = mvc.perform(get("/appointments/{contact}", CONTACT).accept(CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(CBOR))
+            .andReturn();
+        assertEquals(CONTACT, decode(new CBORMapper(), cbor).get("contact"));
+    }
+
+    @Test
+    void acceptQualityValuesPickTheFormat() throws Exception {
+        mvc.perform(get("/appointments/{contact}", CONTACT)
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+            .andExpect(content().contentTypeCompatibleWith(CBOR));
+        mvc.perform(get("/appointments/{contact}", CONTACT)
+                .header(HttpHeaders.ACCEPT, "application/x-jackson-smile;q=0, application/json;q=0.9"))
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mvc.perform(get("/appointments/{contact}", CONTACT).header(HttpHeaders.ACCEPT, "*/*"))
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void matchingETagAnswers304WithoutReadingTheRows() throws Exception {
+        MvcResult first = mvc.perform(get("/appointments/{contact}", CONTACT))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"c3-json\""))
+            .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+            .andReturn();
+
+        mvc.perform(get("/appointments/{contact}", CONTACT)
+                .header(HttpHeaders.IF_NONE_MATCH, first.getResponse().getHeader(HttpHeaders.ETAG)))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"c3-json\""))
+            .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+            .andExpect(content().bytes(new byte[0]));
+        verify(appointments, times(1)).findByContact(CONTACT);
+    }
+
+    @Test
+    void eTagsDifferPerFormatAndVersion() throws Exception {
+        // the JSON ETag must not validate a Smile request
+        mvc.perform(get("/appointments/{contact}", CONTACT).accept(SMILE)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"c3-json\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"c3-x-jackson-smile\""));
+
+        // a booking bumps the version, so the old ETag no longer matches
+        when(versions.findVersion("contact", CONTACT)).thenReturn(4L);
+        mvc.perform(get("/appointments/{contact}", CONTACT).header(HttpHeaders.IF_NONE_MATCH, "W/\"c3-json\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"c4-json\""));
+    }
+
+    @Test
+    void doctorListsUseTheDoctorVersion() throws Exception {
+        when(appointments.findByDoctorId("doc1")).thenReturn(List.of());
+        when(versions.findVersion("doctor", "doc1")).thenReturn(7L);
+
+        mvc.perform(get("/appointments/doctor/{doctorId}", "doc1").accept(CBOR))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"d7-cbor\""))
+            .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+        mvc.perform(get("/appointments/doctor/{doctorId}", "doc1").accept(CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"d7-cbor\""))
+            .andExpect(status().isNotModified());
+        verify(appointments, times(1)).findByDoctorId("doc1");
+    }
+
+    private static Map<?, ?> decode(ObjectMapper mapper, MvcResult result) throws Exception {
+        List<?> rows = mapper.readValue(result.getResponse().getContentAsByteArray(), List.class);
+        assertEquals(1, rows.size());
+        return (Map<?, ?>) rows.get(0);
+    }
+}
@@ -0,0 +1,314 @@
+package org.doc.Repository;
+
+import org.doc.Entity.Appointment;
+import org.doc.Service.BookingBatchWriter;
+import org.doc.Service.BookingVersionService;
+import org.doc.Service.ReshardingService;
+import org.doc.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAppointmentRepositoryTest {
+
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void createShards() {
+        String run = UUID.randomUUID().toString();
+        primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:primary-" + run + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        primary.execute("CREATE TABLE appointment_ids (name VARCHAR(64) PRIMARY KEY, next_id BIGINT NOT NULL)");
+        primary.execute("CREATE TABLE shard_ring (id INT PRIMARY KEY, ring VARCHAR(1024) NOT NULL, "
+            + "target_ring VARCHAR(1024), epoch BIGINT NOT NULL)");
+        primary.execute("CREATE TABLE shard_migrated_doctors (doctor_id VARCHAR(255) PRIMARY KEY, epoch BIGINT NOT NULL)");
+        primary.execute("CREATE TABLE shard_ring_instances (instance_id VARCHAR(255) PRIMARY KEY, epoch BIGINT NOT NULL, "
+            + "seen_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        for (int i = 0; i < 3; i++) {
+            JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:shard" + i + "-" + run + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+            jdbc.execute("CREATE TABLE appointments ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, doctor_id VARCHAR(255) NOT NULL, date DATE NOT NULL, "
+                + "time TIME NOT NULL, reason VARCHAR(255) NOT NULL, contact VARCHAR(255) NOT NULL, "
+                + "status VARCHAR(50) DEFAULT 'SCHEDULED', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            shards.put("shard" + i, jdbc);
+        }
+    }
+
+    @Test
+    void routesByDoctorAndScatterGathersByContact() {
+        ShardRouter router = new ShardRouter(shards, List.of("shard0", "shard1", "shard2"), 64);
+        AppointmentRepository repository = repositoryFor(router);
+
+        for (int d = 0; d < 30; d++) {
+            repository.save(appointment("doc" + d, "patient@example.com"));
+        }
+
+        int spread = 0;
+        for (JdbcTemplate jdbc : shards.values()) {
+            if (jdbc.queryForObject("SELECT COUNT(*) FROM appointments", Integer.class) > 0) {
+                spread++;
+            }
+        }
+        assertEquals(3, spread, "30 doctors should land on every shard");
+
+        for (int d = 0; d < 30; d++) {
+            String doctorId = "doc" + d;
+            assertEquals(1, repository.findByDoctorId(doctorId).size());
+            assertEquals(1, shards.get(router.ownerOf(doctorId))
+                .queryForObject("SELECT COUNT(*) FROM appointments WHERE doctor_id = ?", Integer.class, doctorId));
+        }
+
+        List<Map<String, Object>> byContact = repository.findByContact("patient@example.com");
+        assertEquals(30, byContact.size());
+        assertEquals(30, repository.findAll().size());
+    }
+
+    @Test
+    void statusChangesClaimRowsWithANullStatus() {
+        ShardRouter router = new ShardRouter(shards, List.of("shard0", "shard1", "shard2"), 64);
+        AppointmentRepository repository = repositoryFor(router);
+        long id = repository.save(appointment("doc1", "legacy@example.com"));
+        JdbcTemplate owner = shards.get(router.ownerOf("doc1"));
+        owner.update("UPDATE appointments SET status = NULL WHERE id = ?", id);
+
+        Map<String, Object> before = repository.updateStatus("doc1", id, "CANCELLED");
+
+        assertNull(before.get("status"));
+        assertEquals("CANCELLED", owner.queryForObject("SELECT status FROM appointments WHERE id = ?", String.class, id));
+        assertEquals("CANCELLED", repository.updateStatus("doc1", id, "SCHEDULED").get("status"));
+        assertNull(repository.updateStatus("doc1", id + 1000, "CANCELLED"));
+    }
+
+    @Test
+    void reshardingMovesEveryDoctorExactlyOnce() throws Exception {
+        ShardRouter router = persistedRouter(List.of("shard0", "shard1"));
+        AppointmentRepository repository = repositoryFor(router);
+        Map<String, Long> ids = new LinkedHashMap<>();
+        for (int d = 0; d < 40; d++) {
+            ids.put("doc" + d, repository.save(appointment("doc" + d, "contact" + (d % 4))));
+        }
+        assertEquals(0, shards.get("shard2").queryForObject("SELECT COUNT(*) FROM appointments", Integer.class));
+
+        BookingVersionService versions = Mockito.mock(BookingVersionService.class);
+        ReshardingService resharding = resharding(router, versions);
+        resharding.start(List.of("shard0", "shard1", "shard2"));
+        awaitFinished(resharding);
+
+        assertFalse(router.isResharding());
+        assertTrue(shards.get("shard2").queryForObject("SELECT COUNT(*) FROM appointments", Integer.class) > 0);
+        int total = 0;
+        for (JdbcTemplate jdbc : shards.values()) {
+            total += jdbc.queryForObject("SELECT COUNT(*) FROM appointments", Integer.class);
+        }
+        assertEquals(40, total, "orphans on the old owners must be cleaned up");
+        assertEquals(40, repository.findAll().size());
+        for (int c = 0; c < 4; c++) {
+            assertEquals(10, repository.findByContact("contact" + c).size());
+        }
+        for (int d = 0; d < 40; d++) {
+            List<Map<String, Object>> rows = repository.findByDoctorId("doc" + d);
+            assertEquals(1, rows.size());
+            assertEquals(ids.get("doc" + d), ((Number) rows.get(0).get("id")).longValue(), "moved rows keep their id");
+        }
+        int moved = (int) resharding.status().get("doctorsMoved");
+        assertTrue(moved > 0);
+        Mockito.verify(versions, Mockito.times(moved)).onMoved(Mockito.anyString(), Mockito.anyCollection());
+    }
+
+    @Test
+    void reshardingIsRefusedUnlessSingleInstanceIsDeclared() {
+        ShardRouter router = persistedRouter(List.of("shard0", "shard1"));
+        ReshardingService resharding = resharding(router, Mockito.mock(BookingVersionService.class));
+        ReflectionTestUtils.setField(resharding, "singleInstance", false);
+
+        assertThrows(IllegalStateException.class, () -> resharding.start(List.of("shard0", "shard1", "shard2")));
+        assertFalse(router.isResharding());
+        assertNull(ringRepository().load().getTargetNodes(), "nothing may be persisted for a refused resharding");
+    }
+
+    @Test
+    void otherInstancesAndRestartsFollowThePersistedRing() throws Exception {
+        ShardRouter router = persistedRouter(List.of("shard0", "shard1"));
+        AppointmentRepository repository = repositoryFor(router);
+        for (int d = 0; d < 40; d++) {
+            repository.save(appointment("doc" + d, "follow@example.com"));
+        }
+        // another instance that started before the resharding, with the ring from its configuration
+        ShardRouter other = persistedRouter(List.of("shard0", "shard1"));
+
+        ReshardingService resharding = resharding(router, Mockito.mock(BookingVersionService.class));
+        long epoch = router.getEpoch();
+        assertTrue(ringRepository().beginResharding(epoch, List.of("shard0", "shard1", "shard2")));
+        router.beginResharding(List.of("shard0", "shard1", "shard2"), epoch + 1);
+        // the bulk pass only, no cut-over yet; the other instance catches up mid-resharding
+        ReflectionTestUtils.invokeMethod(resharding, "moveRemainingDoctors");
+        other.follow(ringRepository().load());
+        assertTrue(other.isResharding());
+        for (int d = 0; d < 40; d++) {
+            assertEquals(router.ownerOf("doc" + d), other.ownerOf("doc" + d));
+        }
+        assertEquals(40, repositoryFor(other).findByContact("follow@example.com").size(),
+            "copied rows must not be dropped as not owned on the new owner");
+
+        resharding.run();
+        other.follow(ringRepository().load());
+        assertFalse(other.isResharding());
+        assertEquals(List.of("shard0", "shard1", "shard2"), other.getRingNodes());
+
+        // a restart reads the ring from the database, not from sharding.ring
+        ShardRouter restarted = persistedRouter(List.of("shard0", "shard1"));
+        assertEquals(List.of("shard0", "shard1", "shard2"), restarted.getRingNodes());
+        for (int d = 0; d < 40; d++) {
+            assertEquals(router.ownerOf("doc" + d), restarted.ownerOf("doc" + d));
+            assertEquals(1, repositoryFor(restarted).findByDoctorId("doc" + d).size());
+        }
+    }
+
+    @Test
+    void orphansStayUntilEveryLiveInstanceFollowsTheNewRing() throws Exception {
+        ShardRouter router = persistedRouter(List.of("shard0", "shard1"));
+        AppointmentRepository repository = repositoryFor(router);
+        for (int d = 0; d < 40; d++) {
+            repository.save(appointment("doc" + d, "lag@example.com"));
+        }
+        ShardRingRepository rings = ringRepository();
+        rings.heartbeat("lagging", router.getEpoch());
+
+        ReshardingService resharding = resharding(router, Mockito.mock(BookingVersionService.class));
+        resharding.start(List.of("shard0", "shard1", "shard2"));
+        Thread.sleep(2500);
+        assertFalse(router.isResharding());
+        assertTrue(totalRows() > 40, "rows on the old owners are still read by the lagging instance");
+
+        rings.heartbeat("lagging", router.getEpoch());
+        awaitFinished(resharding);
+        assertEquals(40, totalRows());
+    }
+
+    @Test
+    void groupCommitGivesEachCallerItsOwnIdOrFailure() throws Exception {
+        ShardRouter router = new ShardRouter(shards, List.of("shard0", "shard1", "shard2"), 64);
+        AppointmentRepository repository = repositoryFor(router);
+        BookingBatchWriter writer = new BookingBatchWriter();
+        ReflectionTestUtils.setField(writer, "appointmentRepository", repository);
+        ReflectionTestUtils.setField(writer, "shardRouter", router);
+        ReflectionTestUtils.setField(writer, "tracer", new Tracer());
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "maxBatchSize", 16);
+        ReflectionTestUtils.setField(writer, "maxWaitMicros", 20_000L);
+        ReflectionTestUtils.setField(writer, "flushers", 1);
+        writer.init();
+
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                Appointment appointment = appointment("doc" + (i % 10), "batch@example.com");
+                ids.add(callers.submit(() -> writer.insert(appointment)));
+            }
+            Appointment broken = appointment("doc1", "batch@example.com");
+            broken.setReason(null);
+            Future<Long> failed = callers.submit(() -> writer.insert(broken));
+            Appointment unroutable = appointment(null, "batch@example.com");
+            Future<Long> rejected = callers.submit(() -> writer.insert(unroutable));
+
+            Set<Long> seen = new HashSet<>();
+            for (Future<Long> id : ids) {
+                assertTrue(seen.add(id.get()), "ids are unique across shards");
+            }
+            assertThrows(ExecutionException.class, failed::get);
+            assertThrows(ExecutionException.class, rejected::get);
+            assertEquals(40, repository.findByContact("batch@example.com").size());
+            assertTrue((long) writer.stats().get("batches") < 41, "concurrent bookings should share commits");
+        } finally {
+            callers.shutdownNow();
+            writer.shutdown();
+        }
+    }
+
+    private ShardRingRepository ringRepository() {
+        ShardRingRepository rings = new ShardRingRepository();
+        ReflectionTestUtils.setField(rings, "jdbcTemplate", primary);
+        return rings;
+    }
+
+    // what ShardingConfig does at startup
+    private ShardRouter persistedRouter(List<String> configuredRing) {
+        ShardRingRepository rings = ringRepository();
+        if (rings.load() == null) {
+            rings.initialize(configuredRing);
+        }
+        ShardRingRepository.Ring ring = rings.load();
+        ShardRouter router = new ShardRouter(shards, ring.getNodes(), 64);
+        router.follow(ring);
+        return router;
+    }
+
+    private ReshardingService resharding(ShardRouter router, BookingVersionService versions) {
+        ReshardingService resharding = new ReshardingService();
+        ReflectionTestUtils.setField(resharding, "shardRouter", router);
+        ReflectionTestUtils.setField(resharding, "ringRepository", ringRepository());
+        ReflectionTestUtils.setField(resharding, "bookingVersionService", versions);
+        ReflectionTestUtils.setField(resharding, "cleanupGraceMillis", 0L);
+        ReflectionTestUtils.setField(resharding, "singleInstance", true);
+        ReflectionTestUtils.setField(resharding, "ringRefreshSeconds", 1L);
+        ReflectionTestUtils.setField(resharding, "instanceExpirySeconds", 60L);
+        return resharding;
+    }
+
+    private static void awaitFinished(ReshardingService resharding) throws InterruptedException {
+        Thread worker = (Thread) ReflectionTestUtils.getField(resharding, "worker");
+        worker.join(10_000);
+        assertFalse(worker.isAlive());
+        assertNull(resharding.status().get("lastError"));
+    }
+
+    private int totalRows() {
+        int total = 0;
+        for (JdbcTemplate jdbc : shards.values()) {
+            total += jdbc.queryForObject("SELECT COUNT(*) FROM appointments", Integer.class);
+        }
+        return total;
+    }
+
+    private AppointmentRepository repositoryFor(ShardRouter router) {
+        AppointmentIdAllocator allocator = new AppointmentIdAllocator();
+        ReflectionTestUtils.setField(allocator, "jdbcTemplate", primary);
+        ReflectionTestUtils.setField(allocator, "shardRouter", router);
+        ReflectionTestUtils.setField(allocator, "blockSize", 8);
+        AppointmentRepository repository = new AppointmentRepository();
+        ReflectionTestUtils.setField(repository, "shardRouter", router);
+        ReflectionTestUtils.setField(repository, "idAllocator", allocator);
+        return repository;
+    }
+
+    private static Appointment appointment(String doctorId, String contact) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctorId(doctorId);
+        appointment.setDate(LocalDate.of(2025, 7, 1));
+        appointment.setTime(LocalTime.of(10, 30));
+        appointment.setReason("Checkup");
+        appointment.setContact(contact);
+        return appointment;
+    }
+}
@@ -0,0 +1,61 @@
+package org.doc.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void admitsUpToTheLimitAndReleasesEachPermitOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 1, 10, 2.0);
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        assertNull(limiter.tryAcquire());
+        assertEquals(3, limiter.getInFlight());
+
+        permits.get(0).release();
+        permits.get(0).release();
+        assertEquals(2, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyIsSteadyAndTheLimitIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 50, 2.0);
+
+        for (int round = 0; round < 50; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            AdaptiveConcurrencyLimiter.Permit permit;
+            while ((permit = limiter.tryAcquire()) != null) {
+                permits.add(permit);
+            }
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+        }
+        assertTrue(limiter.getLimit() > 4, "limit should probe upwards, got " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 50);
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesButNotBelowTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 50, 2.0);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire().release();
+        }
+        int baseline = limiter.getLimit();
+
+        for (int i = 0; i < 40; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            Thread.sleep(5);
+            permit.release();
+        }
+        assertTrue(limiter.getLimit() < baseline, "limit should back off from " + baseline + ", got " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+}
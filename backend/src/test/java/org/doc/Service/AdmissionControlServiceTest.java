@@ -0,0 +1,68 @@
+package org.doc.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlServiceTest {
+
+    @Test
+    void limitsEachContactAndClientSeparately() {
+        AdmissionControlService admission = admission(2, 3, 10);
+
+        for (int i = 0; i < 2; i++) {
+            admission.admit("patient@example.com", "10.0.0.1").complete();
+        }
+        AdmissionControlService.Decision contactLimited = admission.admit("patient@example.com", "10.0.0.2");
+        assertEquals(AdmissionControlService.Outcome.RATE_LIMITED, contactLimited.getOutcome());
+        assertTrue(contactLimited.getRetryAfterSeconds() >= 1);
+
+        admission.admit("other@example.com", "10.0.0.1").complete();
+        assertEquals(AdmissionControlService.Outcome.RATE_LIMITED,
+            admission.admit("third@example.com", "10.0.0.1").getOutcome());
+    }
+
+    @Test
+    void contactRejectionRefundsTheClientToken() {
+        AdmissionControlService admission = admission(1, 2, 10);
+
+        admission.admit("patient@example.com", "10.0.0.1").complete();
+        assertEquals(AdmissionControlService.Outcome.RATE_LIMITED,
+            admission.admit("patient@example.com", "10.0.0.1").getOutcome());
+        assertTrue(admission.admit("other@example.com", "10.0.0.1").isAdmitted(),
+            "the contact rejection must not use up the client's last token");
+    }
+
+    @Test
+    void overloadRejectionRefundsClientAndContactTokens() {
+        AdmissionControlService admission = admission(1, 2, 1);
+
+        AdmissionControlService.Decision running = admission.admit("first@example.com", "10.0.0.9");
+        assertTrue(running.isAdmitted());
+        AdmissionControlService.Decision overloaded = admission.admit("patient@example.com", "10.0.0.1");
+        assertEquals(AdmissionControlService.Outcome.OVERLOADED, overloaded.getOutcome());
+        overloaded.complete();
+        running.complete();
+        assertEquals(0, admission.getInFlight());
+
+        // the retry after the overload still has both tokens
+        assertTrue(admission.admit("patient@example.com", "10.0.0.1").isAdmitted());
+    }
+
+    private static AdmissionControlService admission(double contactCapacity, double clientCapacity, int concurrency) {
+        AdmissionControlService admission = new AdmissionControlService();
+        ReflectionTestUtils.setField(admission, "contactCapacity", contactCapacity);
+        ReflectionTestUtils.setField(admission, "contactRefillPerMinute", 0.0001);
+        ReflectionTestUtils.setField(admission, "clientCapacity", clientCapacity);
+        ReflectionTestUtils.setField(admission, "clientRefillPerSecond", 0.0001);
+        ReflectionTestUtils.setField(admission, "initialLimit", concurrency);
+        ReflectionTestUtils.setField(admission, "minLimit", concurrency);
+        ReflectionTestUtils.setField(admission, "maxLimit", concurrency);
+        ReflectionTestUtils.setField(admission, "latencyTolerance", 2.0);
+        ReflectionTestUtils.setField(admission, "overloadRetryAfterSeconds", 1L);
+        ReflectionTestUtils.setField(admission, "maxTrackedBuckets", 1000);
+        admission.init();
+        return admission;
+    }
+}
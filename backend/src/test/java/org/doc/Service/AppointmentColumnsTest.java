@@ -0,0 +1,146 @@
+package org.doc.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentColumnsTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 3, 31);
+
+    @Test
+    void selectOrdersByDateTimeThenInsertion() {
+        AppointmentColumns columns = new AppointmentColumns(FROM, TO, 4);
+        append(columns, 1, "doc1", FROM.plusDays(2), "09:00", "a@example.com", null);
+        append(columns, 2, "doc1", FROM, "15:30", "b@example.com", null);
+        append(columns, 3, "doc1", FROM, "09:00", "c@example.com", null);
+        append(columns, 4, "doc1", FROM, "09:00", "d@example.com", null);
+        append(columns, 5, "doc1", TO, "00:00", "e@example.com", null);
+
+        assertEquals(List.of(3L, 4L, 2L, 1L, 5L), ids(columns.select(null, null, null, FROM, TO)));
+        assertEquals(List.of(3L, 4L, 2L), ids(columns.select(null, null, null, FROM, FROM)));
+    }
+
+    @Test
+    void selectReturnsRowsShapedLikeJdbcRows() {
+        AppointmentColumns columns = new AppointmentColumns(FROM, TO, 4);
+        append(columns, 7, "doc1", FROM, "10:15", "a@example.com", null);
+
+        Map<String, Object> row = columns.select(null, null, null, FROM, TO).get(0);
+        assertEquals(7L, row.get("id"));
+        assertEquals("doc1", row.get("doctor_id"));
+        assertEquals(java.sql.Date.valueOf(FROM), row.get("date"));
+        assertEquals(java.sql.Time.valueOf(LocalTime.of(10, 15)), row.get("time"));
+        assertEquals("a@example.com", row.get("contact"));
+        assertEquals("SCHEDULED", row.get("status"));
+    }
+
+    @Test
+    void filtersCombineAndUnknownValuesMatchNothing() {
+        AppointmentColumns columns = new AppointmentColumns(FROM, TO, 4);
+        append(columns, 1, "doc1", FROM, "09:00", "a@example.com", "SCHEDULED");
+        append(columns, 2, "doc1", FROM, "10:00", "b@example.com", "CANCELLED");
+        append(columns, 3, "doc2", FROM, "11:00", "a@example.com", "SCHEDULED");
+
+        assertEquals(List.of(1L, 2L), ids(columns.select("doc1", null, null, FROM, TO)));
+        assertEquals(List.of(1L, 3L), ids(columns.select(null, "a@example.com", null, FROM, TO)));
+        assertEquals(List.of(1L), ids(columns.select("doc1", "a@example.com", "SCHEDULED", FROM, TO)));
+        assertEquals(List.of(2L), ids(columns.select(null, null, "CANCELLED", FROM, TO)));
+
+        // values the dictionaries have never seen must not match anything (nor a row whose code is 0)
+        assertTrue(columns.select("doc9", null, null, FROM, TO).isEmpty());
+        assertTrue(columns.select(null, "nobody@example.com", null, FROM, TO).isEmpty());
+        assertTrue(columns.select(null, null, "COMPLETED", FROM, TO).isEmpty());
+        assertTrue(columns.select("doc1", null, "COMPLETED", FROM, TO).isEmpty());
+    }
+
+    @Test
+    void appendKeepsOnlyRowsInsideTheWindow() {
+        AppointmentColumns columns = new AppointmentColumns(FROM, TO, 4);
+        assertFalse(append(columns, 1, "doc1", FROM.minusDays(1), "09:00", "a@example.com", null));
+        assertFalse(append(columns, 2, "doc1", TO.plusDays(1), "09:00", "a@example.com", null));
+        assertTrue(append(columns, 3, "doc1", TO, "09:00", "a@example.com", null));
+        assertEquals(1, columns.size());
+        assertTrue(columns.covers(FROM, TO));
+        assertFalse(columns.covers(FROM.minusDays(1), TO));
+    }
+
+    @Test
+    void appendIfAbsentAndSetStatusFindRowsByDoctorAndId() {
+        AppointmentColumns columns = new AppointmentColumns(FROM, TO, 4);
+        append(columns, 1, "doc1", FROM, "09:00", "a@example.com", null);
+
+        assertFalse(columns.appendIfAbsent(1, "doc1", FROM, LocalTime.of(9, 0), "checkup", "a@example.com", null, 0));
+        // ids are per shard, so the same id under another doctor is a different appointment
+        assertTrue(columns.appendIfAbsent(1, "doc2", FROM, LocalTime.of(9, 0), "checkup", "b@example.com", null, 0));
+
+        assertTrue(columns.setStatus("doc1", 1, "CANCELLED"));
+        assertFalse(columns.setStatus("doc3", 1, "CANCELLED"));
+        assertEquals(List.of(1L), ids(columns.select("doc1", null, "CANCELLED", FROM, TO)));
+        assertEquals(List.of(1L), ids(columns.select("doc2", null, "SCHEDULED", FROM, TO)));
+    }
+
+    @Test
+    void readersSeeCompleteRowsWhileTheWriterAppendsAndGrows() throws Exception {
+        int rows = 50_000;
+        AppointmentColumns columns = new AppointmentColumns(FROM, TO, 16);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        CountDownLatch started = new CountDownLatch(4);
+        try {
+            List<Future<Integer>> results = new java.util.ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                results.add(readers.submit(() -> {
+                    started.countDown();
+                    int reads = 0;
+                    int seen = 0;
+                    while (seen < rows) {
+                        List<Map<String, Object>> selected = columns.select(null, null, null, FROM, TO);
+                        assertTrue(selected.size() >= seen, "published rows never disappear");
+                        seen = selected.size();
+                        for (Map<String, Object> row : selected) {
+                            long id = (Long) row.get("id");
+                            // every column of a visible row belongs to that row, none is missing
+                            assertEquals("doc" + id % 7, row.get("doctor_id"));
+                            assertEquals("p" + id + "@example.com", row.get("contact"));
+                            assertEquals("SCHEDULED", row.get("status"));
+                            assertNotNull(row.get("reason"));
+                        }
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (long id = 0; id < rows; id++) {
+                columns.append(id, "doc" + id % 7, FROM.plusDays(id % 31), LocalTime.ofSecondOfDay(id % 86_400),
+                    "reason" + id % 13, "p" + id + "@example.com", null, id);
+            }
+            for (Future<Integer> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(rows, columns.select(null, null, null, FROM, TO).size());
+    }
+
+    private static boolean append(AppointmentColumns columns, long id, String doctorId, LocalDate date, String time,
+                                  String contact, String status) {
+        return columns.append(id, doctorId, date, LocalTime.parse(time), "checkup", contact, status, 0);
+    }
+
+    private static List<Long> ids(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> (Long) row.get("id")).toList();
+    }
+}
@@ -0,0 +1,159 @@
+package org.doc.Service;
+
+import org.doc.Repository.AppointmentStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AppointmentStatsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private AppointmentStatsRepository repository;
+    private AppointmentStatsService stats;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AppointmentStatsRepository.class);
+        when(repository.findAll()).thenReturn(List.of());
+        when(repository.countFromAppointments()).thenReturn(List.of());
+        stats = new AppointmentStatsService();
+        // a zero flush interval keeps the wait between the two counts at one second
+        ReflectionTestUtils.setField(stats, "flushIntervalSeconds", 0L);
+        ReflectionTestUtils.setField(stats, "reconcileIntervalMinutes", 600L);
+        ReflectionTestUtils.setField(stats, "statsRepository", repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stats.shutdown();
+    }
+
+    @Test
+    void noDriftWritesNoCorrectionsAndRefreshesTheCounters() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 4)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 4), cell("doc2", "CANCELLED", 0)));
+
+        Map<String, Object> result = stats.reconcile();
+
+        assertEquals(0L, result.get("drift"));
+        verify(repository, never()).addDeltas(any());
+        verify(repository, times(1)).countFromAppointments();
+        assertEquals(4L, stats.forDoctor("doc1").get("total"));
+    }
+
+    @Test
+    void correctsDriftThatPersistsAcrossBothCounts() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 3), cell("doc1", "NO_SHOW", 2)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 5), cell("doc1", "COMPLETED", 1)));
+
+        Map<String, Object> result = stats.reconcile();
+
+        Map<String, Long> written = corrections();
+        assertEquals(Map.of("doc1/SCHEDULED", 2L, "doc1/NO_SHOW", -2L, "doc1/COMPLETED", 1L), written);
+        assertEquals(5L, result.get("drift"));
+        assertEquals(3, result.get("correctedCells"));
+        assertEquals(6L, stats.overall().get("total"));
+    }
+
+    @Test
+    void leavesDriftAloneThatAnotherInstanceFlushedInTheMeantime() throws Exception {
+        // the first count sees 2 bookings another instance hasn't flushed yet; by the second it has
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 3)), List.of(cell("doc1", "SCHEDULED", 5)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 5)));
+
+        Map<String, Object> result = stats.reconcile();
+
+        verify(repository, never()).addDeltas(any());
+        assertEquals(0L, result.get("drift"));
+        verify(repository, times(2)).countFromAppointments();
+    }
+
+    @Test
+    void correctsOnlyWhatIsLeftWhenTheDriftShrinks() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 2)), List.of(cell("doc1", "SCHEDULED", 4)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 5)));
+
+        stats.reconcile();
+
+        assertEquals(Map.of("doc1/SCHEDULED", 1L), corrections());
+    }
+
+    @Test
+    void ignoresDriftThatChangesDirection() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 4)), List.of(cell("doc1", "SCHEDULED", 7)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 5)), List.of(cell("doc1", "SCHEDULED", 6)));
+
+        stats.reconcile();
+
+        verify(repository, never()).addDeltas(any());
+    }
+
+    @Test
+    void bookingsDuringTheSecondCountAreKeptInTheCounters() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 1)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 2))).thenAnswer(invocation -> {
+            stats.onBooked("doc1", DAY, "SCHEDULED");
+            return List.of(cell("doc1", "SCHEDULED", 2));
+        });
+
+        stats.reconcile();
+
+        // the count didn't include the booking made while it ran, so it is added on top
+        assertEquals(3L, stats.forDoctorDay("doc1", DAY).get("total"));
+    }
+
+    @Test
+    void aRequestedReconciliationRunsInTheBackgroundOneAtATime() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(cell("doc1", "SCHEDULED", 1)));
+        when(repository.countFromAppointments()).thenReturn(List.of(cell("doc1", "SCHEDULED", 2)));
+        ReflectionTestUtils.setField(stats, "flushIntervalSeconds", 1L);
+        stats.init();
+
+        long start = System.nanoTime();
+        stats.startReconcile();
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 500, "the request must not wait for the recount");
+        assertEquals(true, stats.status().get("reconciling"));
+        assertThrows(IllegalStateException.class, stats::startReconcile);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Boolean.TRUE.equals(stats.status().get("reconciling")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Map<?, ?> last = (Map<?, ?>) stats.status().get("lastReconcile");
+        assertEquals(1L, last.get("drift"));
+        assertEquals(2L, stats.forDoctor("doc1").get("total"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> corrections() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).addDeltas(captor.capture());
+        Map<String, Long> written = new HashMap<>();
+        for (Object[] row : captor.getValue()) {
+            written.put(row[0] + "/" + row[2], (Long) row[3]);
+        }
+        return written;
+    }
+
+    private static Map<String, Object> cell(String doctorId, String status, long count) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("doctor_id", doctorId);
+        row.put("date", Date.valueOf(DAY));
+        row.put("status", status);
+        row.put("count", count);
+        return row;
+    }
+}
@@ -0,0 +1,242 @@
+package org.doc.Service;
+
+import org.doc.Entity.Appointment;
+import org.doc.Repository.AppointmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingJournalTest {
+
+    private static final String DOCTOR = "doc1";
+    // [int length][int crc][long seq] + type, id, writeUTF("doc1"), epoch day, second of day
+    private static final int RECORD = 16 + 1 + 8 + 2 + DOCTOR.length() + 8 + 4;
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    @TempDir
+    Path dir;
+
+    private final List<BookingJournal> started = new ArrayList<>();
+    private AppointmentRepository appointments;
+    private BookingVersionService versions;
+
+    @BeforeEach
+    void setUp() {
+        appointments = mock(AppointmentRepository.class);
+        versions = mock(BookingVersionService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(journal -> ReflectionTestUtils.invokeMethod(journal, "closeSegment"));
+    }
+
+    @Test
+    void recoversFromTheSnapshotPlusTheJournalTail() throws Exception {
+        BookingJournal first = start();
+        first.recordBooked(booking(1, "09:00"));
+        first.recordBooked(booking(2, "09:30"));
+        first.snapshot();
+        first.recordBooked(booking(3, "10:00"));
+        first.recordReleased(booking(1, "09:00"));
+        crash(first);
+
+        appointments = mock(AppointmentRepository.class);
+        BookingJournal second = start();
+
+        Map<String, Object> recovery = recovery(second);
+        assertEquals("snapshot+journal", recovery.get("source"));
+        assertEquals(2L, recovery.get("snapshotSeq"));
+        assertEquals(2L, recovery.get("replayedEvents"));
+        assertEquals(4L, recovery.get("lastSeq"));
+        assertEquals(List.of(LocalTime.of(9, 30), LocalTime.of(10, 0)), second.getState().bookedTimes(DOCTOR, DAY));
+        // the snapshot knew how far the catch-up got, so no full rebuild from the database
+        verify(appointments, never()).findByDateRange(any(), any());
+        assertNull(((Map<?, ?>) second.stats().get("lastCatchUp")).get("full"));
+    }
+
+    @Test
+    void truncatesTheJournalAtARecordWithABadChecksum() throws Exception {
+        BookingJournal first = start();
+        first.recordBooked(booking(1, "09:00"));
+        first.recordBooked(booking(2, "09:30"));
+        first.recordBooked(booking(3, "10:00"));
+        crash(first);
+        Path segment = onlySegment();
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, RECORD + 16 + 12);
+            b.put(0, (byte) (b.get(0) ^ 0x5A)).rewind();
+            ch.write(b, RECORD + 16 + 12);
+        }
+
+        BookingJournal second = start();
+
+        assertEquals(segment.getFileName() + "@" + RECORD, recovery(second).get("truncatedAt"));
+        assertEquals(1L, recovery(second).get("lastSeq"));
+        assertEquals(List.of(LocalTime.of(9, 0)), second.getState().bookedTimes(DOCTOR, DAY));
+
+        // the tail was zeroed, so appending continues cleanly and survives the next restart
+        second.recordBooked(booking(4, "11:00"));
+        crash(second);
+        BookingJournal third = start();
+        assertNull(recovery(third).get("truncatedAt"));
+        assertEquals(2L, recovery(third).get("lastSeq"));
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(11, 0)), third.getState().bookedTimes(DOCTOR, DAY));
+    }
+
+    @Test
+    void dropsATornRecordAtTheEndOfTheFile() throws Exception {
+        BookingJournal first = start();
+        first.recordBooked(booking(1, "09:00"));
+        first.recordBooked(booking(2, "09:30"));
+        first.recordBooked(booking(3, "10:00"));
+        crash(first);
+        Path segment = onlySegment();
+        // the process died while the third record's bytes were reaching the file
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(2L * RECORD + 20);
+        }
+
+        BookingJournal second = start();
+
+        assertEquals(segment.getFileName() + "@" + (2 * RECORD), recovery(second).get("truncatedAt"));
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(9, 30)), second.getState().bookedTimes(DOCTOR, DAY));
+        second.recordBooked(booking(4, "10:30"));
+        assertEquals(3L, second.stats().get("lastSeq"));
+    }
+
+    @Test
+    void catchUpRereadsOnlyTheDoctorDaysThatChanged() throws Exception {
+        BookingJournal journal = start();
+        journal.recordBooked(booking(1, "09:00"));
+        Instant now = Instant.now();
+        when(versions.doctorChangesAt(any())).thenReturn(List.of(change("doc2", 1, 7, now)));
+        when(appointments.findByIds("doc2", List.of(7L))).thenReturn(List.of(row(7, "doc2", "10:00", "SCHEDULED")));
+        when(appointments.search("doc2", null, null, DAY, DAY)).thenReturn(List.of(
+            row(7, "doc2", "10:00", "SCHEDULED"), row(8, "doc2", "10:00", "CANCELLED"), row(9, "doc2", "11:00", "SCHEDULED")));
+
+        Map<String, Object> result = journal.catchUp();
+
+        assertEquals(1, result.get("days"));
+        assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(11, 0)), journal.getState().bookedTimes("doc2", DAY));
+        assertEquals(List.of(LocalTime.of(9, 0)), journal.getState().bookedTimes(DOCTOR, DAY));
+        verify(appointments, times(1)).findByDateRange(any(), any());
+
+        // the overlap returns the same change again: already applied, nothing is re-read
+        journal.catchUp();
+        verify(appointments, times(1)).findByIds(any(), any());
+
+        // appointment 7 cancelled elsewhere
+        when(versions.doctorChangesAt(any())).thenReturn(List.of(change("doc2", 1, 7, now), change("doc2", 2, 7, now.plusSeconds(1))));
+        when(appointments.search("doc2", null, null, DAY, DAY)).thenReturn(List.of(
+            row(7, "doc2", "10:00", "CANCELLED"), row(9, "doc2", "11:00", "SCHEDULED")));
+        journal.catchUp();
+        assertEquals(List.of(LocalTime.of(11, 0)), journal.getState().bookedTimes("doc2", DAY));
+        verify(appointments, times(1)).findByDateRange(any(), any());
+    }
+
+    @Test
+    void rebuildsFromTheDatabaseWhenBookingChangesMayNoLongerReachBack() {
+        BookingJournal journal = start();
+        clearInvocations(versions);
+        ReflectionTestUtils.setField(journal, "changesSince", Instant.now().minusSeconds(13 * 3600));
+        when(appointments.findByDateRange(any(), any())).thenReturn(List.of(row(5, "doc3", "12:00", "SCHEDULED")));
+
+        Map<String, Object> result = journal.catchUp();
+
+        assertEquals(true, result.get("full"));
+        assertEquals(List.of(LocalTime.of(12, 0)), journal.getState().bookedTimes("doc3", DAY));
+        verify(versions, never()).doctorChangesAt(any());
+    }
+
+    private BookingJournal start() {
+        BookingJournal journal = new BookingJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(journal, "snapshotEvery", 10_000L);
+        ReflectionTestUtils.setField(journal, "retentionDays", 7);
+        ReflectionTestUtils.setField(journal, "flushIntervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(journal, "catchUpIntervalSeconds", 3600L);
+        ReflectionTestUtils.setField(journal, "catchUpOverlapSeconds", 60L);
+        ReflectionTestUtils.setField(journal, "changeRetentionHours", 24L);
+        ReflectionTestUtils.setField(journal, "appointmentRepository", appointments);
+        ReflectionTestUtils.setField(journal, "bookingVersionService", versions);
+        journal.init();
+        assertTrue(journal.isReady());
+        started.add(journal);
+        // the first catch-up runs in the background right after startup; let it finish
+        long deadline = System.currentTimeMillis() + 5000;
+        while (((Map<?, ?>) journal.stats().get("lastCatchUp")).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        return journal;
+    }
+
+    // stops the journal the way a killed process would: no final snapshot, only what was already mapped
+    private static void crash(BookingJournal journal) {
+        ((ScheduledExecutorService) ReflectionTestUtils.getField(journal, "background")).shutdownNow();
+        ReflectionTestUtils.invokeMethod(journal, "flush");
+        ReflectionTestUtils.invokeMethod(journal, "closeSegment");
+        ReflectionTestUtils.setField(journal, "ready", false);
+    }
+
+    private Path onlySegment() throws Exception {
+        try (var files = Files.list(dir)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().startsWith("journal-")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> recovery(BookingJournal journal) {
+        return (Map<String, Object>) journal.stats().get("lastRecovery");
+    }
+
+    private static Appointment booking(long id, String time) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctorId(DOCTOR);
+        appointment.setDate(DAY);
+        appointment.setTime(LocalTime.parse(time));
+        return appointment;
+    }
+
+    private static Map<String, Object> row(long id, String doctorId, String time, String status) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("doctor_id", doctorId);
+        row.put("date", java.sql.Date.valueOf(DAY));
+        row.put("time", java.sql.Time.valueOf(LocalTime.parse(time)));
+        row.put("status", status);
+        return row;
+    }
+
+    private static Map<String, Object> change(String doctorId, long version, long appointmentId, Instant at) {
+        return Map.of("doctor_id", doctorId, "version", version, "appointment_id", appointmentId,
+            "changed_at", Timestamp.from(at));
+    }
+}
@@ -0,0 +1,196 @@
+package org.doc.Service;
+
+import org.doc.Repository.AppointmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CalendarFeedServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 21);
+    private static final Pattern EVENT = Pattern.compile("UID:appointment-(\\d+)-.*?\r\nSEQUENCE:(\\d+)\r\n", Pattern.DOTALL);
+
+    private CalendarFeedService service;
+    private AppointmentRepository appointments;
+    private BookingVersionService versions;
+    private final List<Map<String, Object>> database = new ArrayList<>();
+    // {version, appointment id} of doctor1's changes
+    private final List<long[]> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        appointments = mock(AppointmentRepository.class);
+        versions = mock(BookingVersionService.class);
+        when(appointments.findByDoctorId(anyString())).thenAnswer(call -> database.stream()
+            .filter(row -> row.get("doctor_id").equals(call.getArgument(0)))
+            .toList());
+        when(appointments.findByIds(anyString(), anyCollection())).thenAnswer(call -> database.stream()
+            .filter(row -> row.get("doctor_id").equals(call.getArgument(0))
+                && call.<Collection<Long>>getArgument(1).contains((Long) row.get("id")))
+            .toList());
+        when(versions.doctorChangesSince(eq("doc1"), anyLong())).thenAnswer(call -> changes.stream()
+            .filter(change -> change[0] > call.<Long>getArgument(1))
+            .toList());
+        service = service();
+    }
+
+    @AfterEach
+    void stop() {
+        service.shutdown();
+    }
+
+    @Test
+    void escapesTextAndFoldsLinesAt75Octets() throws IOException {
+        String reason = "Follow-up; bring x-rays, old reports\\notes\nand the " + "très long ".repeat(12) + "note";
+        database.add(row(1, "doc1", LocalTime.of(9, 0), reason, "SCHEDULED"));
+
+        String ics = write(service.feed("doc1", 1));
+
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, "longer than 75 octets: " + line);
+        }
+        assertFalse(ics.replace("\r\n", "").contains("\n"), "only CRLF line breaks");
+        assertFalse(ics.replace("\r\n", "").contains("\r"));
+        assertTrue(ics.contains("\r\n "), "the summary is long enough to be folded");
+        String escaped = "SUMMARY:Follow-up\\; bring x-rays\\, old reports\\\\notes\\nand the " + "très long ".repeat(12) + "note";
+        assertTrue(unfold(ics).contains("\r\n" + escaped + "\r\n"), unfold(ics));
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+    }
+
+    @Test
+    void catchesUpFromBookingChangesOnly() throws IOException {
+        database.add(row(1, "doc1", LocalTime.of(9, 0), "checkup", "SCHEDULED"));
+        database.add(row(2, "doc1", LocalTime.of(10, 0), "checkup", "SCHEDULED"));
+        CalendarFeedService.Feed loaded = service.feed("doc1", 2);
+
+        database.set(0, row(1, "doc1", LocalTime.of(9, 0), "checkup", "CANCELLED"));
+        database.add(row(3, "doc1", LocalTime.of(11, 0), "new", "SCHEDULED"));
+        changes.add(new long[] {3, 1});
+        changes.add(new long[] {4, 3});
+        // recorded after the version the caller read, so not part of this feed yet
+        changes.add(new long[] {5, 2});
+        CalendarFeedService.Feed caughtUp = service.feed("doc1", 4);
+
+        assertSame(loaded, caughtUp);
+        assertEquals(3, caughtUp.size());
+        verify(appointments, times(1)).findByDoctorId("doc1");
+        verify(appointments).findByIds(eq("doc1"), argThat(ids -> ids.size() == 2 && ids.contains(1L) && ids.contains(3L)));
+        String ics = unfold(write(caughtUp));
+        assertTrue(ics.contains("STATUS:CANCELLED"));
+        assertEquals(Map.of(1L, 3L, 2L, 2L, 3L, 4L), sequences(ics));
+
+        // the version the feed is at is served from the cache
+        assertSame(caughtUp, service.feed("doc1", 4));
+        verify(versions, times(1)).doctorChangesSince(eq("doc1"), anyLong());
+    }
+
+    @Test
+    void reloadsTheWholeFeedOnceChangesMayHaveBeenPruned() {
+        database.add(row(1, "doc1", LocalTime.of(9, 0), "checkup", "SCHEDULED"));
+        CalendarFeedService.Feed stale = service.feed("doc1", 1);
+        // last synced just over half of the 24h retention ago
+        ReflectionTestUtils.setField(stale, "syncedAtMillis", System.currentTimeMillis() - TimeUnit.HOURS.toMillis(12) - 1_000);
+        database.add(row(2, "doc1", LocalTime.of(10, 0), "checkup", "SCHEDULED"));
+
+        CalendarFeedService.Feed reloaded = service.feed("doc1", 2);
+
+        assertNotSame(stale, reloaded);
+        assertEquals(2, reloaded.size());
+        verify(appointments, times(2)).findByDoctorId("doc1");
+        verify(versions, never()).doctorChangesSince(anyString(), anyLong());
+    }
+
+    @Test
+    void sequenceNeverGoesDown() throws IOException {
+        database.add(row(1, "doc1", LocalTime.of(9, 0), "checkup", "SCHEDULED"));
+        database.add(row(2, "doc1", LocalTime.of(10, 0), "checkup", "SCHEDULED"));
+        Map<Long, Long> first = sequences(unfold(write(service.feed("doc1", 5))));
+
+        database.set(1, row(2, "doc1", LocalTime.of(10, 0), "checkup", "CANCELLED"));
+        changes.add(new long[] {6, 2});
+        Map<Long, Long> caughtUp = sequences(unfold(write(service.feed("doc1", 6))));
+
+        // a restart loads the feed from scratch at the current version
+        service.shutdown();
+        service = service();
+        Map<Long, Long> afterRestart = sequences(unfold(write(service.feed("doc1", 6))));
+
+        assertEquals(Map.of(1L, 5L, 2L, 5L), first);
+        assertEquals(Map.of(1L, 5L, 2L, 6L), caughtUp);
+        assertEquals(Map.of(1L, 6L, 2L, 6L), afterRestart);
+        for (long id : List.of(1L, 2L)) {
+            assertTrue(first.get(id) <= caughtUp.get(id) && caughtUp.get(id) <= afterRestart.get(id), "appointment " + id);
+        }
+    }
+
+    private CalendarFeedService service() {
+        CalendarFeedService feeds = new CalendarFeedService();
+        ReflectionTestUtils.setField(feeds, "zoneProperty", "Asia/Kolkata");
+        ReflectionTestUtils.setField(feeds, "slotMinutes", 30);
+        ReflectionTestUtils.setField(feeds, "maxFeeds", 10);
+        ReflectionTestUtils.setField(feeds, "feedSecret", "secret");
+        ReflectionTestUtils.setField(feeds, "changeRetentionHours", 24L);
+        ReflectionTestUtils.setField(feeds, "appointmentRepository", appointments);
+        ReflectionTestUtils.setField(feeds, "bookingVersionService", versions);
+        feeds.init();
+        return feeds;
+    }
+
+    private static Map<String, Object> row(long id, String doctorId, LocalTime time, String reason, String status) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("doctor_id", doctorId);
+        row.put("date", Date.valueOf(DAY));
+        row.put("time", Time.valueOf(time));
+        row.put("reason", reason);
+        row.put("contact", "patient" + id + "@example.com");
+        row.put("status", status);
+        row.put("created_at", Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 12, 0)));
+        return row;
+    }
+
+    private static String write(CalendarFeedService.Feed feed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        feed.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String unfold(String ics) {
+        return ics.replace("\r\n ", "");
+    }
+
+    // SEQUENCE of each appointment's VEVENT
+    private static Map<Long, Long> sequences(String ics) {
+        Map<Long, Long> sequences = new LinkedHashMap<>();
+        Matcher event = EVENT.matcher(ics);
+        while (event.find()) {
+            sequences.put(Long.parseLong(event.group(1)), Long.parseLong(event.group(2)));
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,120 @@
+package org.doc.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoKdTreeTest {
+
+    @Test
+    void matchesABruteForceSearchOnRandomPoints() {
+        Random random = new Random(42);
+        int n = 2000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            lons[i] = random.nextDouble() * 360 - 180;
+        }
+        GeoKdTree tree = new GeoKdTree(lats, lons, IntStream.range(0, n).toArray());
+
+        double[][] queries = {{90, 0}, {-90, 0}, {0, 180}, {0, -179.99}, {28.6, 77.2}, {-33.9, 151.2}};
+        for (int q = 0; q < queries.length + 50; q++) {
+            double lat = q < queries.length ? queries[q][0] : random.nextDouble() * 180 - 90;
+            double lon = q < queries.length ? queries[q][1] : random.nextDouble() * 360 - 180;
+            int limit = 1 + random.nextInt(10);
+
+            List<GeoKdTree.Neighbor> found = tree.nearest(lat, lon, limit);
+            double[] expected = IntStream.range(0, n)
+                .mapToDouble(i -> haversineKm(lat, lon, lats[i], lons[i]))
+                .sorted().limit(limit).toArray();
+
+            assertEquals(limit, found.size());
+            for (int i = 0; i < limit; i++) {
+                GeoKdTree.Neighbor neighbor = found.get(i);
+                assertEquals(expected[i], neighbor.getDistanceKm(), 1e-6, "query " + lat + "," + lon + " rank " + i);
+                assertEquals(neighbor.getDistanceKm(), haversineKm(lat, lon, lats[neighbor.getId()], lons[neighbor.getId()]), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void findsPointsAcrossTheDateLine() {
+        GeoKdTree tree = new GeoKdTree(new double[] {0, 0, 0}, new double[] {179.9, -179.9, 90}, new int[] {7, 8, 9});
+
+        List<GeoKdTree.Neighbor> found = tree.nearest(0, 179.95, 2);
+
+        assertEquals(7, found.get(0).getId());
+        assertEquals(8, found.get(1).getId());
+        assertTrue(found.get(1).getDistanceKm() < 20);
+    }
+
+    @Test
+    void handlesManyPointsWithTheSameCoordinates() {
+        // equal keys are the worst case for the quickselect partitioning
+        int n = 500;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = i % 3 == 0 ? 12.97 : 28.63;
+            lons[i] = i % 3 == 0 ? 77.59 : 77.22;
+        }
+        GeoKdTree tree = new GeoKdTree(lats, lons, IntStream.range(0, n).toArray());
+
+        List<GeoKdTree.Neighbor> found = tree.nearest(12.97, 77.59, n);
+
+        assertEquals(n, found.size());
+        assertEquals(n, found.stream().mapToInt(GeoKdTree.Neighbor::getId).distinct().count());
+        for (int i = 0; i < n; i++) {
+            boolean bangalore = found.get(i).getId() % 3 == 0;
+            assertEquals(i < (n + 2) / 3, bangalore, "rank " + i);
+        }
+        assertEquals(0, found.get(0).getDistanceKm(), 1e-9);
+    }
+
+    @Test
+    void returnsEverythingInOrderWhenTheLimitExceedsTheSize() {
+        double[] lats = {10, 20, 30, 40};
+        double[] lons = {0, 0, 0, 0};
+        GeoKdTree tree = new GeoKdTree(lats, lons, new int[] {1, 2, 3, 4});
+
+        List<GeoKdTree.Neighbor> found = tree.nearest(41, 0, 10);
+
+        assertEquals(List.of(4, 3, 2, 1), found.stream().map(GeoKdTree.Neighbor::getId).toList());
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getDistanceKm() <= found.get(i).getDistanceKm());
+        }
+    }
+
+    @Test
+    void emptyTreeAndZeroLimitFindNothing() {
+        GeoKdTree empty = new GeoKdTree(new double[0], new double[0], new int[0]);
+        assertEquals(0, empty.size());
+        assertTrue(empty.nearest(0, 0, 5).isEmpty());
+
+        GeoKdTree tree = new GeoKdTree(new double[] {1}, new double[] {1}, new int[] {1});
+        assertTrue(tree.nearest(0, 0, 0).isEmpty());
+    }
+
+    @Test
+    void doesNotKeepTheCallersIdArray() {
+        int[] ids = {5, 6};
+        GeoKdTree tree = new GeoKdTree(new double[] {0, 50}, new double[] {0, 50}, ids);
+        Arrays.fill(ids, -1);
+
+        assertEquals(5, tree.nearest(0, 0, 1).get(0).getId());
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
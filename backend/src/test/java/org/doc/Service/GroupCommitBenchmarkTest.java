@@ -0,0 +1,63 @@
+package org.doc.Service;
+
+import org.doc.Repository.AppointmentIdAllocator;
+import org.doc.Repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GroupCommitBenchmarkTest {
+
+    private JdbcTemplate jdbc;
+    private AppointmentIdAllocator idAllocator;
+    private GroupCommitBenchmark benchmark;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        idAllocator = mock(AppointmentIdAllocator.class);
+        AppointmentRepository repository = new AppointmentRepository();
+        ReflectionTestUtils.setField(repository, "idAllocator", idAllocator);
+        benchmark = new GroupCommitBenchmark();
+        ReflectionTestUtils.setField(benchmark, "jdbc", jdbc);
+        ReflectionTestUtils.setField(benchmark, "appointmentRepository", repository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scratchRowsNeverDrawFromTheAppointmentIdSequence() throws Exception {
+        Map<String, Object> results = benchmark.run(4, 25, 10, 500);
+
+        verifyNoInteractions(idAllocator);
+        for (String mode : new String[] {"perRequest", "groupCommit"}) {
+            Map<String, Object> result = (Map<String, Object>) results.get(mode);
+            assertEquals(100L, result.get("rows"), mode);
+            assertEquals(0L, result.get("failures"), mode);
+        }
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM appointments_bench", Integer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void continuesAboveRowsLeftByAnInterruptedRun() throws Exception {
+        jdbc.execute("CREATE TABLE appointments_bench (id BIGINT AUTO_INCREMENT PRIMARY KEY, doctor_id VARCHAR(255) NOT NULL, "
+            + "date DATE NOT NULL, time TIME NOT NULL, reason VARCHAR(255) NOT NULL, contact VARCHAR(255) NOT NULL, "
+            + "status VARCHAR(50) DEFAULT 'SCHEDULED', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO appointments_bench (id, doctor_id, date, time, reason, contact) "
+            + "VALUES (1, 'bench-doc-0', CURRENT_DATE, CURRENT_TIME, 'benchmark', 'left@example.com')");
+
+        Map<String, Object> results = benchmark.run(2, 5, 5, 0);
+
+        assertEquals(0L, ((Map<String, Object>) results.get("perRequest")).get("failures"));
+        assertEquals(0L, ((Map<String, Object>) results.get("groupCommit")).get("failures"));
+    }
+}
@@ -0,0 +1,216 @@
+package org.doc.Service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.doc.Repository.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HealthMonitorTest {
+
+    private HttpServer ml;
+    private volatile int mlStatus = 405;
+    private JdbcTemplate shard;
+    private HealthMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ml = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ml.createContext("/predict", exchange -> {
+            exchange.sendResponseHeaders(mlStatus, -1);
+            exchange.close();
+        });
+        ml.start();
+        shard = mock(JdbcTemplate.class);
+        when(shard.queryForObject("SELECT 1", Integer.class)).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (monitor != null) {
+            monitor.shutdown();
+        }
+        ml.stop(0);
+    }
+
+    @Test
+    void readyAndUpWhenEveryCheckPasses() throws Exception {
+        monitor = start(List.of("db"));
+
+        Map<String, Object> readiness = monitor.readiness();
+
+        assertEquals(HealthMonitor.UP, readiness.get("status"));
+        assertEquals(true, readiness.get("ready"));
+        assertEquals("responded 405", dependency(readiness, "ml").get("detail"));
+        assertEquals(true, dependency(readiness, "db").get("critical"));
+        assertEquals(false, dependency(readiness, "ml").get("critical"));
+    }
+
+    @Test
+    void twilioWithoutCredentialsIsReportedAsNotConfigured() throws Exception {
+        monitor = start(List.of("db"));
+
+        Map<String, Object> sms = monitor.dependency("sms");
+
+        assertEquals(HealthMonitor.UP, sms.get("status"));
+        assertEquals("not configured", sms.get("detail"));
+    }
+
+    @Test
+    void aFailingOptionalDependencyOnlyDegrades() throws Exception {
+        mlStatus = 503;
+        monitor = start(List.of("db"));
+
+        Map<String, Object> readiness = monitor.readiness();
+
+        assertEquals(HealthMonitor.DEGRADED, readiness.get("status"));
+        assertEquals(true, readiness.get("ready"));
+        assertEquals(HealthMonitor.DOWN, dependency(readiness, "ml").get("status"));
+        assertTrue(monitor.isReady());
+    }
+
+    @Test
+    void aFailingCriticalDependencyMakesTheInstanceUnready() throws Exception {
+        when(shard.queryForObject("SELECT 1", Integer.class)).thenThrow(new IllegalStateException("connection refused"));
+        monitor = start(List.of("db"));
+
+        Map<String, Object> readiness = monitor.readiness();
+
+        assertEquals(HealthMonitor.DOWN, readiness.get("status"));
+        assertEquals(false, readiness.get("ready"));
+        assertEquals("IllegalStateException: connection refused", dependency(readiness, "db").get("detail"));
+        assertEquals(1L, dependency(readiness, "db").get("consecutiveFailures"));
+
+        check("db", () -> {
+            throw new IllegalStateException("still refused");
+        });
+        assertEquals(2L, monitor.dependency("db").get("consecutiveFailures"));
+        check("db", () -> "1 shard(s) answered");
+        assertEquals(0L, monitor.dependency("db").get("consecutiveFailures"));
+        assertTrue(monitor.isReady());
+    }
+
+    @Test
+    void theCriticalListDecidesWhatBlocksReadiness() throws Exception {
+        mlStatus = 503;
+        monitor = start(List.of("db", "ml"));
+
+        assertEquals(HealthMonitor.DOWN, monitor.readiness().get("status"));
+        assertFalse(monitor.isReady());
+    }
+
+    @Test
+    void aHangingCheckTimesOutAndIsNotStartedAgainWhileItHangs() throws Exception {
+        monitor = start(List.of("db"));
+        AtomicInteger started = new AtomicInteger();
+        Callable<String> hanging = () -> {
+            started.incrementAndGet();
+            Thread.sleep(2_000);
+            return "late";
+        };
+
+        long start = System.nanoTime();
+        check("db", hanging);
+        long tookMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(HealthMonitor.DOWN, monitor.dependency("db").get("status"));
+        assertEquals("timed out after 300 ms", monitor.dependency("db").get("detail"));
+        assertTrue(tookMillis < 1_500, "waited " + tookMillis + " ms");
+        assertFalse(monitor.isReady());
+
+        // the timed-out check was interrupted; a new round may start once it has let go
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (busy("db").get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        check("db", () -> "1 shard(s) answered");
+        assertEquals(HealthMonitor.UP, monitor.dependency("db").get("status"));
+        assertEquals(1, started.get());
+    }
+
+    @Test
+    void aCheckStillRunningIsSkipped() throws Exception {
+        monitor = start(List.of("db"));
+        busy("db").set(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        check("db", () -> "call " + calls.incrementAndGet());
+
+        assertEquals(0, calls.get());
+        assertEquals(HealthMonitor.UP, monitor.dependency("db").get("status"));
+    }
+
+    @Test
+    void staleResultsCountAsUnknown() throws Exception {
+        monitor = start(List.of("db"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> results = (Map<String, Map<String, Object>>) ReflectionTestUtils.getField(monitor, "results");
+        Map<String, Object> db = new LinkedHashMap<>(results.get("db"));
+        // the db interval is 1 hour; three missed rounds make the last result stale
+        db.put("checkedAtMillis", System.currentTimeMillis() - 3 * 3_600_000L - 1_000);
+        results.put("db", db);
+
+        Map<String, Object> readiness = monitor.readiness();
+
+        assertEquals(HealthMonitor.UNKNOWN, dependency(readiness, "db").get("status"));
+        assertEquals(true, dependency(readiness, "db").get("stale"));
+        assertEquals(false, readiness.get("ready"));
+        assertEquals(HealthMonitor.DOWN, readiness.get("status"));
+
+        db.put("checkedAtMillis", System.currentTimeMillis() - 2 * 3_600_000L);
+        assertEquals(true, monitor.readiness().get("ready"));
+    }
+
+    private HealthMonitor start(List<String> critical) throws InterruptedException {
+        ShardRouter router = mock(ShardRouter.class);
+        when(router.getShardNames()).thenReturn(Set.of("primary"));
+        when(router.jdbcFor("primary")).thenReturn(shard);
+
+        HealthMonitor health = new HealthMonitor();
+        ReflectionTestUtils.setField(health, "dbIntervalSeconds", 3600L);
+        ReflectionTestUtils.setField(health, "externalIntervalSeconds", 3600L);
+        ReflectionTestUtils.setField(health, "timeoutMillis", 300L);
+        ReflectionTestUtils.setField(health, "critical", critical);
+        ReflectionTestUtils.setField(health, "mlUrl", "http://127.0.0.1:" + ml.getAddress().getPort() + "/predict");
+        ReflectionTestUtils.setField(health, "twilioAccountSid", "");
+        ReflectionTestUtils.setField(health, "shardRouter", router);
+        ReflectionTestUtils.setField(health, "mailSender", mock(JavaMailSender.class));
+        health.init();
+
+        // every check runs once right away; wait for all four results
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (((Map<?, ?>) ReflectionTestUtils.getField(health, "results")).size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return health;
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtomicBoolean busy(String name) {
+        return ((Map<String, AtomicBoolean>) ReflectionTestUtils.getField(monitor, "running")).get(name);
+    }
+
+    private void check(String name, Callable<String> check) {
+        ReflectionTestUtils.invokeMethod(monitor, "run", name, check);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> dependency(Map<String, Object> readiness, String name) {
+        return ((Map<String, Map<String, Object>>) readiness.get("dependencies")).get(name);
+    }
+}
@@ -0,0 +1,87 @@
+package org.doc.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void deadlinesRoundDownToTheirTick() {
+        // 100 ms ticks, 8 buckets, 2 levels
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 2, START);
+        List<String> fired = new ArrayList<>();
+
+        assertFalse(wheel.add(START + 99, "same tick"), "a deadline in the current tick is due now");
+        assertFalse(wheel.add(START - 500, "past"));
+        assertTrue(wheel.add(START + 150, "next tick"));
+        assertTrue(wheel.add(START + 199, "end of next tick"));
+        assertEquals(2, wheel.size());
+
+        wheel.advanceTo(START + 99, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(START + 100, fired::add);
+        assertEquals(List.of("next tick", "end of next tick"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersCascadeDownAndFireOnTheirExactTick() {
+        // level 0: 4 x 10 ms, level 1: 4 x 40 ms, level 2: 4 x 160 ms
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, 3, 0);
+        assertEquals(640, wheel.getSpanMillis());
+        long[] deadlines = {10, 35, 40, 41, 155, 160, 161, 300, 479};
+        for (long deadline : deadlines) {
+            assertTrue(wheel.add(deadline, deadline));
+        }
+
+        List<Long> firedAt = new ArrayList<>();
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 640; now += 10) {
+            long tick = now;
+            wheel.advanceTo(now, deadline -> {
+                fired.add(deadline);
+                firedAt.add(tick);
+            });
+        }
+        assertEquals(deadlines.length, fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(fired.get(i) / 10 * 10, firedAt.get(i), "timer " + fired.get(i) + " fired on the wrong tick");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void aBigJumpFiresEverythingInOrderOfTicks() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000, 64, 4, START);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = START + 1000 + random.nextInt(3 * 24 * 3600) * 1000L + random.nextInt(1000);
+            deadlines.add(deadline);
+            assertTrue(wheel.add(deadline, deadline));
+        }
+        assertEquals(2000, wheel.size());
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(START + 4L * 24 * 3600 * 1000, fired::add);
+        assertEquals(2000, fired.size(), "every timer fires exactly once");
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(fired.get(i - 1) / 1000 <= fired.get(i) / 1000, "ticks must not go backwards");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsDeadlinesBeyondTheSpan() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 2, 0);
+        assertEquals(160, wheel.getSpanMillis());
+        assertThrows(IllegalArgumentException.class, () -> wheel.add(10_000, "too far"));
+    }
+}
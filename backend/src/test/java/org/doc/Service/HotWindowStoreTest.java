@@ -0,0 +1,147 @@
+package org.doc.Service;
+
+import org.doc.Entity.Appointment;
+import org.doc.Repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HotWindowStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private HotWindowStore store;
+    private AppointmentRepository appointments;
+    private BookingVersionService versions;
+    private final List<Map<String, Object>> database = new ArrayList<>();
+    private final List<Map<String, Object>> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        appointments = mock(AppointmentRepository.class);
+        versions = mock(BookingVersionService.class);
+        when(appointments.findByDateRange(any(), any())).thenAnswer(call -> new ArrayList<>(database));
+        when(appointments.findByIds(anyString(), anyCollection())).thenAnswer(call -> database.stream()
+            .filter(row -> row.get("doctor_id").equals(call.getArgument(0))
+                && call.<java.util.Collection<Long>>getArgument(1).contains((Long) row.get("id")))
+            .toList());
+        when(versions.doctorChangesAt(any())).thenAnswer(call -> changes.stream()
+            .filter(change -> !((Timestamp) change.get("changed_at")).toInstant().isBefore(call.getArgument(0)))
+            .toList());
+
+        store = new HotWindowStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "daysBack", 7);
+        ReflectionTestUtils.setField(store, "daysAhead", 31);
+        ReflectionTestUtils.setField(store, "refreshOverlapSeconds", 60L);
+        ReflectionTestUtils.setField(store, "appointmentRepository", appointments);
+        ReflectionTestUtils.setField(store, "bookingVersionService", versions);
+    }
+
+    @Test
+    void answersOnlyQueriesInsideTheLoadedWindow() {
+        assertNull(store.search(null, null, null, TODAY, TODAY), "nothing is served before the first load");
+
+        database.add(row(1, "doc1", TODAY, "SCHEDULED"));
+        database.add(row(2, "doc2", TODAY.plusDays(1), "SCHEDULED"));
+        store.reload();
+
+        assertEquals(List.of(1L), ids(store.search("doc1", null, null, TODAY.minusDays(7), TODAY.plusDays(31))));
+        assertNull(store.search(null, null, null, TODAY.minusDays(8), TODAY));
+        assertNull(store.search(null, null, null, TODAY, TODAY.plusDays(32)));
+        assertNull(store.search(null, null, null, null, TODAY));
+    }
+
+    @Test
+    void localBookingsAndStatusChangesApplyImmediately() {
+        store.reload();
+        Appointment appointment = new Appointment();
+        appointment.setId(5L);
+        appointment.setDoctorId("doc1");
+        appointment.setDate(TODAY);
+        appointment.setTime(LocalTime.of(9, 0));
+        appointment.setContact("a@example.com");
+        appointment.setReason("checkup");
+
+        store.onBooked(appointment);
+        store.onBooked(appointment);
+        assertEquals(List.of(5L), ids(store.search("doc1", null, "SCHEDULED", TODAY, TODAY)));
+
+        store.onStatusChanged("doc1", 5L, "CANCELLED");
+        assertTrue(store.search("doc1", null, "SCHEDULED", TODAY, TODAY).isEmpty());
+        assertEquals(List.of(5L), ids(store.search("doc1", null, "CANCELLED", TODAY, TODAY)));
+    }
+
+    @Test
+    void refreshPicksUpWritesFromOtherInstances() {
+        database.add(row(1, "doc1", TODAY, "SCHEDULED"));
+        store.reload();
+
+        // another instance books appointment 2 and cancels appointment 1
+        database.add(row(2, "doc1", TODAY, "SCHEDULED"));
+        database.set(0, row(1, "doc1", TODAY, "CANCELLED"));
+        changes.add(change("doc1", 1, 2));
+        changes.add(change("doc1", 2, 1));
+
+        assertEquals(2, store.refresh());
+        assertEquals(List.of(2L), ids(store.search("doc1", null, "SCHEDULED", TODAY, TODAY)));
+        assertEquals(List.of(1L), ids(store.search("doc1", null, "CANCELLED", TODAY, TODAY)));
+
+        // changes inside the overlap are read again but not re-applied
+        assertEquals(0, store.refresh());
+        verify(appointments, times(1)).findByIds(eq("doc1"), anyCollection());
+    }
+
+    @Test
+    void changesMadeDuringAReloadAreReplayedOntoTheNewWindow() {
+        database.add(row(1, "doc1", TODAY, "SCHEDULED"));
+        store.reload();
+        when(appointments.findByDateRange(any(), any())).thenAnswer(call -> {
+            List<Map<String, Object>> snapshot = new ArrayList<>(database);
+            // the cancellation commits after the reload read the row
+            store.onStatusChanged("doc1", 1L, "CANCELLED");
+            return snapshot;
+        });
+
+        Map<String, Object> result = store.reload();
+        assertEquals(1, result.get("replayed"));
+        assertEquals(List.of(1L), ids(store.search("doc1", null, "CANCELLED", TODAY, TODAY)));
+    }
+
+    private Map<String, Object> row(long id, String doctorId, LocalDate date, String status) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("doctor_id", doctorId);
+        row.put("date", Date.valueOf(date));
+        row.put("time", Time.valueOf(LocalTime.of(9, 0)));
+        row.put("reason", "checkup");
+        row.put("contact", "patient" + id + "@example.com");
+        row.put("status", status);
+        row.put("created_at", Timestamp.from(Instant.now()));
+        return row;
+    }
+
+    private static Map<String, Object> change(String doctorId, long appointmentId, long version) {
+        return Map.of("doctor_id", doctorId, "version", version, "appointment_id", appointmentId,
+            "changed_at", Timestamp.from(Instant.now()));
+    }
+
+    private static List<Long> ids(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> (Long) row.get("id")).toList();
+    }
+}
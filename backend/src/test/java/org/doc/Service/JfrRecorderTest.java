@@ -0,0 +1,88 @@
+package org.doc.Service;
+
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path dir;
+    private JfrRecorder recorder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createDirectory(tempDir.resolve("jfr"));
+        recorder = new JfrRecorder();
+        ReflectionTestUtils.setField(recorder, "dir", dir.toString());
+        ReflectionTestUtils.setField(recorder, "maxDurationSeconds", 60L);
+        ReflectionTestUtils.setField(recorder, "maxSizeMb", 50L);
+        ReflectionTestUtils.setField(recorder, "keep", 2);
+    }
+
+    @AfterEach
+    void stop() {
+        recorder.shutdown();
+    }
+
+    @Test
+    void recordsOneAtATimeWithoutTheEnvironment() throws Exception {
+        Map<String, Object> started = recorder.start(600);
+        assertEquals("RUNNING", started.get("state"));
+        assertEquals(60L, started.get("maxSeconds"), "capped by jfr.max-duration-seconds");
+        assertThrows(IllegalStateException.class, () -> recorder.start(10));
+
+        Path file = recorder.stop();
+
+        assertTrue(Files.size(file) > 0);
+        assertEquals("IDLE", recorder.status().get("state"));
+        assertEquals(List.of(file.getFileName().toString()), recorder.status().get("recordings"));
+        Set<String> types = RecordingFile.readAllEvents(file).stream()
+            .map(event -> event.getEventType().getName())
+            .collect(Collectors.toSet());
+        assertFalse(types.isEmpty());
+        assertFalse(types.contains("jdk.InitialEnvironmentVariable"), "credentials live in the environment");
+        assertFalse(types.contains("jdk.InitialSystemProperty"));
+        assertFalse(types.contains("jdk.JVMInformation"));
+    }
+
+    @Test
+    void keepsOnlyTheNewestRecordings() throws Exception {
+        for (String old : List.of("recording-20200101-000000.jfr", "recording-20200102-000000.jfr", "recording-20200103-000000.jfr")) {
+            Files.writeString(dir.resolve(old), "old");
+        }
+
+        recorder.start(10);
+        Path file = recorder.stop();
+
+        assertEquals(List.of(dir.resolve("recording-20200103-000000.jfr"), file), recorder.listRecordings());
+    }
+
+    @Test
+    void servesOnlyRecordingsInItsDirectory() throws Exception {
+        Files.writeString(dir.resolve("recording-20200101-000000.jfr"), "old");
+        Files.writeString(dir.resolve("notes.txt"), "not a recording");
+        Files.writeString(dir.getParent().resolve("outside.jfr"), "outside");
+
+        assertEquals(dir.resolve("recording-20200101-000000.jfr").toAbsolutePath().normalize(),
+            recorder.recordingFile("recording-20200101-000000.jfr"));
+        assertThrows(IllegalArgumentException.class, () -> recorder.recordingFile("notes.txt"));
+        assertThrows(IllegalArgumentException.class, () -> recorder.recordingFile("../outside.jfr"));
+        assertThrows(IllegalArgumentException.class, () -> recorder.recordingFile("missing.jfr"));
+        assertThrows(IllegalStateException.class, () -> recorder.stop(), "nothing recording");
+    }
+}
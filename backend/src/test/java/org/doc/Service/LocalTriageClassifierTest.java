@@ -0,0 +1,112 @@
+package org.doc.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalTriageClassifierTest {
+
+    private static final String MODEL = "classpath:models/triage-nb-v1.json";
+
+    private LocalTriageClassifier classifier;
+    private JsonNode model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResourceLoader loader = new DefaultResourceLoader();
+        classifier = new LocalTriageClassifier();
+        ReflectionTestUtils.setField(classifier, "modelLocation", MODEL);
+        ReflectionTestUtils.setField(classifier, "resourceLoader", loader);
+        classifier.init();
+        try (InputStream in = loader.getResource(MODEL).getInputStream()) {
+            model = new ObjectMapper().readTree(in);
+        }
+    }
+
+    @Test
+    void cleansLikeTheMlService() {
+        assertEquals("chestpain , fever", LocalTriageClassifier.clean("Chest-Pain!!  ,  FEVER "));
+        assertEquals("high fever,dry cough", LocalTriageClassifier.clean("High fever,Dry   cough."));
+        // only plain spaces survive, as in clean_text: a tab is dropped, not turned into a space
+        assertEquals("highfever", LocalTriageClassifier.clean("high\tfever"));
+        assertEquals("", LocalTriageClassifier.clean("?!"));
+    }
+
+    @Test
+    void tokenizesIntoUnigramsAndBigramsWithinEachPhrase() {
+        assertEquals(List.of("high", "high fever", "fever", "dry", "dry cough", "cough"),
+            LocalTriageClassifier.tokenize("high fever, dry cough"));
+        // no bigram spans the comma, and empty phrases add nothing
+        assertEquals(List.of("fever", "cough"), LocalTriageClassifier.tokenize("fever,,cough"));
+        assertEquals(List.of(), LocalTriageClassifier.tokenize(""));
+    }
+
+    @Test
+    void scoresWithTheExportedLogProbabilities() {
+        List<String> symptoms = List.of("Abdominal pain", "abnormal sweating", "zzz-unknown");
+        double[] scores = {prior(0), prior(1)};
+        for (String token : List.of("abdominal", "abdominal pain", "pain", "abnormal", "abnormal sweating", "sweating")) {
+            JsonNode likelihoods = model.get("logLikelihoods").get(token);
+            assertNotNull(likelihoods, token + " should be in the vocabulary");
+            scores[0] += likelihoods.get(0).asDouble();
+            scores[1] += likelihoods.get(1).asDouble();
+        }
+        int best = scores[1] > scores[0] ? 1 : 0;
+        double confidence = 1.0 / (1.0 + Math.exp(scores[1 - best] - scores[best]));
+
+        Map<String, Object> result = classifier.predict(symptoms);
+
+        assertEquals(model.get("labels").get(best).asText(), result.get("predicted_risk"));
+        assertEquals(Math.round(confidence * 10000) / 100.0 + "%", result.get("confidence"));
+        assertEquals("triage-nb-v1", result.get("model_version"));
+        assertEquals(symptoms, result.get("input_symptoms"));
+    }
+
+    @Test
+    void unseenTokensLeaveOnlyThePriors() {
+        double low = 1.0 / (1.0 + Math.exp(prior(1) - prior(0)));
+
+        Map<String, Object> result = classifier.predict(List.of("qwertyuiop"));
+
+        assertEquals("LOW", result.get("predicted_risk"));
+        assertEquals(Math.round(low * 10000) / 100.0 + "%", result.get("confidence"));
+        assertNull(result.get("recommend_doctor"));
+    }
+
+    @Test
+    void highRiskKeywordsOverrideTheScores() {
+        Map<String, Object> result = classifier.predict(List.of("mild itching", "Chest pain"));
+
+        assertEquals("HIGH", result.get("predicted_risk"));
+        assertEquals("100.0%", result.get("confidence"));
+        assertEquals("Consult Doctor", result.get("recommend_doctor"));
+        // keywords are matched on the cleaned text, so punctuation doesn't hide them
+        assertEquals("HIGH", classifier.predict(List.of("heart-attack")).get("predicted_risk"));
+    }
+
+    @Test
+    void refusesToPredictWithoutAModel() {
+        LocalTriageClassifier missing = new LocalTriageClassifier();
+        ReflectionTestUtils.setField(missing, "modelLocation", "classpath:models/missing.json");
+        ReflectionTestUtils.setField(missing, "resourceLoader", new DefaultResourceLoader());
+        missing.init();
+
+        assertFalse(missing.isAvailable());
+        assertNull(missing.getModelVersion());
+        assertThrows(IllegalStateException.class, () -> missing.predict(List.of("fever")));
+    }
+
+    private double prior(int label) {
+        return model.get("logPriors").get(label).asDouble();
+    }
+}
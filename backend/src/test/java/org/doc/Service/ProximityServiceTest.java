@@ -0,0 +1,119 @@
+package org.doc.Service;
+
+import org.doc.Repository.DoctorLocationRepository;
+import org.doc.dto.DoctorLocationDTO;
+import org.doc.dto.NearbyDoctorDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProximityServiceTest {
+
+    private JdbcTemplate jdbc;
+    private final List<ProximityService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:proximity-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbc.execute("CREATE TABLE doctor_locations (doctor_id VARCHAR(255) PRIMARY KEY, name VARCHAR(255), "
+            + "pincode VARCHAR(16), roster_version BIGINT NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(ProximityService::shutdown);
+    }
+
+    @Test
+    void aPushedRosterReachesOtherInstancesAndSurvivesRestarts() {
+        ProximityService first = service("");
+        ProximityService second = service("");
+        assertTrue(first.nearestDoctors("110001", 5).isEmpty());
+
+        first.replaceRoster(List.of(doctor("d1", "Delhi Clinic", "110001"), doctor("d2", "Noida Clinic", "201301"),
+            doctor("d3", "Nowhere Clinic", "999999")));
+
+        assertEquals(List.of("d2", "d1"), ids(first.nearestDoctors("201301", 5)));
+        assertEquals(3, first.stats().get("doctors"));
+        assertEquals(2, first.stats().get("indexedDoctors"));
+
+        ReflectionTestUtils.invokeMethod(second, "reloadIfChanged");
+        assertEquals(List.of("d2", "d1"), ids(second.nearestDoctors("201301", 5)));
+
+        ProximityService restarted = service("");
+        assertEquals(List.of("d1", "d2"), ids(restarted.nearestDoctors("110001", 5)));
+    }
+
+    @Test
+    void aNewPushReplacesTheWholeRoster() {
+        ProximityService service = service("");
+        service.replaceRoster(List.of(doctor("d1", "Delhi Clinic", "110001"), doctor("d2", "Noida Clinic", "201301")));
+        service.replaceRoster(List.of(doctor("d3", "Gurgaon Clinic", "122001")));
+
+        assertEquals(List.of("d3"), ids(service.nearestDoctors("110001", 5)));
+        assertEquals(List.of("d3"), ids(service("").nearestDoctors("110001", 5)));
+    }
+
+    @Test
+    void rejectsPushesWhileTheRosterComesFromAFile() {
+        ProximityService service = service("classpath:proximity/pincodes.csv");
+
+        assertThrows(IllegalStateException.class,
+            () -> service.replaceRoster(List.of(doctor("d1", "Delhi Clinic", "110001"))));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM doctor_locations", Integer.class));
+    }
+
+    @Test
+    void rejectsDoctorsWithoutAnId() {
+        ProximityService service = service("");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.replaceRoster(List.of(doctor(" ", "Delhi Clinic", "110001"))));
+    }
+
+    @Test
+    void unknownPincodesFindNothing() {
+        ProximityService service = service("");
+        service.replaceRoster(List.of(doctor("d1", "Delhi Clinic", "110001")));
+
+        assertNull(service.nearestDoctors("999999", 5));
+        assertNull(service.nearestDoctors(null, 5));
+    }
+
+    private ProximityService service(String doctorsFile) {
+        DoctorLocationRepository repository = new DoctorLocationRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbc);
+        ProximityService service = new ProximityService();
+        ReflectionTestUtils.setField(service, "pincodesLocation", "classpath:proximity/pincodes.csv");
+        ReflectionTestUtils.setField(service, "doctorsLocation", doctorsFile);
+        ReflectionTestUtils.setField(service, "refreshCheckSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(service, "doctorLocationRepository", repository);
+        service.init();
+        services.add(service);
+        return service;
+    }
+
+    private static DoctorLocationDTO doctor(String id, String name, String pincode) {
+        DoctorLocationDTO doctor = new DoctorLocationDTO();
+        doctor.setDoctorId(id);
+        doctor.setName(name);
+        doctor.setPincode(pincode);
+        return doctor;
+    }
+
+    private static List<String> ids(List<NearbyDoctorDTO> doctors) {
+        return doctors.stream().map(NearbyDoctorDTO::getDoctorId).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package org.doc.Service;
+
+import jdk.jfr.Recording;
+import org.doc.tracing.Span;
+import org.doc.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordingAnalyzerTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void summarizesStageLatenciesAndContention(@TempDir Path dir) throws Exception {
+        Tracer tracer = new Tracer();
+        ReflectionTestUtils.setField(tracer, "enabled", false);
+        tracer.init();
+
+        Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.doc.Span");
+            recording.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                try (Span span = tracer.startSpan("journal.append")) {
+                    if (i == 2) {
+                        span.recordError(new IllegalStateException("disk full"));
+                    }
+                }
+            }
+            try (Span span = tracer.startSpan("smtp.send")) {
+                Thread.sleep(50);
+            }
+            contendOnTheLock();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Object> summary = new RecordingAnalyzer().analyze(file);
+
+        assertEquals("recording.jfr", summary.get("file"));
+        Map<?, ?> stages = (Map<?, ?>) summary.get("stages");
+        assertEquals(List.of("journal.append", "smtp.send"), List.copyOf(stages.keySet()), "sorted by span name");
+        Map<?, ?> journal = (Map<?, ?>) stages.get("journal.append");
+        assertEquals(3, journal.get("count"));
+        assertEquals(1L, journal.get("errors"));
+        Map<?, ?> smtp = (Map<?, ?>) stages.get("smtp.send");
+        assertEquals(0L, smtp.get("errors"));
+        assertTrue((Double) smtp.get("maxMs") >= 50, "took " + smtp.get("maxMs"));
+        assertEquals(smtp.get("maxMs"), smtp.get("p50Ms"), "a single sample is every percentile");
+
+        List<?> contention = (List<?>) summary.get("monitorContention");
+        assertFalse(contention.isEmpty());
+        String where = String.valueOf(((Map<?, ?>) contention.get(0)).get("where"));
+        assertTrue(where.startsWith("java.lang.Object at " + RecordingAnalyzerTest.class.getName() + "."),
+            "grouped by the first frame in our code: " + where);
+    }
+
+    // the main thread holds the monitor while a second thread blocks entering it
+    private void contendOnTheLock() throws InterruptedException {
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread blocked;
+        synchronized (lock) {
+            blocked = new Thread(() -> {
+                waiting.countDown();
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            });
+            blocked.start();
+            waiting.await();
+            Thread.sleep(100);
+        }
+        blocked.join();
+    }
+}
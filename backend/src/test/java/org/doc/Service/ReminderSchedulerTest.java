@@ -0,0 +1,147 @@
+package org.doc.Service;
+
+import org.doc.Repository.AppointmentRepository;
+import org.doc.Repository.ReminderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReminderSchedulerTest {
+
+    private static final String DOCTOR = "doc1";
+    private static final String CONTACT = "patient@example.com";
+
+    private JdbcTemplate jdbc;
+    private AppointmentRepository appointments;
+    private EmailService email;
+    private ReminderScheduler scheduler;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:reminders-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbc.execute("CREATE TABLE appointment_reminders (reminder_key VARCHAR(512) PRIMARY KEY, "
+            + "instance_id VARCHAR(255) NOT NULL, status VARCHAR(20) NOT NULL DEFAULT 'CLAIMED', "
+            + "claimed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        ReminderRepository reminders = new ReminderRepository();
+        ReflectionTestUtils.setField(reminders, "jdbcTemplate", jdbc);
+
+        // an appointment 12s from now, reminded 8s ahead
+        start = LocalDateTime.now(ZoneOffset.UTC).plusSeconds(12).truncatedTo(ChronoUnit.SECONDS);
+        Map<String, Object> row = new HashMap<>();
+        row.put("doctor_id", DOCTOR);
+        row.put("contact", CONTACT);
+        row.put("date", Date.valueOf(start.toLocalDate()));
+        row.put("time", Time.valueOf(start.toLocalTime()));
+        row.put("status", "SCHEDULED");
+        appointments = mock(AppointmentRepository.class);
+        when(appointments.findByDateRange(any(), any())).thenReturn(List.of(row));
+        when(appointments.isScheduled(DOCTOR, CONTACT, start.toLocalDate(), start.toLocalTime())).thenReturn(true);
+        email = mock(EmailService.class);
+
+        scheduler = new ReminderScheduler();
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "offsetsProperty", "8s");
+        ReflectionTestUtils.setField(scheduler, "loadIntervalProperty", "1h");
+        ReflectionTestUtils.setField(scheduler, "maxLatenessProperty", "30m");
+        ReflectionTestUtils.setField(scheduler, "maxAttempts", 3);
+        ReflectionTestUtils.setField(scheduler, "retryDelayProperty", "1s");
+        ReflectionTestUtils.setField(scheduler, "claimLeaseProperty", "1s");
+        ReflectionTestUtils.setField(scheduler, "maxConcurrentSends", 2);
+        ReflectionTestUtils.setField(scheduler, "zoneProperty", "UTC");
+        ReflectionTestUtils.setField(scheduler, "appointmentRepository", appointments);
+        ReflectionTestUtils.setField(scheduler, "reminderRepository", reminders);
+        ReflectionTestUtils.setField(scheduler, "emailService", email);
+        ReflectionTestUtils.setField(scheduler, "smsService", mock(SMSService.class));
+    }
+
+    @AfterEach
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void sendsTheLoadedReminderOnceWhenItComesDue() throws Exception {
+        scheduler.init();
+
+        verify(email, timeout(8000)).sendReminder(eq(CONTACT), anyString(), contains(DOCTOR));
+        awaitStatus("SENT");
+        Thread.sleep(1500);
+        verify(email, times(1)).sendReminder(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void cancelledAppointmentsAreNotReminded() throws Exception {
+        when(appointments.isScheduled(any(), any(), any(), any())).thenReturn(false);
+        scheduler.init();
+
+        verify(appointments, timeout(8000)).isScheduled(DOCTOR, CONTACT, start.toLocalDate(), start.toLocalTime());
+        Thread.sleep(500);
+        verifyNoInteractions(email);
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM appointment_reminders", Integer.class));
+    }
+
+    @Test
+    void aClaimLeftByACrashedInstanceIsTakenOverAfterTheLease() throws Exception {
+        jdbc.update("INSERT INTO appointment_reminders(reminder_key, instance_id, status) VALUES (?, 'crashed', 'CLAIMED')", key());
+        // still leased when the reminder comes due (~4s), expired when it is looked at again (~10s)
+        ReflectionTestUtils.setField(scheduler, "claimLeaseProperty", "6s");
+        scheduler.init();
+
+        verify(appointments, timeout(7000)).isScheduled(any(), any(), any(), any());
+        Thread.sleep(500);
+        verifyNoInteractions(email);
+        verify(email, timeout(8000)).sendReminder(eq(CONTACT), anyString(), anyString());
+        awaitStatus("SENT");
+        assertNotEquals("crashed", jdbc.queryForObject(
+            "SELECT instance_id FROM appointment_reminders WHERE reminder_key = ?", String.class, key()));
+    }
+
+    @Test
+    void aReminderSentElsewhereIsNotSentAgain() throws Exception {
+        jdbc.update("INSERT INTO appointment_reminders(reminder_key, instance_id, status) VALUES (?, 'other', 'SENT')", key());
+        scheduler.init();
+
+        verify(appointments, timeout(8000)).isScheduled(any(), any(), any(), any());
+        Thread.sleep(2000);
+        verifyNoInteractions(email);
+        verify(appointments, times(1)).isScheduled(any(), any(), any(), any());
+    }
+
+    private String key() {
+        return DOCTOR + "|" + CONTACT + "|" + start.toLocalDate() + "T" + start.toLocalTime() + "|" + Duration.ofSeconds(8);
+    }
+
+    private void awaitStatus(String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        String status = null;
+        while (System.currentTimeMillis() < deadline) {
+            List<String> statuses = jdbc.queryForList("SELECT status FROM appointment_reminders", String.class);
+            status = statuses.isEmpty() ? null : statuses.get(0);
+            if (expected.equals(status)) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(expected, status);
+    }
+}
@@ -0,0 +1,49 @@
+package org.doc.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsABurstOfCapacityThenReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(3, 0.5);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume());
+        }
+        long waitNanos = bucket.tryConsume();
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(1900) && waitNanos <= TimeUnit.SECONDS.toNanos(2),
+            "one token every 2s, got " + waitNanos + "ns");
+    }
+
+    @Test
+    void refundGivesBackATokenButNeverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 0.001);
+
+        bucket.refund();
+        assertTrue(bucket.isFull());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0, "only capacity tokens despite the early refund");
+
+        bucket.refund();
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void refillsContinuouslyUpToCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 1000);
+        bucket.tryConsume();
+        bucket.tryConsume();
+        assertFalse(bucket.isFull());
+
+        Thread.sleep(20);
+        assertTrue(bucket.isFull());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+    }
+}
@@ -0,0 +1,153 @@
+package org.doc.Service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.doc.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriageServiceTest {
+
+    private static final List<String> CHEST_PAIN = List.of("chest pain");
+
+    private HttpServer server;
+    private volatile long remoteDelayMillis;
+    private volatile int remoteStatus = 200;
+    private volatile String remoteRisk = "HIGH";
+    private Tracer tracer;
+    private TriageService triage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/predict", exchange -> {
+            try {
+                Thread.sleep(remoteDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"predicted_risk\":\"" + remoteRisk + "\",\"confidence\":\"90.0%\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(remoteStatus, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        tracer = new Tracer();
+        ReflectionTestUtils.setField(tracer, "enabled", false);
+        tracer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (triage != null) {
+            triage.shutdown();
+        }
+        tracer.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void answersFromTheRemoteModelWithinTheDeadlineAndComparesTheLocalOne() throws Exception {
+        triage = triage(true, true);
+
+        Map<String, Object> result = triage.predict(CHEST_PAIN);
+
+        assertEquals("HIGH", result.get("predicted_risk"));
+        assertEquals("90.0%", result.get("confidence"));
+        assertNull(result.get("source"));
+        awaitMetric("confusion", Map.of("HIGH", Map.of("HIGH", 1L)));
+        Map<String, Object> metrics = triage.metrics();
+        assertEquals(1L, metrics.get("remoteOnTime"));
+        assertEquals(0L, metrics.get("localFallbacks"));
+        assertEquals(1L, metrics.get("shadowCompared"));
+        assertEquals(1.0, metrics.get("shadowAgreement"));
+        assertEquals("triage-nb-v1", metrics.get("modelVersion"));
+        assertNotNull(metrics.get("localAvgMicros"));
+    }
+
+    @Test
+    void fallsBackToTheLocalModelWhenTheDeadlinePassesAndStillComparesTheLateAnswer() throws Exception {
+        triage = triage(true, true);
+        remoteDelayMillis = 600;
+        remoteRisk = "LOW";
+
+        long start = System.nanoTime();
+        Map<String, Object> result = triage.predict(CHEST_PAIN);
+        long tookMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("local-fallback", result.get("source"));
+        assertEquals("HIGH", result.get("predicted_risk"));
+        assertTrue(tookMillis < 500, "answered after " + tookMillis + " ms");
+        assertEquals(1L, triage.metrics().get("localFallbacks"));
+
+        awaitMetric("remoteLate", 1L);
+        awaitMetric("confusion", Map.of("LOW", Map.of("HIGH", 1L)));
+        Map<String, Object> metrics = triage.metrics();
+        assertEquals(0L, metrics.get("remoteOnTime"));
+        assertEquals(1L, metrics.get("shadowCompared"));
+        assertEquals(0.0, metrics.get("shadowAgreement"));
+    }
+
+    @Test
+    void fallsBackWhenTheRemoteCallFails() throws Exception {
+        triage = triage(true, false);
+        remoteStatus = 500;
+
+        Map<String, Object> result = triage.predict(CHEST_PAIN);
+
+        assertEquals("local-fallback", result.get("source"));
+        Map<String, Object> metrics = triage.metrics();
+        assertEquals(1L, metrics.get("remoteFailed"));
+        assertEquals(1L, metrics.get("localFallbacks"));
+        assertEquals(0L, metrics.get("shadowCompared"));
+        assertNull(metrics.get("shadowAgreement"));
+    }
+
+    @Test
+    void surfacesTheTimeoutWhenFallbackIsDisabled() {
+        triage = triage(false, false);
+        remoteDelayMillis = 600;
+
+        assertThrows(TimeoutException.class, () -> triage.predict(CHEST_PAIN));
+        assertEquals(0L, triage.metrics().get("localFallbacks"));
+    }
+
+    private TriageService triage(boolean fallback, boolean shadow) {
+        LocalTriageClassifier classifier = new LocalTriageClassifier();
+        ReflectionTestUtils.setField(classifier, "modelLocation", "classpath:models/triage-nb-v1.json");
+        ReflectionTestUtils.setField(classifier, "resourceLoader", new DefaultResourceLoader());
+        classifier.init();
+
+        TriageService service = new TriageService();
+        ReflectionTestUtils.setField(service, "remoteUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/predict");
+        ReflectionTestUtils.setField(service, "deadlineMillis", 200L);
+        ReflectionTestUtils.setField(service, "readTimeoutMillis", 5000);
+        ReflectionTestUtils.setField(service, "maxConcurrentRemote", 2);
+        ReflectionTestUtils.setField(service, "fallbackEnabled", fallback);
+        ReflectionTestUtils.setField(service, "shadowEnabled", shadow);
+        ReflectionTestUtils.setField(service, "localClassifier", classifier);
+        ReflectionTestUtils.setField(service, "tracer", tracer);
+        service.init();
+        return service;
+    }
+
+    // shadow comparisons (confusion last) and late counts are recorded when the remote answer arrives, off the caller's thread
+    private void awaitMetric(String name, Object expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(triage.metrics().get(name)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, triage.metrics().get(name), name);
+    }
+}
@@ -0,0 +1,194 @@
+package org.doc.tracing;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    private Tracer tracer;
+    private ExecutorService executor;
+
+    @AfterEach
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (tracer != null) {
+            tracer.shutdown();
+        }
+    }
+
+    @Test
+    void wrappedTasksRunInTheCallersTraceAndRestoreTheWorkerContext() throws Exception {
+        tracer = tracer(1.0);
+        executor = Executors.newSingleThreadExecutor();
+        AtomicReference<Span> child = new AtomicReference<>();
+        AtomicReference<Span> afterTask = new AtomicReference<>();
+
+        Span root;
+        try (Span span = tracer.startSpan("request")) {
+            root = span;
+            executor.submit(TraceContext.wrap(() -> {
+                try (Span work = tracer.startSpan("async.work")) {
+                    child.set(work);
+                }
+            })).get();
+            assertSame(root, TraceContext.current());
+        }
+        executor.submit(() -> afterTask.set(TraceContext.current())).get();
+
+        assertEquals(root.getTraceId(), child.get().getTraceId());
+        assertEquals(root.getSpanId(), child.get().getParentSpanId());
+        assertNull(afterTask.get(), "the worker thread must not keep the wrapped task's span");
+        assertNull(TraceContext.current());
+        assertEquals(2, awaitSpans(2).size());
+    }
+
+    @Test
+    void unwrappedTasksStartTheirOwnTrace() throws Exception {
+        tracer = tracer(1.0);
+        executor = Executors.newSingleThreadExecutor();
+        AtomicReference<Span> detached = new AtomicReference<>();
+
+        try (Span root = tracer.startSpan("request")) {
+            executor.submit(() -> {
+                try (Span work = tracer.startSpan("async.work")) {
+                    detached.set(work);
+                }
+            }).get();
+            assertNotEquals(root.getTraceId(), detached.get().getTraceId());
+            assertNull(detached.get().getParentSpanId());
+        }
+    }
+
+    @Test
+    void childrenInheritTheSamplingDecisionOfTheirRoot() throws Exception {
+        tracer = tracer(0.0);
+        try (Span root = tracer.startSpan("unsampled")) {
+            try (Span child = tracer.startSpan("child")) {
+                child.setAttribute("key", "value");
+                assertFalse(child.isSampled());
+                assertTrue(child.toMap().get("attributes") instanceof java.util.Map<?, ?> attributes && attributes.isEmpty());
+            }
+        }
+
+        // sampled upstream: recorded completely even though the local rate is 0
+        try (Span root = tracer.startTrace("sampled", "00-" + TRACE_ID + "-" + PARENT_ID + "-01")) {
+            try (Span child = tracer.startSpan("child")) {
+                assertTrue(child.isSampled());
+            }
+        }
+        List<Span> exported = awaitSpans(2);
+        assertEquals(2, exported.size());
+        assertTrue(exported.stream().allMatch(span -> TRACE_ID.equals(span.getTraceId())));
+    }
+
+    @Test
+    void validTraceparentContinuesTheCallersTrace() {
+        tracer = tracer(1.0);
+        try (Span span = tracer.startTrace("GET /appointments", "00-" + TRACE_ID + "-" + PARENT_ID + "-00")) {
+            assertEquals(TRACE_ID, span.getTraceId());
+            assertEquals(PARENT_ID, span.getParentSpanId());
+            assertFalse(span.isSampled(), "flags 00 means not sampled, whatever the local rate");
+        }
+        try (Span span = tracer.startTrace("GET /appointments", "00-" + TRACE_ID + "-" + PARENT_ID + "-03")) {
+            assertTrue(span.isSampled(), "the sampled bit is bit 0 of the flags");
+            assertTrue(span.traceparent().startsWith("00-" + TRACE_ID + "-"));
+        }
+    }
+
+    @Test
+    void invalidTraceparentStartsANewTrace() {
+        tracer = tracer(1.0);
+        String[] invalid = {
+            "",
+            "garbage",
+            "01-" + TRACE_ID + "-" + PARENT_ID + "-01",
+            "00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01",
+            "00-" + "0".repeat(32) + "-" + PARENT_ID + "-01",
+            "00-" + TRACE_ID + "-" + "0".repeat(16) + "-01",
+            "00-" + TRACE_ID.replace('4', 'z') + "-" + PARENT_ID + "-01",
+            "00-" + TRACE_ID + "-" + PARENT_ID + "-01-extra",
+            "00-" + TRACE_ID + "x" + PARENT_ID + "-01"
+        };
+        for (String header : invalid) {
+            try (Span span = tracer.startTrace("GET /appointments", header)) {
+                assertNotEquals(TRACE_ID, span.getTraceId(), header);
+                assertNull(span.getParentSpanId(), header);
+                assertEquals(32, span.getTraceId().length());
+            }
+        }
+    }
+
+    @Test
+    void disabledTracingStillRecordsSpanEventsDuringARecording(@TempDir Path dir) throws Exception {
+        tracer = new Tracer();
+        ReflectionTestUtils.setField(tracer, "enabled", false);
+        tracer.init();
+        assertSame(Span.NOOP, tracer.startSpan("before"), "nothing to record without a recording");
+
+        Path file = dir.resolve("spans.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SpanEvent.NAME);
+            recording.start();
+            try (Span span = tracer.startSpan("booking")) {
+                assertNull(TraceContext.current(), "untraced spans never become current");
+                try (Span child = tracer.startSpan("db.insert")) {
+                    child.recordError(new IllegalStateException("shard down"));
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().equals(SpanEvent.NAME))
+            .toList();
+        assertEquals(List.of("db.insert", "booking"), events.stream().map(event -> event.getString("name")).toList());
+        assertEquals("IllegalStateException: shard down", events.get(0).getString("error"));
+        assertEquals(0L, tracer.stats().get("spansStarted"));
+    }
+
+    private static Tracer tracer(double sampleRate) {
+        Tracer tracer = new Tracer();
+        ReflectionTestUtils.setField(tracer, "enabled", true);
+        ReflectionTestUtils.setField(tracer, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(tracer, "exporterName", "memory");
+        ReflectionTestUtils.setField(tracer, "memoryCapacity", 100);
+        ReflectionTestUtils.setField(tracer, "queueSize", 100);
+        try {
+            tracer.init();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return tracer;
+    }
+
+    // export is asynchronous; wait for the spans, then a little longer to catch any extra ones
+    private List<Span> awaitSpans(int expected) throws InterruptedException {
+        InMemorySpanExporter memory = (InMemorySpanExporter) tracer.getExporter();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (memory.getSpans().size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        return memory.getSpans();
+    }
+}